@@ -0,0 +1,110 @@
+package com.renatom.minhasfinancas.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import com.renatom.minhasfinancas.MinhasfinancasApplication;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.repository.UsuarioRepository;
+import com.renatom.minhasfinancas.service.TokenService;
+
+// Teste de carga lado a lado da listagem de lancamentos bloqueante (/api/lancamentos) e assincrona (/api/async/lancamentos).
+// O grupo "carga" tem muitas threads fazendo a listagem e poucas chamando um endpoint leve (/actuator/health).
+// Com o Tomcat limitado a poucas threads, no caminho bloqueante as listagens ocupam todas elas e o health espera na fila;
+// no assincrono as threads do Tomcat sao liberadas e o tempo do health mostra a diferença de concorrencia.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g", "-Dhttp.maxConnections=200" })
+public class ConcorrenciaConsultaBenchmark {
+
+	private static final String POPULAR_LANCAMENTOS = "insert into financas.lancamento "
+			+ "(id, descricao, mes, ano, id_usuario, valor, data_cadastro, tipo, status, versao) "
+			+ "select x, 'Lancamento ' || x, mod(x, 12) + 1, 2015 + mod(x / 12, 10), ?, mod(x, 1000) + 1, current_date, "
+			+ "case when mod(x, 2) = 0 then 'RECEITA' else 'DESPESA' end, 'PENDENTE', 0 "
+			+ "from system_range(1, ?)";
+
+	@Param({ "/api/lancamentos", "/api/async/lancamentos" })
+	private String caminho;
+
+	@Param({ "16" })
+	private int threadsTomcat;
+
+	private ConfigurableApplicationContext contexto;
+
+	private RestTemplate restTemplate;
+
+	private String urlListagem;
+
+	private String urlHealth;
+
+	private HttpEntity<Void> autorizacao;
+
+	@Setup
+	public void setUp() {
+		contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.profiles("test")
+				.properties("server.port=0", "server.tomcat.max-threads=" + threadsTomcat,
+						"spring.jpa.show-sql=false", "logging.level.root=WARN",
+						"financas.pesquisa.indexacao.intervalo-ms=86400000")
+				.run();
+
+		Usuario usuario = contexto.getBean(UsuarioRepository.class)
+				.save(Usuario.builder().name("carga").email("carga@email.com").senha("senha").build());
+		contexto.getBean(JdbcTemplate.class).update(POPULAR_LANCAMENTOS, usuario.getId(), 100000);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(contexto.getBean(TokenService.class).gerarToken(usuario));
+		autorizacao = new HttpEntity<>(headers);
+
+		int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+		urlListagem = "http://localhost:" + porta + caminho + "?ano=2020";
+		urlHealth = "http://localhost:" + porta + "/actuator/health";
+		restTemplate = new RestTemplate();
+	}
+
+	@TearDown
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	@Group("carga")
+	@GroupThreads(64)
+	public ResponseEntity<String> listarLancamentos() {
+		return restTemplate.exchange(urlListagem, HttpMethod.GET, autorizacao, String.class);
+	}
+
+	@Benchmark
+	@Group("carga")
+	@GroupThreads(2)
+	public ResponseEntity<String> consultarHealth() {
+		return restTemplate.getForEntity(urlHealth, String.class);
+	}
+
+}
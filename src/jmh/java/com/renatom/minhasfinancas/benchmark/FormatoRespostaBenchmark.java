@@ -0,0 +1,99 @@
+package com.renatom.minhasfinancas.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.renatom.minhasfinancas.conversao.LancamentoProtobuf;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+// Formatos da resposta do GET /api/lancamentos: tempo para codificar (servidor) e decodificar (cliente) uma lista de
+// LancamentoDTO em JSON, Smile, CBOR e protobuf. O tamanho de cada formato é impresso no inicio de cada trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatoRespostaBenchmark {
+
+	private static final TypeReference<List<LancamentoDTO>> LISTA = new TypeReference<List<LancamentoDTO>>() {
+	};
+
+	@Param({ "100", "10000" })
+	private int quantidade;
+
+	@Param({ "json", "smile", "cbor", "protobuf" })
+	private String formato;
+
+	private ObjectMapper objectMapper;
+
+	private List<LancamentoDTO> lancamentos;
+
+	private byte[] codificado;
+
+	@Setup
+	public void setUp() throws IOException {
+		switch (formato) {
+		case "smile":
+			objectMapper = new ObjectMapper(new SmileFactory());
+			break;
+		case "cbor":
+			objectMapper = new ObjectMapper(new CBORFactory());
+			break;
+		default:
+			objectMapper = new ObjectMapper();
+		}
+
+		lancamentos = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			lancamentos.add(new LancamentoDTO((long) i, "Lancamento " + i, i % 12 + 1, 2015 + i % 10, 1l,
+					BigDecimal.valueOf(i % 100000 + 1, 2), i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA,
+					StatusLancamento.PENDENTE, 0l));
+		}
+
+		codificado = codificar();
+		System.out.println(formato + ": " + codificado.length + " bytes para " + quantidade + " lancamentos");
+	}
+
+	@Benchmark
+	public byte[] codificar() throws IOException {
+		if ("protobuf".equals(formato)) {
+			ByteArrayOutputStream saida = new ByteArrayOutputStream();
+			LancamentoProtobuf.escrever(lancamentos, null, saida);
+			return saida.toByteArray();
+		}
+		return objectMapper.writeValueAsBytes(lancamentos);
+	}
+
+	@Benchmark
+	public List<LancamentoDTO> decodificar() throws IOException {
+		if ("protobuf".equals(formato)) {
+			return LancamentoProtobuf.ler(new ByteArrayInputStream(codificado)).getItens();
+		}
+		return objectMapper.readValue(codificado, LISTA);
+	}
+
+}
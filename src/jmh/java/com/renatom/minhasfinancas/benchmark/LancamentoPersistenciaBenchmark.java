@@ -0,0 +1,127 @@
+package com.renatom.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.renatom.minhasfinancas.MinhasfinancasApplication;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.model.repository.UsuarioRepository;
+import com.renatom.minhasfinancas.service.LancamentoService;
+import com.renatom.minhasfinancas.service.SaldoUsuarioService;
+
+// Consultas de lancamento contra o H2 em memoria do profile test, com a aplicação inteira de pé.
+// Cada tamanho de linhasPorUsuario roda em um fork proprio, com o banco populado uma unica vez no setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LancamentoPersistenciaBenchmark {
+
+//	Gera todas as linhas em um unico insert ... select, bem mais rapido que salvar 1 milhao de entidades pelo JPA.
+//	As linhas variam ano (2015 a 2024), mes, tipo e status para que os filtros tenham seletividade realista.
+	private static final String POPULAR_LANCAMENTOS = "insert into financas.lancamento "
+			+ "(id, descricao, mes, ano, id_usuario, valor, data_cadastro, tipo, status, versao) "
+			+ "select x, 'Lancamento ' || x, mod(x, 12) + 1, 2015 + mod(x / 12, 10), ?, mod(x, 1000) + 1, current_date, "
+			+ "case when mod(x, 2) = 0 then 'RECEITA' else 'DESPESA' end, "
+			+ "case mod(x, 3) when 0 then 'PENDENTE' when 1 then 'EFETIVADO' else 'CANCELADO' end, 0 "
+			+ "from system_range(1, ?)";
+
+	@Param({ "1000", "100000", "1000000" })
+	private int linhasPorUsuario;
+
+	private ConfigurableApplicationContext contexto;
+
+	private LancamentoService service;
+
+	private LancamentoRepository repository;
+
+	private Long idUsuario;
+
+	private Lancamento filtroAnoMes;
+
+	private Lancamento filtroDescricao;
+
+	private Lancamento filtroTipo;
+
+	@Setup
+	public void setUp() {
+//		O job de indexação roda uma vez na subida, antes dos dados existirem, e o intervalo alto evita que rode de novo
+//		durante a medição.
+		contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.profiles("test")
+				.properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN",
+						"financas.pesquisa.indexacao.intervalo-ms=86400000")
+				.run();
+		service = contexto.getBean(LancamentoService.class);
+		repository = contexto.getBean(LancamentoRepository.class);
+
+		Usuario usuario = contexto.getBean(UsuarioRepository.class)
+				.save(Usuario.builder().name("benchmark").email("benchmark@email.com").senha("senha").build());
+		idUsuario = usuario.getId();
+		contexto.getBean(JdbcTemplate.class).update(POPULAR_LANCAMENTOS, idUsuario, linhasPorUsuario);
+		contexto.getBean(SaldoUsuarioService.class).recalcularSaldo(idUsuario);
+
+		filtroAnoMes = Lancamento.builder().usuario(usuario).ano(2020).mes(6).build();
+		filtroDescricao = Lancamento.builder().usuario(usuario).descricao("99").build();
+		filtroTipo = Lancamento.builder().usuario(usuario).tipo(TipoLancamento.RECEITA).ano(2020).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public List<Lancamento> buscarPorAnoEMes() {
+		return service.buscar(filtroAnoMes);
+	}
+
+	@Benchmark
+	public List<Lancamento> buscarPorDescricao() {
+		return service.buscar(filtroDescricao);
+	}
+
+	@Benchmark
+	public List<Lancamento> buscarPorTipoEAno() {
+		return service.buscar(filtroTipo);
+	}
+
+	@Benchmark
+	public List<LancamentoDTO> consultarProjecaoPorAnoEMes() {
+		return service.consultar(filtroAnoMes);
+	}
+
+	@Benchmark
+	public BigDecimal obterSaldoPorUsuario() {
+		return service.obterSaldoPorUsuario(idUsuario);
+	}
+
+	@Benchmark
+	public BigDecimal calcularSaldoPelosLancamentos() {
+		return repository.obterSaldoPorUsuario(idUsuario, TipoLancamento.RECEITA, TipoLancamento.DESPESA);
+	}
+
+}
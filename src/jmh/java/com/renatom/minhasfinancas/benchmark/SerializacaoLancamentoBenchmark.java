@@ -0,0 +1,85 @@
+package com.renatom.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+// Serialização JSON das listas devolvidas pela API, com a entidade Lancamento (e o Usuario aninhado)
+// e com a projeção LancamentoDTO usada hoje nos GETs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoLancamentoBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	private int quantidade;
+
+	private ObjectWriter writer;
+
+	private List<Lancamento> lancamentos;
+
+	private List<LancamentoDTO> dtos;
+
+	@Setup
+	public void setUp() {
+		writer = new ObjectMapper().registerModule(new JavaTimeModule()).writer();
+		Usuario usuario = Usuario.builder().id(1l).name("usuario").email("usuario@email.com").senha("senha").build();
+		lancamentos = new ArrayList<>(quantidade);
+		dtos = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			Lancamento lancamento = Lancamento.builder()
+					.id((long) i)
+					.descricao("Lancamento " + i)
+					.mes(i % 12 + 1)
+					.ano(2015 + i % 10)
+					.usuario(usuario)
+					.valor(BigDecimal.valueOf(i % 1000 + 1, 2))
+					.dataCadastro(LocalDate.now())
+					.tipo(i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+					.status(StatusLancamento.PENDENTE)
+					.build();
+			lancamentos.add(lancamento);
+			dtos.add(new LancamentoDTO(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(),
+					lancamento.getAno(), usuario.getId(), lancamento.getValor(), lancamento.getTipo(),
+					lancamento.getStatus(), lancamento.getVersao()));
+		}
+	}
+
+	@Benchmark
+	public byte[] serializarLancamentos() throws JsonProcessingException {
+		return writer.writeValueAsBytes(lancamentos);
+	}
+
+	@Benchmark
+	public byte[] serializarLancamentosDto() throws JsonProcessingException {
+		return writer.writeValueAsBytes(dtos);
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.renatom.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.service.impl.LancamentoServiceImpl;
+
+// Validação executada em todo salvar e atualizar de lancamento, nao usa o banco.
+// O caso invalido mede tambem o custo de criar a RegraNegocioException.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidacaoLancamentoBenchmark {
+
+	private LancamentoServiceImpl service;
+
+	private Lancamento valido;
+
+	private Lancamento semTipo;
+
+	@Setup
+	public void setUp() {
+		service = new LancamentoServiceImpl(null, null, null, null, null, Optional.empty(), Optional.empty());
+		valido = Lancamento.builder()
+				.descricao("Conta de luz")
+				.mes(3)
+				.ano(2020)
+				.usuario(Usuario.builder().id(1l).build())
+				.valor(BigDecimal.valueOf(120.5))
+				.tipo(TipoLancamento.DESPESA)
+				.build();
+		semTipo = Lancamento.builder()
+				.descricao("Conta de luz")
+				.mes(3)
+				.ano(2020)
+				.usuario(Usuario.builder().id(1l).build())
+				.valor(BigDecimal.valueOf(120.5))
+				.build();
+	}
+
+	@Benchmark
+	public void validarLancamentoValido() {
+		service.validar(valido);
+	}
+
+	@Benchmark
+	public void validarLancamentoInvalido(Blackhole blackhole) {
+		try {
+			service.validar(semTipo);
+		} catch (RegraNegocioException e) {
+			blackhole.consume(e);
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.renatom.minhasfinancas.controller;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+// Conversão de entidade para LancamentoDTO feita pelo LancamentoController nas respostas de POST e PUT.
+// Fica no pacote do controller pois o metodo de conversão é visivel somente no pacote.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversaoLancamentoBenchmark {
+
+	private static final int QUANTIDADE = 1000;
+
+	private List<Lancamento> lancamentos;
+
+	@Setup
+	public void setUp() {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		lancamentos = new ArrayList<>(QUANTIDADE);
+		for (int i = 0; i < QUANTIDADE; i++) {
+			lancamentos.add(Lancamento.builder()
+					.id((long) i)
+					.descricao("Lancamento " + i)
+					.mes(i % 12 + 1)
+					.ano(2020)
+					.usuario(usuario)
+					.valor(BigDecimal.TEN)
+					.tipo(TipoLancamento.DESPESA)
+					.status(StatusLancamento.PENDENTE)
+					.build());
+		}
+	}
+
+	@Benchmark
+	public void converterLancamentos(Blackhole blackhole) {
+		for (Lancamento lancamento : lancamentos) {
+			blackhole.consume(LancamentoController.converterLancamentoDto(lancamento));
+		}
+	}
+
+}
@@ -0,0 +1,12 @@
+package com.renatom.minhasfinancas;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+// Fora da classe da aplicação para que os testes de repository (@DataJpaTest), que sobem sem ServletContext e nao
+// carregam as classes @Configuration, nao criem a infraestrutura do Spring MVC.
+@Configuration
+@EnableWebMvc
+public class ConfiguracaoWebMvc {
+
+}
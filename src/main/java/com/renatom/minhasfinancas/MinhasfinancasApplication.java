@@ -1,20 +1,73 @@
 package com.renatom.minhasfinancas;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.renatom.minhasfinancas.conversao.LancamentoProtobufHttpMessageConverter;
+import com.renatom.minhasfinancas.roteamento.RoteamentoContexto;
+import com.renatom.minhasfinancas.shard.ShardContexto;
+
 @SpringBootApplication
-@EnableWebMvc
+@EnableScheduling
+@EnableCaching
 public class MinhasfinancasApplication implements WebMvcConfigurer {
 	
+//	Tempo maximo das respostas assincronas, como a exportação em streaming de lancamentos
+	@Value("${financas.async.timeout-ms:1800000}")
+	private long timeoutAssincrono;
+	
+//	O mesmo executor padrao do Spring MVC, com o shard e a marcação de primario da requisição levados para o streaming.
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setDefaultTimeout(timeoutAssincrono);
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("MvcAsync");
+		executor.setTaskDecorator(MinhasfinancasApplication::propagarContexto);
+		configurer.setTaskExecutor(executor);
+	}
+	
+//	Executor das consultas assincronas (ConsultaAssincronaService). O numero de threads acompanha o pool de conexoes,
+//	pois cada thread ocupa uma conexao durante a consulta, e a fila limitada faz o excesso ser recusado com 503.
+//	As tarefas levam a marcação de leitura no primario e o shard da requisição, ver RoteamentoContexto e ShardContexto.
+	@Bean
+	public ThreadPoolTaskExecutor executorConsultas(@Value("${financas.consultas.threads:10}") int threads,
+			@Value("${financas.consultas.fila:1000}") int fila) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(fila);
+		executor.setThreadNamePrefix("consulta-");
+		executor.setTaskDecorator(MinhasfinancasApplication::propagarContexto);
+		return executor;
+	}
+	
+//	Alem do JSON, os conversores padrao ja incluem Smile e CBOR por estarem no classpath. O protobuf das listas de
+//	lancamentos entra por ultimo, assim sem header Accept especifico a resposta continua em JSON.
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new LancamentoProtobufHttpMessageConverter());
+	}
+	
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
 		registry.addMapping("/**").allowedMethods("GET", "PUT","POST", "DELETE", "OPTIONS");
 	}
 
+	private static Runnable propagarContexto(Runnable tarefa) {
+		return ShardContexto.propagar(RoteamentoContexto.propagar(tarefa));
+	}
+
 	public static void main(String[] args) {
 		SpringApplication.run(MinhasfinancasApplication.class, args);
 	}
@@ -0,0 +1,348 @@
+package com.renatom.minhasfinancas.colunar;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.SaldoMensalDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+// Lancamentos de um usuario guardados por coluna em arrays primitivos: valor em centavos, ano e mes em um unico int,
+// tipo e status em bytes e a descrição como indice de um dicionario. As linhas ficam na ordem (ano, mes, id) das consultas
+// do LancamentoRepository, assim os filtros e as agregações sao varreduras sequenciais que nao criam objetos por linha.
+// Leituras usam o lock de leitura e as escritas alteram as linhas no lugar com o lock de escrita.
+public class LancamentosColunares {
+
+	private static final int CAPACIDADE_INICIAL = 16;
+
+//	Codigo 0 é o tipo ou status nulo, os demais sao o ordinal + 1
+	private static final byte NULO = 0;
+
+	private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+
+	private static final StatusLancamento[] STATUS = StatusLancamento.values();
+
+//	Codigos de status na ordem do "order by l.status" do saldo mensal: nome da coluna em ordem alfabetica e nulo por ultimo
+	private static final byte[] ORDEM_STATUS = ordenarStatus();
+
+	private final Long idUsuario;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+//	Versao de saldo_usuario que as colunas refletem, avançada a cada escrita aplicada
+	private long versaoUsuario;
+
+	private int tamanho;
+
+	private long[] ids = new long[CAPACIDADE_INICIAL];
+
+	private long[] centavos = new long[CAPACIDADE_INICIAL];
+
+	private int[] anosMeses = new int[CAPACIDADE_INICIAL];
+
+	private byte[] tipos = new byte[CAPACIDADE_INICIAL];
+
+	private byte[] status = new byte[CAPACIDADE_INICIAL];
+
+	private int[] descricoes = new int[CAPACIDADE_INICIAL];
+
+	private long[] versoes = new long[CAPACIDADE_INICIAL];
+
+	private List<String> dicionario = new ArrayList<>();
+
+	private List<String> dicionarioMinusculo = new ArrayList<>();
+
+	private Map<String, Integer> indicesDicionario = new HashMap<>();
+
+	public LancamentosColunares(Long idUsuario, long versaoUsuario) {
+		this.idUsuario = idUsuario;
+		this.versaoUsuario = versaoUsuario;
+	}
+
+//	Usado na carga, com os lancamentos chegando ja na ordem (ano, mes, id), por isso vão sempre para o final.
+	public void acrescentar(LancamentoDTO lancamento) {
+		lock.writeLock().lock();
+		try {
+			inserir(tamanho, lancamento);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+//	Inclusão ou alteração de um lancamento ja gravado no banco. Uma linha com versao igual ou maior é mantida, pois
+//	os commits de escritas concorrentes no mesmo lancamento podem chegar aqui fora de ordem.
+	public void gravar(LancamentoDTO lancamento) {
+		lock.writeLock().lock();
+		try {
+			versaoUsuario++;
+			int linha = localizar(lancamento.getId());
+			if (linha >= 0) {
+				if (lancamento.getVersao() != null && versoes[linha] >= lancamento.getVersao()) {
+					return;
+				}
+				excluirLinha(linha);
+			}
+			inserir(posicaoDe(anoMes(lancamento.getAno(), lancamento.getMes()), lancamento.getId()), lancamento);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remover(Long id) {
+		lock.writeLock().lock();
+		try {
+			versaoUsuario++;
+			int linha = localizar(id);
+			if (linha >= 0) {
+				excluirLinha(linha);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+//	Mesmos filtros da consulta do repository. Com o ano, e o mes, a varredura fica restrita ao intervalo deles pela busca
+//	binaria, e a descrição é comparada uma vez por entrada do dicionario e nao por linha.
+	public List<LancamentoDTO> consultar(Lancamento filtro) {
+		lock.readLock().lock();
+		try {
+			int inicio = 0;
+			int fim = tamanho;
+			if (filtro.getAno() != null) {
+				int primeiro = anoMes(filtro.getAno(), filtro.getMes() == null ? 0 : filtro.getMes());
+				int ultimo = filtro.getMes() == null ? anoMes(filtro.getAno() + 1, 0) : primeiro + 1;
+				inicio = posicaoDe(primeiro, Long.MIN_VALUE);
+				fim = posicaoDe(ultimo, Long.MIN_VALUE);
+			}
+			int mes = filtro.getMes() == null ? -1 : filtro.getMes();
+			byte tipo = filtro.getTipo() == null ? -1 : codigo(filtro.getTipo());
+			byte situacao = filtro.getStatus() == null ? -1 : codigo(filtro.getStatus());
+			boolean[] descricoesAceitas = filtro.getDescricao() == null ? null : aceitarDescricoes(filtro.getDescricao());
+
+			List<LancamentoDTO> lancamentos = new ArrayList<>();
+			for (int i = inicio; i < fim; i++) {
+				if ((mes < 0 || (anosMeses[i] & 0xF) == mes) && (tipo < 0 || tipos[i] == tipo)
+						&& (situacao < 0 || status[i] == situacao)
+						&& (descricoesAceitas == null || descricoesAceitas[descricoes[i]])) {
+					lancamentos.add(converter(i));
+				}
+			}
+			return lancamentos;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+//	Equivalente ao obterSaldoMensalPorUsuarioEAno: receitas e despesas do ano somadas em centavos por mes e status,
+//	somente para as combinações que tem lancamentos, na ordem de mes e status.
+	public List<SaldoMensalDTO> obterSaldoMensal(Integer ano) {
+		long[] receitas = new long[13 * (STATUS.length + 1)];
+		long[] despesas = new long[receitas.length];
+		boolean[] presentes = new boolean[receitas.length];
+
+		lock.readLock().lock();
+		try {
+			int fim = posicaoDe(anoMes(ano + 1, 0), Long.MIN_VALUE);
+			for (int i = posicaoDe(anoMes(ano, 0), Long.MIN_VALUE); i < fim; i++) {
+				int grupo = (anosMeses[i] & 0xF) * (STATUS.length + 1) + status[i];
+				presentes[grupo] = true;
+				if (tipos[i] == codigo(TipoLancamento.RECEITA)) {
+					receitas[grupo] += centavos[i];
+				} else if (tipos[i] == codigo(TipoLancamento.DESPESA)) {
+					despesas[grupo] += centavos[i];
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		List<SaldoMensalDTO> meses = new ArrayList<>();
+		for (int mes = 1; mes <= 12; mes++) {
+			for (byte situacao : ORDEM_STATUS) {
+				int grupo = mes * (STATUS.length + 1) + situacao;
+				if (presentes[grupo]) {
+					BigDecimal receita = BigDecimal.valueOf(receitas[grupo], 2);
+					BigDecimal despesa = BigDecimal.valueOf(despesas[grupo], 2);
+					meses.add(SaldoMensalDTO.builder()
+							.mes(mes)
+							.status(situacao == NULO ? null : STATUS[situacao - 1].name())
+							.receitas(receita)
+							.despesas(despesa)
+							.saldo(receita.subtract(despesa))
+							.build());
+				}
+			}
+		}
+		return meses;
+	}
+
+	public Long getIdUsuario() {
+		return idUsuario;
+	}
+
+	public long getVersaoUsuario() {
+		lock.readLock().lock();
+		try {
+			return versaoUsuario;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getTamanho() {
+		lock.readLock().lock();
+		try {
+			return tamanho;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+//	Primeira linha maior ou igual a (anoMes, id)
+	private int posicaoDe(int anoMes, long id) {
+		int inicio = 0;
+		int fim = tamanho;
+		while (inicio < fim) {
+			int meio = (inicio + fim) >>> 1;
+			if (anosMeses[meio] < anoMes || (anosMeses[meio] == anoMes && ids[meio] < id)) {
+				inicio = meio + 1;
+			} else {
+				fim = meio;
+			}
+		}
+		return inicio;
+	}
+
+//	As linhas nao estao ordenadas por id, a busca percorre a coluna de ids, sem criar objetos.
+	private int localizar(long id) {
+		for (int i = 0; i < tamanho; i++) {
+			if (ids[i] == id) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void inserir(int linha, LancamentoDTO lancamento) {
+		if (tamanho == ids.length) {
+			crescer();
+		}
+		deslocar(linha, linha + 1, tamanho - linha);
+		ids[linha] = lancamento.getId();
+		centavos[linha] = lancamento.getValor().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+		anosMeses[linha] = anoMes(lancamento.getAno(), lancamento.getMes());
+		tipos[linha] = lancamento.getTipo() == null ? NULO : codigo(TipoLancamento.valueOf(lancamento.getTipo()));
+		status[linha] = lancamento.getStatus() == null ? NULO : codigo(StatusLancamento.valueOf(lancamento.getStatus()));
+		descricoes[linha] = indiceDescricao(lancamento.getDescricao());
+		versoes[linha] = lancamento.getVersao() == null ? 0 : lancamento.getVersao();
+		tamanho++;
+	}
+
+	private void excluirLinha(int linha) {
+		deslocar(linha + 1, linha, tamanho - linha - 1);
+		tamanho--;
+		if (dicionario.size() > 2 * tamanho + CAPACIDADE_INICIAL) {
+			compactarDicionario();
+		}
+	}
+
+	private void deslocar(int origem, int destino, int quantidade) {
+		System.arraycopy(ids, origem, ids, destino, quantidade);
+		System.arraycopy(centavos, origem, centavos, destino, quantidade);
+		System.arraycopy(anosMeses, origem, anosMeses, destino, quantidade);
+		System.arraycopy(tipos, origem, tipos, destino, quantidade);
+		System.arraycopy(status, origem, status, destino, quantidade);
+		System.arraycopy(descricoes, origem, descricoes, destino, quantidade);
+		System.arraycopy(versoes, origem, versoes, destino, quantidade);
+	}
+
+	private void crescer() {
+		int capacidade = ids.length + (ids.length >> 1);
+		ids = Arrays.copyOf(ids, capacidade);
+		centavos = Arrays.copyOf(centavos, capacidade);
+		anosMeses = Arrays.copyOf(anosMeses, capacidade);
+		tipos = Arrays.copyOf(tipos, capacidade);
+		status = Arrays.copyOf(status, capacidade);
+		descricoes = Arrays.copyOf(descricoes, capacidade);
+		versoes = Arrays.copyOf(versoes, capacidade);
+	}
+
+	private int indiceDescricao(String descricao) {
+		String chave = descricao == null ? "" : descricao;
+		Integer indice = indicesDicionario.get(chave);
+		if (indice == null) {
+			indice = dicionario.size();
+			dicionario.add(chave);
+			dicionarioMinusculo.add(chave.toLowerCase());
+			indicesDicionario.put(chave, indice);
+		}
+		return indice;
+	}
+
+//	As descrições das linhas excluidas continuam no dicionario, que é refeito quando passa do dobro das linhas.
+	private void compactarDicionario() {
+		List<String> anterior = dicionario;
+		dicionario = new ArrayList<>();
+		dicionarioMinusculo = new ArrayList<>();
+		indicesDicionario = new HashMap<>();
+		for (int i = 0; i < tamanho; i++) {
+			descricoes[i] = indiceDescricao(anterior.get(descricoes[i]));
+		}
+	}
+
+	private boolean[] aceitarDescricoes(String descricao) {
+		String procurada = descricao.toLowerCase();
+		boolean[] aceitas = new boolean[dicionario.size()];
+		for (int i = 0; i < aceitas.length; i++) {
+			aceitas[i] = dicionarioMinusculo.get(i).contains(procurada);
+		}
+		return aceitas;
+	}
+
+	private LancamentoDTO converter(int linha) {
+		return LancamentoDTO.builder()
+				.id(ids[linha])
+				.descricao(dicionario.get(descricoes[linha]))
+				.mes(anosMeses[linha] & 0xF)
+				.ano(anosMeses[linha] >> 4)
+				.usuario(idUsuario)
+				.valor(BigDecimal.valueOf(centavos[linha], 2))
+				.tipo(tipos[linha] == NULO ? null : TIPOS[tipos[linha] - 1].name())
+				.status(status[linha] == NULO ? null : STATUS[status[linha] - 1].name())
+				.versao(versoes[linha])
+				.build();
+	}
+
+//	Mes nos 4 bits mais baixos, assim a ordem dos inteiros é a ordem (ano, mes)
+	private static int anoMes(int ano, int mes) {
+		return (ano << 4) | mes;
+	}
+
+	private static byte codigo(TipoLancamento tipo) {
+		return (byte) (tipo.ordinal() + 1);
+	}
+
+	private static byte codigo(StatusLancamento status) {
+		return (byte) (status.ordinal() + 1);
+	}
+
+	private static byte[] ordenarStatus() {
+		StatusLancamento[] porNome = STATUS.clone();
+		Arrays.sort(porNome, (a, b) -> a.name().compareTo(b.name()));
+		byte[] ordem = new byte[porNome.length + 1];
+		for (int i = 0; i < porNome.length; i++) {
+			ordem[i] = codigo(porNome[i]);
+		}
+		ordem[porNome.length] = NULO;
+		return ordem;
+	}
+
+}
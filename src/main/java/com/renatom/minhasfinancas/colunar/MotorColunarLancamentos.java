@@ -0,0 +1,134 @@
+package com.renatom.minhasfinancas.colunar;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.SaldoMensalDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.service.SaldoUsuarioService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Mantem em memoria, no formato do LancamentosColunares, os lancamentos dos usuarios mais consultados desta instancia,
+// atendendo a listagem e o saldo detalhado sem consultar a tabela lancamento. Ligado com financas.colunar.habilitado=true.
+// O cache é limitado pela soma de lancamentos guardados e sempre remove um usuario inteiro.
+// Cada usuario guarda a versao de saldo_usuario com que foi carregado e toda leitura compara com a versao atual, uma
+// consulta pela chave primaria, recarregando quando diferente. Assim as escritas de outras instancias, as operações em lote
+// e a importação nunca sao servidas desatualizadas. As escritas unitarias desta instancia sao aplicadas nas colunas depois
+// do commit e avançam a versao guardada como avançaram a do banco, sem a recarga.
+@Component
+@ConditionalOnProperty(name = "financas.colunar.habilitado", havingValue = "true")
+public class MotorColunarLancamentos {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MotorColunarLancamentos.class);
+
+	private final LancamentoRepository repository;
+
+	private final SaldoUsuarioService saldoService;
+
+	private final Cache<Long, LancamentosColunares> usuarios;
+
+	public MotorColunarLancamentos(LancamentoRepository repository, SaldoUsuarioService saldoService,
+			MeterRegistry meterRegistry, @Value("${financas.colunar.maximo-lancamentos:1000000}") long maximoLancamentos) {
+		this.repository = repository;
+		this.saldoService = saldoService;
+		this.usuarios = Caffeine.newBuilder()
+				.maximumWeight(maximoLancamentos)
+				.weigher((Long idUsuario, LancamentosColunares lancamentos) -> lancamentos.getTamanho() + 1)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, usuarios, "lancamentosColunares");
+	}
+
+//	Precisa ser chamado dentro de uma transação, a carga percorre os lancamentos do usuario pelo cursor do repository.
+	public List<LancamentoDTO> consultar(Lancamento lancamentoFiltro) {
+		return obterAtualizado(lancamentoFiltro.getUsuario().getId()).consultar(lancamentoFiltro);
+	}
+
+	public List<SaldoMensalDTO> obterSaldoMensal(Long idUsuario, Integer ano) {
+		return obterAtualizado(idUsuario).obterSaldoMensal(ano);
+	}
+
+//	Inclusão ou alteração de um unico lancamento, com a versao ja incrementada. Dentro de uma transação a alteração
+//	só é aplicada depois do commit.
+	public void registrarGravacao(Lancamento lancamento) {
+		LancamentoDTO gravado = LancamentoDTO.builder()
+				.id(lancamento.getId())
+				.descricao(lancamento.getDescricao())
+				.mes(lancamento.getMes())
+				.ano(lancamento.getAno())
+				.usuario(lancamento.getUsuario().getId())
+				.valor(lancamento.getValor())
+				.tipo(lancamento.getTipo() == null ? null : lancamento.getTipo().name())
+				.status(lancamento.getStatus() == null ? null : lancamento.getStatus().name())
+				.versao(lancamento.getVersao())
+				.build();
+		aposCommit(() -> aplicar(gravado.getUsuario(), lancamentos -> lancamentos.gravar(gravado)));
+	}
+
+	public void registrarExclusao(Lancamento lancamento) {
+		Long id = lancamento.getId();
+		aposCommit(() -> aplicar(lancamento.getUsuario().getId(), lancamentos -> lancamentos.remover(id)));
+	}
+
+//	A versao é lida antes dos lancamentos: uma escrita que termine durante a carga deixa a versao guardada menor que a do
+//	banco, e o usuario é recarregado na proxima leitura.
+	private LancamentosColunares obterAtualizado(Long idUsuario) {
+		long versao = saldoService.obterVersao(idUsuario);
+		LancamentosColunares lancamentos = usuarios.getIfPresent(idUsuario);
+		if (lancamentos != null && lancamentos.getVersaoUsuario() == versao) {
+			return lancamentos;
+		}
+
+		lancamentos = new LancamentosColunares(idUsuario, versao);
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(idUsuario).build()).build();
+		repository.percorrer(filtro, lancamentos::acrescentar);
+		usuarios.put(idUsuario, lancamentos);
+		return lancamentos;
+	}
+
+//	Usuario fora do cache é carregado ja com a escrita na proxima leitura. O replace recalcula o peso dele no cache.
+	private void aplicar(Long idUsuario, Consumer<LancamentosColunares> escrita) {
+		LancamentosColunares lancamentos = usuarios.getIfPresent(idUsuario);
+		if (lancamentos == null) {
+			return;
+		}
+
+		try {
+			escrita.accept(lancamentos);
+			usuarios.asMap().replace(idUsuario, lancamentos, lancamentos);
+		} catch (RuntimeException e) {
+			usuarios.invalidate(idUsuario);
+			LOG.warn("Lançamentos do usuario {} removidos da memoria apos falha ao aplicar uma escrita.", idUsuario, e);
+		}
+	}
+
+	private void aposCommit(Runnable aplicacao) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			aplicacao.run();
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				aplicacao.run();
+			}
+		});
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.renatom.minhasfinancas.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.renatom.minhasfinancas.dto.EstatisticasCacheDTO;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+	private CacheManager cacheManager;
+
+	private Statistics estatisticasHibernate;
+
+	public CacheController(CacheManager cacheManager, EntityManagerFactory entityManagerFactory) {
+		this.cacheManager = cacheManager;
+		this.estatisticasHibernate = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+//	Acertos, falhas e remoções de cada cache, usados para ajustar o tamanho e o tempo de expiração.
+//	Inclui as regiões do cache de segundo nivel do Hibernate (application.conf) com o prefixo "hibernate.".
+	@GetMapping("/estatisticas")
+	public ResponseEntity obterEstatisticas() {
+		List<EstatisticasCacheDTO> estatisticas = new ArrayList<>();
+
+		for (String nome : cacheManager.getCacheNames()) {
+			Cache cache = cacheManager.getCache(nome);
+			if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache)) {
+				continue;
+			}
+
+			com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine = (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+			CacheStats stats = caffeine.stats();
+			estatisticas.add(EstatisticasCacheDTO.builder()
+					.nome(nome)
+					.tamanho(caffeine.estimatedSize())
+					.acertos(stats.hitCount())
+					.falhas(stats.missCount())
+					.taxaAcerto(stats.hitRate())
+					.remocoes(stats.evictionCount())
+					.build());
+		}
+
+		for (String regiao : estatisticasHibernate.getSecondLevelCacheRegionNames()) {
+			CacheRegionStatistics regiaoStats = estatisticasHibernate.getCacheRegionStatistics(regiao);
+			if (regiaoStats == null) {
+				continue;
+			}
+
+			long consultas = regiaoStats.getHitCount() + regiaoStats.getMissCount();
+			long tamanho = regiaoStats.getElementCountInMemory();
+			estatisticas.add(EstatisticasCacheDTO.builder()
+					.nome("hibernate." + regiao)
+					.tamanho(tamanho < 0 ? null : tamanho)
+					.acertos(regiaoStats.getHitCount())
+					.falhas(regiaoStats.getMissCount())
+					.taxaAcerto(consultas == 0 ? 0.0 : (double) regiaoStats.getHitCount() / consultas)
+					.build());
+		}
+
+		return ResponseEntity.ok(estatisticas);
+	}
+
+}
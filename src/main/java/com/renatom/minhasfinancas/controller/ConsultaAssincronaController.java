@@ -0,0 +1,75 @@
+package com.renatom.minhasfinancas.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.seguranca.TokenAutenticacaoFilter;
+import com.renatom.minhasfinancas.service.ConsultaAssincronaService;
+
+// Mesmas leituras do LancamentoController e do UsuarioController (listagem, lancamento por id e saldo),
+// porem respondidas de forma assincrona pelo ConsultaAssincronaService, sem prender a thread do Tomcat durante o JDBC.
+// Os erros, inclusive os que completam o CompletableFuture, sao respondidos pelo TratamentoExcecoesAdvice como nos demais controllers:
+// com a fila do executor cheia a resposta é 503, para o cliente tentar de novo em vez de a requisição esperar indefinidamente.
+@RestController
+@RequestMapping("/api/async")
+public class ConsultaAssincronaController {
+
+	private static final int LIMITE_PADRAO_PAGINA = 100;
+
+	private ConsultaAssincronaService service;
+
+	public ConsultaAssincronaController(ConsultaAssincronaService service) {
+		this.service = service;
+	}
+
+	@GetMapping("/lancamentos")
+	public CompletableFuture<ResponseEntity> buscar(@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "ano", required = false) Integer ano, @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestParam(value = "limit", required = false) Integer limite, @RequestParam(value = "cursor", required = false) String cursor,
+			@RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario) {
+
+		Lancamento lancamentoFiltro = new Lancamento();
+		lancamentoFiltro.setDescricao(descricao);
+		lancamentoFiltro.setAno(ano);
+		lancamentoFiltro.setMes(mes);
+		lancamentoFiltro.setTipo(tipo);
+		lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuario).build());
+
+		if (limite != null || cursor != null) {
+			int tamanho = limite == null ? LIMITE_PADRAO_PAGINA : limite;
+			return service.buscarPagina(lancamentoFiltro, cursor, tamanho).thenApply(ResponseEntity::ok);
+		}
+		return service.consultar(lancamentoFiltro).thenApply(ResponseEntity::ok);
+	}
+
+	@GetMapping("/lancamentos/{id}")
+	public CompletableFuture<ResponseEntity> buscarLancamentoPorId(@PathVariable Long id,
+			@RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario) {
+		return service.consultarPorId(id).thenApply(lancamento -> lancamento
+				.filter(dto -> idUsuario.equals(dto.getUsuario()))
+				.map(dto -> new ResponseEntity(dto, HttpStatus.OK))
+				.orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND)));
+	}
+
+	@GetMapping("/usuarios/{id}/saldo")
+	public CompletableFuture<ResponseEntity> obterSaldoUsuario(@PathVariable("id") Long id,
+			@RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario) {
+		if (!id.equals(idUsuario)) {
+			return CompletableFuture.completedFuture(new ResponseEntity(HttpStatus.FORBIDDEN));
+		}
+		return service.obterSaldoPorUsuario(id).thenApply(ResponseEntity::ok);
+	}
+
+}
@@ -1,140 +1,278 @@
 package com.renatom.minhasfinancas.controller;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.renatom.minhasfinancas.dto.AtualizarStatusDTO;
 import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
+import com.renatom.minhasfinancas.dto.ResultadoLoteDTO;
+import com.renatom.minhasfinancas.dto.ResultadoOperacaoLoteDTO;
+import com.renatom.minhasfinancas.dto.ResultadoPesquisaDTO;
 import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.exception.VersaoConflitanteException;
+import com.renatom.minhasfinancas.exportacao.FormatoExportacao;
 import com.renatom.minhasfinancas.model.entity.Lancamento;
 import com.renatom.minhasfinancas.model.entity.Usuario;
 import com.renatom.minhasfinancas.model.enums.StatusLancamento;
 import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.seguranca.TokenAutenticacaoFilter;
+import com.renatom.minhasfinancas.service.LancamentoLoteService;
 import com.renatom.minhasfinancas.service.LancamentoService;
-import com.renatom.minhasfinancas.service.UsuarioService;
+import com.renatom.minhasfinancas.service.PesquisaLancamentoService;
 
 @RestController
 @RequestMapping("/api/lancamentos")
 public class LancamentoController {
 
+	private static final int LIMITE_PADRAO_PAGINA = 100;
+
 	private LancamentoService service;
 
-	private UsuarioService usuarioService;
+	private PesquisaLancamentoService pesquisaService;
+
+	private LancamentoLoteService loteService;
 
-	public LancamentoController(LancamentoService service, UsuarioService usuarioService) {
+	private ObjectMapper objectMapper;
+
+	public LancamentoController(LancamentoService service, PesquisaLancamentoService pesquisaService,
+			LancamentoLoteService loteService, ObjectMapper objectMapper) {
 		this.service = service;
-		this.usuarioService = usuarioService;
+		this.pesquisaService = pesquisaService;
+		this.loteService = loteService;
+		this.objectMapper = objectMapper;
 	}
 
-//	Envia os parametros para filtro com somente o idUsuario sendo obrigatorio.
+//	Envia os parametros para filtro, o usuario vem do token validado pelo TokenAutenticacaoFilter.
 //	Criando uma nova entidade de Lancamento com os filtros cadastrados e populado com os parametros recebidos.
 //	Chamado o metodo de buscar por lancamento passando a entidade lancamentoFiltro com os filtros enviados no parametro
+//	Se o limit ou o cursor forem enviados a resposta é paginada por cursor, com o proximoCursor para buscar a pagina seguinte.
+//	Quando o If-None-Match tem a versao atual do usuario a resposta é 304, sem executar a consulta.
+//	A resposta é JSON por padrao, e Smile, CBOR ou protobuf (proto/lancamentos.proto) conforme o header Accept.
+//	O mesmo ETag vale para todos os formatos, por isso a resposta tem Vary: Accept, inclusive o 304.
 	@GetMapping
 	public ResponseEntity buscar(@RequestParam(value = "descricao", required = false) String descricao,
 			@RequestParam(value = "ano", required = false) Integer ano, @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
-			@RequestParam(value = "mes", required = false) Integer mes, @RequestParam("usuario") Long idUsuario) {
+			@RequestParam(value = "mes", required = false) Integer mes, @RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario,
+			@RequestParam(value = "limit", required = false) Integer limite, @RequestParam(value = "cursor", required = false) String cursor,
+			WebRequest requisicao, HttpServletResponse resposta) {
+		variarPorAccept(resposta);
+		if (requisicao.checkNotModified(criarEtag(idUsuario))) {
+			return null;
+		}
 
 		Lancamento lancamentoFiltro = new Lancamento();
 		lancamentoFiltro.setDescricao(descricao);
 		lancamentoFiltro.setAno(ano);
 		lancamentoFiltro.setMes(mes);
 		lancamentoFiltro.setTipo(tipo);
+		lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuario).build());
 
-		Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
-		if (usuario.isEmpty()) {
-			return ResponseEntity.badRequest()
-					.body("Não foi possivel realizar a consulta. Usuario não encontrado na base de Dados.");
-		} else {
-			lancamentoFiltro.setUsuario(usuario.get());
+		if (limite != null || cursor != null) {
+			PaginaCursorDTO<LancamentoDTO> pagina = service.buscarPagina(lancamentoFiltro, cursor, 
+					limite == null ? LIMITE_PADRAO_PAGINA : limite);
+			return ResponseEntity.ok(pagina);
 		}
 
-		List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
+		List<LancamentoDTO> lancamentos = service.consultar(lancamentoFiltro);
 		return ResponseEntity.ok(lancamentos);
 
 	}
 	
+//	Exporta todos os lancamentos do filtro em CSV ou NDJSON, aceitando os mesmos filtros do buscar.
+//	As linhas sao escritas na resposta conforme chegam do banco, sem montar a lista em memoria.
+	@GetMapping("/exportar")
+	public ResponseEntity exportar(@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "ano", required = false) Integer ano, @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
+			@RequestParam(value = "mes", required = false) Integer mes, @RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario,
+			@RequestParam(value = "formato", defaultValue = "csv") String formato) {
+
+		FormatoExportacao formatoExportacao;
+		try {
+			formatoExportacao = FormatoExportacao.valueOf(formato.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Formato de exportação inválido, use csv ou ndjson.");
+		}
+
+		Lancamento lancamentoFiltro = new Lancamento();
+		lancamentoFiltro.setDescricao(descricao);
+		lancamentoFiltro.setAno(ano);
+		lancamentoFiltro.setMes(mes);
+		lancamentoFiltro.setTipo(tipo);
+		lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuario).build());
+
+		StreamingResponseBody corpo = saida -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+			formatoExportacao.escreverCabecalho(writer);
+			service.exportar(lancamentoFiltro, 
+					lancamento -> formatoExportacao.escrever(writer, lancamento, objectMapper));
+			writer.flush();
+		};
+
+		return ResponseEntity.ok()
+				.header(HttpHeaders.CONTENT_DISPOSITION, 
+						"attachment; filename=\"lancamentos." + formatoExportacao.getExtensao() + "\"")
+				.contentType(MediaType.parseMediaType(formatoExportacao.getContentType()))
+				.body(corpo);
+	}
+
+//	Pesquisa textual na descrição pelo indice de trigramas, retornando os lancamentos mais parecidos primeiro.
+	@GetMapping("/pesquisa")
+	public ResponseEntity pesquisar(@RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario, @RequestParam("termo") String termo,
+			@RequestParam(value = "limit", defaultValue = "20") Integer limite) {
+		List<ResultadoPesquisaDTO> resultado = pesquisaService.pesquisar(idUsuario, termo, limite);
+		return ResponseEntity.ok(resultado);
+	}
+	
+//	Lancamentos de outro usuario respondem como nao encontrados.
+//	O ETag é a versao do lancamento, a mesma esperada no If-Match do PUT, e o If-None-Match com ela responde 304.
+//	Como no buscar, o formato depende do Accept e a resposta tem Vary: Accept.
 	@GetMapping("/{id}")
-	public ResponseEntity buscarLancamentoPorId(@PathVariable Long id) {
-		return service.buscarPorId(id)
-				.map(lancamento -> new ResponseEntity(converterLancamentoDto(lancamento), HttpStatus.OK))
-				.orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND));
+	public ResponseEntity buscarLancamentoPorId(@PathVariable Long id, @RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario,
+			WebRequest requisicao, HttpServletResponse resposta) {
+		variarPorAccept(resposta);
+		Optional<LancamentoDTO> lancamento = service.consultarPorId(id)
+				.filter(encontrado -> idUsuario.equals(encontrado.getUsuario()));
+		if (!lancamento.isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		if (requisicao.checkNotModified(criarEtagLancamento(lancamento.get().getVersao()))) {
+			return null;
+		}
+		return new ResponseEntity(lancamento.get(), HttpStatus.OK);
 	}
 
 //	Transforma a resposta de converterLancamento em uma variavel e tenta salvar a mesma , 
 //	tambem salvando a resposta na mesma variavel para que possa retornar na requisição OK
 	@PostMapping
-	public ResponseEntity salvar(@RequestBody LancamentoDTO dto) {
-		try {
-			Lancamento entidade = converterLancamento(dto);
-			entidade = service.salvar(entidade);
-			return ResponseEntity.ok(entidade);
-		} catch (RegraNegocioException e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
-		}
+	public ResponseEntity salvar(@RequestBody LancamentoDTO dto, @RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario) {
+		Lancamento entidade = converterLancamento(dto, idUsuario);
+		entidade = service.salvar(entidade);
+		return ResponseEntity.ok(converterLancamentoDto(entidade));
 
 	}
 
-//	Verifica se ha um lancamento para o id informado buscando pelo metodo buscarPorId e tenta atualizar com o lancamento passado no body, caso nao 
-//	da um erro ao atualizar, e se nao achar lança um erro tambem 
-	@PutMapping("/{id}")
-	public ResponseEntity atualizar(@PathVariable Long id, @RequestBody LancamentoDTO dto) {
-		return service.buscarPorId(id).map(entity -> {
-			try {
-				Lancamento lancamento = converterLancamento(dto);
-				lancamento.setId(entity.getId());
-				service.atualizar(lancamento);
-				return ResponseEntity.ok(lancamento);
-			} catch (RegraNegocioException e) {
-				return ResponseEntity.badRequest().body(e.getMessage());
-			}
+//	Importação em lote: recebe um array JSON de lancamentos, lido em streaming, e retorna o resultado de cada item.
+//	Os itens invalidos sao reportados sem impedir a gravação dos demais. Todos os itens sao gravados para o usuario do token.
+//	Se a leitura parar no meio do array a resposta é 400 com o resultado dos itens anteriores e o indiceErro.
+	@PostMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity importarLote(HttpServletRequest request, @RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario) throws IOException {
+		ResultadoLoteDTO resultado = loteService.importar(idUsuario, request.getInputStream());
+		if (resultado.getIndiceErro() != null) {
+			return ResponseEntity.badRequest().body(resultado);
+		}
+		return ResponseEntity.ok(resultado);
+	}
 
-		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
+//	Atualiza o lancamento do id com o lancamento passado no body em um unico UPDATE condicionado a versao.
+//	A versao esperada vem do If-Match ou, sem ele, do campo versao do body. Se o lancamento mudou depois dessa versao
+//	a resposta é 412 e o cliente deve consultar o lancamento de novo. Sem versao nenhuma vale a versao atual do banco.
+	@PutMapping("/{id}")
+	public ResponseEntity atualizar(@PathVariable Long id, @RequestBody LancamentoDTO dto, @RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Lancamento lancamento = converterLancamento(dto, idUsuario);
+		lancamento.setId(id);
+		lancamento.setVersao(ifMatch == null ? dto.getVersao() : lerVersao(ifMatch));
+		Lancamento atualizado = service.atualizar(lancamento);
+		return responderAtualizado(atualizado);
 	}
 
-//	Realiza a atualização do status do lancamento passando o id e o status
+//	Realiza a atualização do status do lancamento passando o id e o status, com o mesmo controle de versao do PUT.
 	@PutMapping("/{id}/atualiza-status")
-	public ResponseEntity atualizaStatus(@PathVariable("id") Long id, @RequestBody AtualizarStatusDTO dto) {
-		return service.buscarPorId(id).map(entidade -> {
-			StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
-
-			if (statusSelecionado == null) {
-				return ResponseEntity.badRequest()
-						.body("Não foi possivel atualizar o status do lançamento, envie um status válido");
-			}
-
-			try {
-				entidade.setStatus(statusSelecionado);
-				service.atualizar(entidade);
-				return ResponseEntity.ok(entidade);
-			} catch (Exception e) {
-				return ResponseEntity.badRequest().body(e.getMessage());
-			}
-		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
+	public ResponseEntity atualizaStatus(@PathVariable("id") Long id, @RequestBody AtualizarStatusDTO dto, @RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		StatusLancamento statusSelecionado;
+		try {
+			statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			return ResponseEntity.badRequest()
+					.body("Não foi possivel atualizar o status do lançamento, envie um status válido");
+		}
+
+		Lancamento lancamento = Lancamento.builder()
+				.id(id)
+				.usuario(Usuario.builder().id(idUsuario).build())
+				.versao(ifMatch == null ? null : lerVersao(ifMatch))
+				.build();
+		Lancamento atualizado = service.atualizarStatus(lancamento, statusSelecionado);
+		return responderAtualizado(atualizado);
+	}
+
+//	Atualiza o status de varios lancamentos do usuario de uma vez, pelos ids e/ou por ano, mes e tipo.
+	@PutMapping("/lote/atualiza-status")
+	public ResponseEntity atualizarStatusEmLote(@RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario,
+			@RequestParam(value = "ids", required = false) List<Long> ids, @RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "mes", required = false) Integer mes, @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
+			@RequestBody AtualizarStatusDTO dto) {
+		StatusLancamento status;
+		try {
+			status = StatusLancamento.valueOf(dto.getStatus());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			return ResponseEntity.badRequest().body("Não foi possivel atualizar o status do lançamento, envie um status válido");
+		}
+
+		Lancamento lancamentoFiltro = criarFiltroLote(idUsuario, ano, mes, tipo);
+		int afetados = service.atualizarStatusEmLote(lancamentoFiltro, ids, status);
+		return ResponseEntity.ok(ResultadoOperacaoLoteDTO.builder().afetados(afetados).build());
+	}
 
+//	Exclui varios lancamentos do usuario de uma vez, pelos ids e/ou por ano, mes e tipo.
+	@DeleteMapping("/lote")
+	public ResponseEntity deletarEmLote(@RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario,
+			@RequestParam(value = "ids", required = false) List<Long> ids, @RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "mes", required = false) Integer mes, @RequestParam(value = "tipo", required = false) TipoLancamento tipo) {
+		Lancamento lancamentoFiltro = criarFiltroLote(idUsuario, ano, mes, tipo);
+		int afetados = service.deletarEmLote(lancamentoFiltro, ids);
+		return ResponseEntity.ok(ResultadoOperacaoLoteDTO.builder().afetados(afetados).build());
 	}
 
 //	Realizado o metodo de buscar por id para capturar o Lancamento e em seguida deletar.
 	@DeleteMapping("{id}")
-	public ResponseEntity deletar(@PathVariable Long id) {
-		return service.buscarPorId(id).map(entidade -> {
+	public ResponseEntity deletar(@PathVariable Long id, @RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario) {
+		return service.buscarPorId(id).filter(entidade -> pertenceAoUsuario(entidade, idUsuario)).map(entidade -> {
 			service.deletar(entidade);
 			return new ResponseEntity(HttpStatus.NO_CONTENT);
 		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na base de Dados.", HttpStatus.BAD_REQUEST));
 	}
 	
-	private LancamentoDTO converterLancamentoDto(Lancamento lancamento) {
+	private Lancamento criarFiltroLote(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo) {
+		Lancamento lancamentoFiltro = new Lancamento();
+		lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuario).build());
+		lancamentoFiltro.setAno(ano);
+		lancamentoFiltro.setMes(mes);
+		lancamentoFiltro.setTipo(tipo);
+		return lancamentoFiltro;
+	}
+
+//	Visivel no pacote para o benchmark de conversão (src/jmh/java), nao depende de nenhum atributo do controller.
+	static LancamentoDTO converterLancamentoDto(Lancamento lancamento) {
 		return LancamentoDTO.builder()
 				.id(lancamento.getId())
 				.descricao(lancamento.getDescricao())
@@ -144,11 +282,60 @@ public class LancamentoController {
 				.tipo(lancamento.getTipo().name())
 				.status(lancamento.getStatus().name())
 				.usuario(lancamento.getUsuario().getId())
+				.versao(lancamento.getVersao())
 				.build();
 	}
 
+//	A resposta das alterações leva a nova versao do lancamento como ETag, para ser enviada no proximo If-Match.
+	private ResponseEntity responderAtualizado(Lancamento lancamento) {
+		return ResponseEntity.ok()
+				.eTag(criarEtagLancamento(lancamento.getVersao()))
+				.body(converterLancamentoDto(lancamento));
+	}
+
+	private String criarEtagLancamento(Long versao) {
+		return "\"" + versao + "\"";
+	}
+
+//	O If-Match tem uma unica versao do lancamento entre aspas, como no ETag do GET e das respostas do PUT, e o * aceita
+//	qualquer versao. Fora desse formato a resposta é 400. O If-Match usa comparação forte, entao um ETag fraco (W/)
+//	nunca confere com a versao atual e a resposta é 412.
+	private Long lerVersao(String ifMatch) {
+		String versao = ifMatch.trim();
+		if (versao.equals("*")) {
+			return null;
+		}
+		if (versao.startsWith("W/")) {
+			throw new VersaoConflitanteException("O If-Match deve conter a versão do lançamento sem W/, ETags fracos não são aceitos.");
+		}
+		if (versao.length() < 3 || !versao.startsWith("\"") || !versao.endsWith("\"")) {
+			throw new RegraNegocioException("Informe no If-Match a versão do lançamento entre aspas.");
+		}
+		try {
+			return Long.valueOf(versao.substring(1, versao.length() - 1));
+		} catch (NumberFormatException e) {
+			throw new RegraNegocioException("Informe no If-Match a versão do lançamento entre aspas.");
+		}
+	}
+
+//	ETag forte com a versao dos lancamentos do usuario, lida antes da consulta para que uma escrita concorrente
+//	nunca fique com a versao de dados mais antigos.
+//	Os caches guardam uma copia por valor do Accept, senao um 304 poderia validar a copia de outro formato.
+	private void variarPorAccept(HttpServletResponse resposta) {
+		resposta.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+	}
+
+	private String criarEtag(Long idUsuario) {
+		return "\"" + idUsuario + "-" + service.obterVersaoPorUsuario(idUsuario) + "\"";
+	}
+
+//	Restringe as alterações aos lancamentos do usuario do token.
+	private boolean pertenceAoUsuario(Lancamento lancamento, Long idUsuario) {
+		return lancamento.getUsuario() != null && idUsuario.equals(lancamento.getUsuario().getId());
+	}
+
 //	Metodo para converter o lancamento dto em lancamento
-	private Lancamento converterLancamento(LancamentoDTO dto) {
+	private Lancamento converterLancamento(LancamentoDTO dto, Long idUsuario) {
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
 		lancamento.setDescricao(dto.getDescricao());
@@ -156,11 +343,9 @@ public class LancamentoController {
 		lancamento.setMes(dto.getMes());
 		lancamento.setValor(dto.getValor());
 
-//		Criado metodo para buscar usuario por id , caso nao encontre retornar uma regra de negocio exceção 
-		Usuario usuario = usuarioService.obterPorId(dto.getUsuario())
-				.orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o Id informado."));
-
-		lancamento.setUsuario(usuario);
+//		O token ja comprova que o usuario existe, entao basta a referencia pelo id sem buscar o usuario no banco.
+//		O usuario do lancamento é sempre o do token, um usuario diferente no dto é ignorado.
+		lancamento.setUsuario(Usuario.builder().id(idUsuario).build());
 
 		if (dto.getTipo() != null) {
 			lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
@@ -0,0 +1,62 @@
+package com.renatom.minhasfinancas.controller;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.renatom.minhasfinancas.exception.ErroAutenticacao;
+import com.renatom.minhasfinancas.exception.GravacaoNaoConfirmadaException;
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.exception.VersaoConflitanteException;
+import com.renatom.minhasfinancas.metricas.MetricasExcecoes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Converte as exceções lançadas pelos controllers (inclusive pelos CompletableFuture do ConsultaAssincronaController)
+// na resposta com a mensagem da exceção, e conta cada uma uma unica vez no financas.excecoes.
+@RestControllerAdvice
+public class TratamentoExcecoesAdvice {
+
+	private final ObjectProvider<MeterRegistry> registry;
+
+	public TratamentoExcecoesAdvice(ObjectProvider<MeterRegistry> registry) {
+		this.registry = registry;
+	}
+
+	@ExceptionHandler(RegraNegocioException.class)
+	public ResponseEntity tratarRegraNegocio(RegraNegocioException e) {
+		return responder(HttpStatus.BAD_REQUEST, e);
+	}
+
+	@ExceptionHandler(ErroAutenticacao.class)
+	public ResponseEntity tratarErroAutenticacao(ErroAutenticacao e) {
+		return responder(HttpStatus.BAD_REQUEST, e);
+	}
+
+//	O lancamento mudou depois da versao lida pelo cliente.
+	@ExceptionHandler(VersaoConflitanteException.class)
+	public ResponseEntity tratarVersaoConflitante(VersaoConflitanteException e) {
+		return responder(HttpStatus.PRECONDITION_FAILED, e);
+	}
+
+//	Fila de gravação ou de consultas cheia, ou gravação nao confirmada a tempo: o cliente deve tentar de novo.
+	@ExceptionHandler(GravacaoNaoConfirmadaException.class)
+	public ResponseEntity tratarGravacaoNaoConfirmada(GravacaoNaoConfirmadaException e) {
+		return responder(HttpStatus.SERVICE_UNAVAILABLE, e);
+	}
+
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity tratarFilaCheia(RejectedExecutionException e) {
+		return responder(HttpStatus.SERVICE_UNAVAILABLE, e);
+	}
+
+	private ResponseEntity responder(HttpStatus status, RuntimeException e) {
+		MetricasExcecoes.contar(registry, e);
+		return ResponseEntity.status(status).body(e.getMessage());
+	}
+
+}
@@ -1,7 +1,9 @@
 package com.renatom.minhasfinancas.controller;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -9,16 +11,25 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.renatom.minhasfinancas.dto.ResumoMensalDTO;
+import com.renatom.minhasfinancas.dto.SaldoDetalhadoDTO;
+import com.renatom.minhasfinancas.dto.SaldoHistoricoDTO;
+import com.renatom.minhasfinancas.dto.UsuarioAutenticadoDTO;
 import com.renatom.minhasfinancas.dto.UsuarioDTO;
-import com.renatom.minhasfinancas.exception.ErroAutenticacao;
 import com.renatom.minhasfinancas.exception.RegraNegocioException;
 import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.seguranca.TokenAutenticacaoFilter;
 import com.renatom.minhasfinancas.service.LancamentoService;
+import com.renatom.minhasfinancas.service.ResumoMensalService;
+import com.renatom.minhasfinancas.service.TokenService;
 import com.renatom.minhasfinancas.service.UsuarioService;
 
 @RestController
@@ -27,21 +38,28 @@ public class UsuarioController {
 
 	private UsuarioService service;
 	private LancamentoService lancamentoService;
+	private TokenService tokenService;
+	private ResumoMensalService resumoService;
 	
 //	Cria um construtor da classe service 
-	public UsuarioController( UsuarioService service, LancamentoService lancamentoService) {
+	public UsuarioController( UsuarioService service, LancamentoService lancamentoService, TokenService tokenService,
+			ResumoMensalService resumoService) {
 		this.service = service;
 		this.lancamentoService = lancamentoService;
+		this.tokenService = tokenService;
+		this.resumoService = resumoService;
 	}
 	
+//	Retorna o usuario junto com o token assinado, usado nas chamadas de lancamento e saldo.
 	@PostMapping("/auth")
 	public ResponseEntity autenticarUser(@RequestBody UsuarioDTO dto) {
-		try {
-			Usuario usuarioAuth = service.autenticar(dto.getEmail(), dto.getSenha());
-			return ResponseEntity.ok(usuarioAuth);
-		} catch (ErroAutenticacao e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
-		}
+		Usuario usuarioAuth = service.autenticar(dto.getEmail(), dto.getSenha());
+		return ResponseEntity.ok(UsuarioAutenticadoDTO.builder()
+				.id(usuarioAuth.getId())
+				.name(usuarioAuth.getName())
+				.email(usuarioAuth.getEmail())
+				.token(tokenService.gerarToken(usuarioAuth))
+				.build());
 	}
 	
 	@PostMapping
@@ -52,27 +70,92 @@ public class UsuarioController {
 				.name(dto.getName())
 				.senha(dto.getSenha()).build();
 		
-		try {
-			Usuario usuarioSalvo = service.salvarUsuario(usuario);
-			return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
-			
-		} catch (RegraNegocioException e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
-		}
+		Usuario usuarioSalvo = service.salvarUsuario(usuario);
+		return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
 	}
 	
 //	Criado um repositor para capturar a soma das despesas e receitas e no service fazer a logica de subtração para mostrar o saldo.
+//	O usuario ja foi validado pelo token, somente o proprio usuario pode consultar o seu saldo.
 	@GetMapping("{id}/saldo")
-	public ResponseEntity obterSaldoUSuario(@PathVariable("id") Long id) {
-		Optional<Usuario> usuario = service.obterPorId(id);
+	public ResponseEntity obterSaldoUSuario(@PathVariable("id") Long id,
+			@RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario, WebRequest requisicao) {
+		if (!id.equals(idUsuario)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
 		
-		if(!usuario.isPresent()) {
-			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		if (requisicao.checkNotModified(criarEtag(id))) {
+			return null;
 		}
 		
 		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
 		
 		return ResponseEntity.ok(saldo);
 	}
+	
+//	Receitas, despesas e saldo do ano detalhados por mes e status, calculados em uma unica consulta.
+	@GetMapping("{id}/saldo/detalhado")
+	public ResponseEntity obterSaldoDetalhado(@PathVariable("id") Long id, @RequestParam("ano") Integer ano,
+			@RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario, WebRequest requisicao) {
+		if (!id.equals(idUsuario)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+		
+		if (requisicao.checkNotModified(criarEtag(id))) {
+			return null;
+		}
+		
+		SaldoDetalhadoDTO saldo = lancamentoService.obterSaldoDetalhado(id, ano);
+		
+		return ResponseEntity.ok(saldo);
+	}
+	
+//	Soma e quantidade de lancamentos do ano por mes, tipo e status, lidos da tabela de resumo mensal.
+	@GetMapping("{id}/resumo")
+	public ResponseEntity obterResumoMensal(@PathVariable("id") Long id, @RequestParam("ano") Integer ano,
+			@RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario, WebRequest requisicao) {
+		if (!id.equals(idUsuario)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+		
+		if (requisicao.checkNotModified(criarEtag(id))) {
+			return null;
+		}
+		
+		List<ResumoMensalDTO> resumo = resumoService.obterResumo(id, ano);
+		
+		return ResponseEntity.ok(resumo);
+	}
+	
+//	Saldo acumulado no fim de cada mes entre de e ate (aaaa-mm), para o grafico de evolução do saldo.
+//	Calculado no banco a partir do resumo mensal, somente os pontos da serie sao enviados.
+	@GetMapping("{id}/saldo/historico")
+	public ResponseEntity obterSaldoHistorico(@PathVariable("id") Long id, @RequestParam("de") String de,
+			@RequestParam("ate") String ate, @RequestAttribute(TokenAutenticacaoFilter.ID_USUARIO) Long idUsuario,
+			WebRequest requisicao) {
+		if (!id.equals(idUsuario)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+		
+		if (requisicao.checkNotModified(criarEtag(id))) {
+			return null;
+		}
+		
+		List<SaldoHistoricoDTO> historico = resumoService.obterSaldoHistorico(id, converterMes(de), converterMes(ate));
+		return ResponseEntity.ok(historico);
+	}
+	
+	private YearMonth converterMes(String mes) {
+		try {
+			return YearMonth.parse(mes);
+		} catch (DateTimeParseException e) {
+			throw new RegraNegocioException("Informe o mês no formato aaaa-mm.");
+		}
+	}
+	
+//	Saldo, saldo detalhado, historico e resumo mudam somente com as escritas de lancamento, que incrementam a versao do usuario.
+//	Com a versao atual no If-None-Match a resposta é 304 sem calcular nada.
+	private String criarEtag(Long idUsuario) {
+		return "\"" + idUsuario + "-" + lancamentoService.obterVersaoPorUsuario(idUsuario) + "\"";
+	}
 
 }
@@ -0,0 +1,198 @@
+package com.renatom.minhasfinancas.conversao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
+
+// Codificação protobuf da mensagem ListaLancamentos (src/main/resources/proto/lancamentos.proto), escrita direto
+// com o CodedOutputStream a partir do LancamentoDTO, sem classes geradas pelo protoc nem copia intermediaria.
+// Os numeros dos campos e dos enums sao os do .proto e nao podem mudar sem quebrar os clientes.
+public final class LancamentoProtobuf {
+
+	private static final int CAMPO_ITENS = 1;
+	private static final int CAMPO_PROXIMO_CURSOR = 2;
+
+	private static final int CAMPO_ID = 1;
+	private static final int CAMPO_DESCRICAO = 2;
+	private static final int CAMPO_MES = 3;
+	private static final int CAMPO_ANO = 4;
+	private static final int CAMPO_USUARIO = 5;
+	private static final int CAMPO_VALOR_CENTAVOS = 6;
+	private static final int CAMPO_TIPO = 7;
+	private static final int CAMPO_STATUS = 8;
+	private static final int CAMPO_VERSAO = 9;
+
+	// O indice é o numero do enum no .proto, o 0 é o valor indefinido
+	private static final String[] TIPOS = { null, "RECEITA", "DESPESA" };
+	private static final String[] STATUS = { null, "PENDENTE", "CANCELADO", "EFETIVADO" };
+
+	private LancamentoProtobuf() {
+	}
+
+	public static void escrever(List<LancamentoDTO> itens, String proximoCursor, OutputStream saida) throws IOException {
+		CodedOutputStream out = CodedOutputStream.newInstance(saida);
+		for (LancamentoDTO lancamento : itens) {
+			out.writeTag(CAMPO_ITENS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+			out.writeUInt32NoTag(calcularTamanho(lancamento));
+			escreverLancamento(out, lancamento);
+		}
+		if (proximoCursor != null) {
+			out.writeString(CAMPO_PROXIMO_CURSOR, proximoCursor);
+		}
+		out.flush();
+	}
+
+	public static PaginaCursorDTO<LancamentoDTO> ler(InputStream entrada) throws IOException {
+		CodedInputStream in = CodedInputStream.newInstance(entrada);
+		List<LancamentoDTO> itens = new ArrayList<>();
+		String proximoCursor = null;
+
+		int tag;
+		while ((tag = in.readTag()) != 0) {
+			switch (WireFormat.getTagFieldNumber(tag)) {
+			case CAMPO_ITENS:
+				int limite = in.pushLimit(in.readRawVarint32());
+				itens.add(lerLancamento(in));
+				in.popLimit(limite);
+				break;
+			case CAMPO_PROXIMO_CURSOR:
+				proximoCursor = in.readString();
+				break;
+			default:
+				in.skipField(tag);
+			}
+		}
+		return new PaginaCursorDTO<>(itens, proximoCursor);
+	}
+
+	private static void escreverLancamento(CodedOutputStream out, LancamentoDTO lancamento) throws IOException {
+		if (lancamento.getId() != null) {
+			out.writeInt64(CAMPO_ID, lancamento.getId());
+		}
+		if (lancamento.getDescricao() != null) {
+			out.writeString(CAMPO_DESCRICAO, lancamento.getDescricao());
+		}
+		if (lancamento.getMes() != null) {
+			out.writeInt32(CAMPO_MES, lancamento.getMes());
+		}
+		if (lancamento.getAno() != null) {
+			out.writeInt32(CAMPO_ANO, lancamento.getAno());
+		}
+		if (lancamento.getUsuario() != null) {
+			out.writeInt64(CAMPO_USUARIO, lancamento.getUsuario());
+		}
+		if (lancamento.getValor() != null) {
+			out.writeSInt64(CAMPO_VALOR_CENTAVOS, paraCentavos(lancamento.getValor()));
+		}
+		if (lancamento.getTipo() != null) {
+			out.writeEnum(CAMPO_TIPO, codigo(TIPOS, lancamento.getTipo()));
+		}
+		if (lancamento.getStatus() != null) {
+			out.writeEnum(CAMPO_STATUS, codigo(STATUS, lancamento.getStatus()));
+		}
+		if (lancamento.getVersao() != null) {
+			out.writeInt64(CAMPO_VERSAO, lancamento.getVersao());
+		}
+	}
+
+//	O tamanho vai antes da mensagem aninhada, entao é calculado com as mesmas condições do escreverLancamento.
+	private static int calcularTamanho(LancamentoDTO lancamento) {
+		int tamanho = 0;
+		if (lancamento.getId() != null) {
+			tamanho += CodedOutputStream.computeInt64Size(CAMPO_ID, lancamento.getId());
+		}
+		if (lancamento.getDescricao() != null) {
+			tamanho += CodedOutputStream.computeStringSize(CAMPO_DESCRICAO, lancamento.getDescricao());
+		}
+		if (lancamento.getMes() != null) {
+			tamanho += CodedOutputStream.computeInt32Size(CAMPO_MES, lancamento.getMes());
+		}
+		if (lancamento.getAno() != null) {
+			tamanho += CodedOutputStream.computeInt32Size(CAMPO_ANO, lancamento.getAno());
+		}
+		if (lancamento.getUsuario() != null) {
+			tamanho += CodedOutputStream.computeInt64Size(CAMPO_USUARIO, lancamento.getUsuario());
+		}
+		if (lancamento.getValor() != null) {
+			tamanho += CodedOutputStream.computeSInt64Size(CAMPO_VALOR_CENTAVOS, paraCentavos(lancamento.getValor()));
+		}
+		if (lancamento.getTipo() != null) {
+			tamanho += CodedOutputStream.computeEnumSize(CAMPO_TIPO, codigo(TIPOS, lancamento.getTipo()));
+		}
+		if (lancamento.getStatus() != null) {
+			tamanho += CodedOutputStream.computeEnumSize(CAMPO_STATUS, codigo(STATUS, lancamento.getStatus()));
+		}
+		if (lancamento.getVersao() != null) {
+			tamanho += CodedOutputStream.computeInt64Size(CAMPO_VERSAO, lancamento.getVersao());
+		}
+		return tamanho;
+	}
+
+	private static LancamentoDTO lerLancamento(CodedInputStream in) throws IOException {
+		LancamentoDTO lancamento = new LancamentoDTO();
+		int tag;
+		while ((tag = in.readTag()) != 0) {
+			switch (WireFormat.getTagFieldNumber(tag)) {
+			case CAMPO_ID:
+				lancamento.setId(in.readInt64());
+				break;
+			case CAMPO_DESCRICAO:
+				lancamento.setDescricao(in.readString());
+				break;
+			case CAMPO_MES:
+				lancamento.setMes(in.readInt32());
+				break;
+			case CAMPO_ANO:
+				lancamento.setAno(in.readInt32());
+				break;
+			case CAMPO_USUARIO:
+				lancamento.setUsuario(in.readInt64());
+				break;
+			case CAMPO_VALOR_CENTAVOS:
+				lancamento.setValor(BigDecimal.valueOf(in.readSInt64(), 2));
+				break;
+			case CAMPO_TIPO:
+				lancamento.setTipo(valor(TIPOS, in.readEnum()));
+				break;
+			case CAMPO_STATUS:
+				lancamento.setStatus(valor(STATUS, in.readEnum()));
+				break;
+			case CAMPO_VERSAO:
+				lancamento.setVersao(in.readInt64());
+				break;
+			default:
+				in.skipField(tag);
+			}
+		}
+		return lancamento;
+	}
+
+//	A coluna valor é numeric(16, 2), o que cabe em um long de centavos.
+	private static long paraCentavos(BigDecimal valor) {
+		return valor.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+	}
+
+	private static int codigo(String[] valores, String valor) {
+		for (int i = 1; i < valores.length; i++) {
+			if (valores[i].equals(valor)) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	private static String valor(String[] valores, int codigo) {
+		return codigo > 0 && codigo < valores.length ? valores[codigo] : null;
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.renatom.minhasfinancas.conversao;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
+
+// Escreve as listas e paginas de LancamentoDTO do GET /api/lancamentos em protobuf (LancamentoProtobuf) quando o
+// cliente envia Accept: application/x-protobuf. Somente escrita, e somente de lancamentos: outra lista pedida
+// nesse formato responde com erro em vez de uma mensagem que o schema nao descreve.
+public class LancamentoProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+	public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+	public LancamentoProtobufHttpMessageConverter() {
+		super(PROTOBUF);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return List.class.isAssignableFrom(clazz) || PaginaCursorDTO.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canRead(Class<?> clazz, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage) {
+		throw new UnsupportedOperationException("O formato protobuf é usado somente nas respostas.");
+	}
+
+	@Override
+	protected void writeInternal(Object corpo, HttpOutputMessage outputMessage) throws IOException {
+		List<?> itens;
+		String proximoCursor = null;
+		if (corpo instanceof PaginaCursorDTO) {
+			itens = ((PaginaCursorDTO<?>) corpo).getItens();
+			proximoCursor = ((PaginaCursorDTO<?>) corpo).getProximoCursor();
+		} else {
+			itens = (List<?>) corpo;
+		}
+
+		for (Object item : itens) {
+			if (!(item instanceof LancamentoDTO)) {
+				throw new HttpMessageNotWritableException("O formato protobuf está disponível somente para listas de lançamentos.");
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		List<LancamentoDTO> lancamentos = (List<LancamentoDTO>) itens;
+		LancamentoProtobuf.escrever(lancamentos, proximoCursor, outputMessage.getBody());
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.renatom.minhasfinancas.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Posição da ultima linha retornada na ordenação (ano, mes, id), enviada ao cliente como um texto opaco.
+@Data
+@AllArgsConstructor
+public class CursorLancamento {
+
+	private Integer ano;
+	private Integer mes;
+	private Long id;
+
+	public static CursorLancamento de(LancamentoDTO lancamento) {
+		return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+	}
+
+	public String codificar() {
+		String valor = ano + ":" + mes + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static CursorLancamento decodificar(String cursor) {
+		try {
+			String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			String[] partes = valor.split(":");
+			return new CursorLancamento(Integer.valueOf(partes[0]), Integer.valueOf(partes[1]), Long.valueOf(partes[2]));
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new RegraNegocioException("Cursor de paginação inválido.");
+		}
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.renatom.minhasfinancas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticasCacheDTO {
+
+	private String nome;
+	private Long tamanho;
+	private Long acertos;
+	private Long falhas;
+	private Double taxaAcerto;
+	private Long remocoes;
+
+}
@@ -0,0 +1,20 @@
+package com.renatom.minhasfinancas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemLoteDTO {
+
+//	Posição do item no array enviado, começando em 0
+	private Integer indice;
+	private Long id;
+	private Boolean sucesso;
+	private String mensagem;
+
+}
@@ -2,6 +2,9 @@ package com.renatom.minhasfinancas.dto;
 
 import java.math.BigDecimal;
 
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,5 +24,21 @@ public class LancamentoDTO {
 	private BigDecimal valor;
 	private String tipo;
 	private String status;
+	private Long versao;
+
+//	Construtor usado pelas consultas de projeção do LancamentoRepository (select new ...), que leem somente as colunas
+//	de lancamento e o id_usuario, sem carregar o Usuario.
+	public LancamentoDTO(Long id, String descricao, Integer mes, Integer ano, Long usuario, BigDecimal valor,
+			TipoLancamento tipo, StatusLancamento status, Long versao) {
+		this.id = id;
+		this.descricao = descricao;
+		this.mes = mes;
+		this.ano = ano;
+		this.usuario = usuario;
+		this.valor = valor;
+		this.tipo = tipo == null ? null : tipo.name();
+		this.status = status == null ? null : status.name();
+		this.versao = versao;
+	}
 
 }
@@ -0,0 +1,20 @@
+package com.renatom.minhasfinancas.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorDTO<T> {
+
+	private List<T> itens;
+//	Nulo quando nao houver mais paginas
+	private String proximoCursor;
+
+}
@@ -0,0 +1,26 @@
+package com.renatom.minhasfinancas.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+
+	private Integer total;
+	private Integer sucessos;
+	private Integer falhas;
+	private List<ItemLoteDTO> itens;
+
+//	Preenchidos quando a leitura do array parou em um item que nao é um objeto de lancamento ou em um JSON invalido.
+//	Os itens anteriores ao indiceErro ja foram processados e os sucessos gravados, o envio pode continuar a partir dele.
+	private Integer indiceErro;
+	private String erro;
+
+}
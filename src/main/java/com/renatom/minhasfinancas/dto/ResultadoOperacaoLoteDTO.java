@@ -0,0 +1,17 @@
+package com.renatom.minhasfinancas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoOperacaoLoteDTO {
+
+//	Quantidade de lancamentos alterados ou excluidos
+	private Integer afetados;
+
+}
@@ -0,0 +1,18 @@
+package com.renatom.minhasfinancas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoPesquisaDTO {
+
+	private LancamentoDTO lancamento;
+//	Fração dos trigramas do termo pesquisado encontrados na descrição, de 0 a 1
+	private Double relevancia;
+
+}
@@ -0,0 +1,34 @@
+package com.renatom.minhasfinancas.dto;
+
+import java.math.BigDecimal;
+
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensalDTO {
+
+	private Integer mes;
+	private String tipo;
+	private String status;
+	private BigDecimal valor;
+	private Long quantidade;
+
+//	Construtor usado pela consulta do ResumoMensalRepository (select new ...)
+	public ResumoMensalDTO(Integer mes, TipoLancamento tipo, StatusLancamento status, BigDecimal valor, Long quantidade) {
+		this.mes = mes;
+		this.tipo = tipo.name();
+		this.status = status.name();
+		this.valor = valor;
+		this.quantidade = quantidade;
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.renatom.minhasfinancas.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoDetalhadoDTO {
+
+	private Long usuario;
+	private Integer ano;
+	private BigDecimal receitas;
+	private BigDecimal despesas;
+	private BigDecimal saldo;
+	private List<SaldoMensalDTO> meses;
+
+}
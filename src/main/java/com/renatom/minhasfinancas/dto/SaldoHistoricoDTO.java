@@ -0,0 +1,21 @@
+package com.renatom.minhasfinancas.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Saldo acumulado do usuario no fim do mes, um ponto do historico de saldo.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoHistoricoDTO {
+
+	private Integer ano;
+	private Integer mes;
+	private BigDecimal saldo;
+
+}
@@ -0,0 +1,33 @@
+package com.renatom.minhasfinancas.dto;
+
+import java.math.BigDecimal;
+
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoMensalDTO {
+
+	private Integer mes;
+	private String status;
+	private BigDecimal receitas;
+	private BigDecimal despesas;
+	private BigDecimal saldo;
+
+//	Construtor usado pela consulta agregada do LancamentoRepository (select new ...)
+	public SaldoMensalDTO(Integer mes, StatusLancamento status, BigDecimal receitas, BigDecimal despesas) {
+		this.mes = mes;
+		this.status = status.name();
+		this.receitas = receitas == null ? BigDecimal.ZERO : receitas;
+		this.despesas = despesas == null ? BigDecimal.ZERO : despesas;
+		this.saldo = this.receitas.subtract(this.despesas);
+	}
+
+}
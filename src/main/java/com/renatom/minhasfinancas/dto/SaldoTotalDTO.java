@@ -0,0 +1,27 @@
+package com.renatom.minhasfinancas.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoTotalDTO {
+
+	private BigDecimal receitas;
+	private BigDecimal despesas;
+	private BigDecimal saldo;
+
+//	Construtor usado pela consulta agregada do LancamentoRepository (select new ...), sem lancamentos as somas vem nulas.
+	public SaldoTotalDTO(BigDecimal receitas, BigDecimal despesas) {
+		this.receitas = receitas == null ? BigDecimal.ZERO : receitas;
+		this.despesas = despesas == null ? BigDecimal.ZERO : despesas;
+		this.saldo = this.receitas.subtract(this.despesas);
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.renatom.minhasfinancas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resposta da autenticação: dados do usuario e o token que deve ser enviado no header Authorization (Bearer).
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioAutenticadoDTO {
+
+	private Long id;
+	private String name;
+	private String email;
+	private String token;
+
+}
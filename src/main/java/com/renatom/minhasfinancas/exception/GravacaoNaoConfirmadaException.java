@@ -0,0 +1,11 @@
+package com.renatom.minhasfinancas.exception;
+
+// Lançada quando a gravação agrupada nao confirma o lancamento dentro do tempo limite, os controllers devolvem 503.
+// O lancamento ainda pode ter sido gravado, o cliente deve consultar antes de enviar de novo.
+public class GravacaoNaoConfirmadaException extends RuntimeException {
+
+	public GravacaoNaoConfirmadaException(String mensagem) {
+		super(mensagem);
+	}
+
+}
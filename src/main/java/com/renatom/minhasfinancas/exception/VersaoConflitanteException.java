@@ -0,0 +1,10 @@
+package com.renatom.minhasfinancas.exception;
+
+// Lançada quando o lancamento foi alterado depois da versao lida pelo cliente, os controllers devolvem 412.
+public class VersaoConflitanteException extends RuntimeException {
+
+	public VersaoConflitanteException(String mensagem) {
+		super(mensagem);
+	}
+
+}
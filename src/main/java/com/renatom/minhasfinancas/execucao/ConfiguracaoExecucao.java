@@ -0,0 +1,54 @@
+package com.renatom.minhasfinancas.execucao;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Com financas.execucao.limitar-conexoes=true cada pool do Hikari é limitado por um semaforo do seu tamanho: as requisições
+// esperam a conexao em uma fila justa, com o mesmo timeout do pool, fora do Hikari. As requisições continuam atendidas pelo
+// pool limitado do Tomcat (server.tomcat.max-threads), o projeto segue em Java 8 e por isso nao usa virtual threads.
+@Configuration
+@ConditionalOnProperty(name = "financas.execucao.limitar-conexoes", havingValue = "true")
+public class ConfiguracaoExecucao {
+
+//	Static pois um BeanPostProcessor precisa ser criado antes dos demais beans da configuração.
+//	Com replicas ou shards o DataSource tem um pool por banco, e cada pool recebe o proprio semaforo: um semaforo unico
+//	do tamanho de um pool deixaria os demais ociosos enquanto as requisições esperam.
+	@Bean
+	public static BeanPostProcessor limiteConexoesPostProcessor(Environment environment) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSourceAgrupado) {
+					((DataSourceAgrupado) bean).envolverPools(pool -> limitar(pool, environment));
+					return bean;
+				}
+				if (bean instanceof DataSource) {
+					return limitar((DataSource) bean, environment);
+				}
+				return bean;
+			}
+		};
+	}
+
+//	O limite e o timeout vem do proprio pool do Hikari, ou das propriedades spring.datasource.hikari para outros DataSources.
+	static DataSource limitar(DataSource pool, Environment environment) {
+		if (pool instanceof DataSourceLimitado) {
+			return pool;
+		}
+		if (pool instanceof HikariDataSource) {
+			HikariDataSource hikari = (HikariDataSource) pool;
+			return new DataSourceLimitado(pool, hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+		}
+		int limite = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+		long timeoutMs = environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30000l);
+		return new DataSourceLimitado(pool, limite, timeoutMs);
+	}
+
+}
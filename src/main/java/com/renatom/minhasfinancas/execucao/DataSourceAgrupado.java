@@ -0,0 +1,14 @@
+package com.renatom.minhasfinancas.execucao;
+
+import java.util.function.UnaryOperator;
+
+import javax.sql.DataSource;
+
+// DataSource que distribui as conexoes entre varios pools, como o RoteamentoDataSource e o ShardDataSource.
+// Permite que o limite de conexoes seja aplicado em cada pool separadamente em vez do conjunto.
+public interface DataSourceAgrupado {
+
+//	Substitui cada pool pelo retorno do envoltorio, chamado uma unica vez antes do DataSource ser usado.
+	void envolverPools(UnaryOperator<DataSource> envoltorio);
+
+}
@@ -0,0 +1,98 @@
+package com.renatom.minhasfinancas.execucao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// Limita quantas threads podem estar com uma conexao ao mesmo tempo, com um semaforo do tamanho do pool do Hikari.
+// As requisições esperam no semaforo, em ordem de chegada, e nao dentro do pool. A permissão é devolvida no close da conexao.
+// O close do DataSource fecha o pool envolvido.
+public class DataSourceLimitado extends DelegatingDataSource implements AutoCloseable {
+
+	private final Semaphore permissoes;
+
+	private final long timeoutMs;
+
+	public DataSourceLimitado(DataSource dataSource, int limite, long timeoutMs) {
+		super(dataSource);
+		this.permissoes = new Semaphore(limite, true);
+		this.timeoutMs = timeoutMs;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		adquirir();
+		return obterConexao(() -> super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		adquirir();
+		return obterConexao(() -> super.getConnection(username, password));
+	}
+
+	@Override
+	public void close() throws Exception {
+		if (getTargetDataSource() instanceof AutoCloseable) {
+			((AutoCloseable) getTargetDataSource()).close();
+		}
+	}
+
+	int getPermissoesDisponiveis() {
+		return permissoes.availablePermits();
+	}
+
+	private void adquirir() throws SQLException {
+		try {
+			if (!permissoes.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+				throw new SQLTransientConnectionException("Nenhuma conexão disponível após " + timeoutMs + "ms.");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrompido aguardando uma conexão.", e);
+		}
+	}
+
+	private Connection obterConexao(FonteConexao fonte) throws SQLException {
+		Connection conexao;
+		try {
+			conexao = fonte.obter();
+		} catch (SQLException | RuntimeException e) {
+			permissoes.release();
+			throw e;
+		}
+
+		AtomicBoolean devolvida = new AtomicBoolean();
+		InvocationHandler handler = (proxy, metodo, argumentos) -> invocar(conexao, metodo, argumentos, devolvida);
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, handler);
+	}
+
+	private Object invocar(Connection conexao, Method metodo, Object[] argumentos, AtomicBoolean devolvida) throws Throwable {
+		try {
+			return metodo.invoke(conexao, argumentos);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		} finally {
+			if ("close".equals(metodo.getName()) && devolvida.compareAndSet(false, true)) {
+				permissoes.release();
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface FonteConexao {
+		Connection obter() throws SQLException;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.renatom.minhasfinancas.exportacao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+
+// Formatos aceitos pela exportação de lancamentos, cada linha é escrita assim que é lida do banco.
+public enum FormatoExportacao {
+
+	CSV("text/csv", "csv") {
+		@Override
+		public void escreverCabecalho(Writer writer) throws IOException {
+			writer.write("id,descricao,mes,ano,usuario,valor,tipo,status\n");
+		}
+
+		@Override
+		protected void escreverLinha(Writer writer, LancamentoDTO lancamento, ObjectMapper objectMapper) throws IOException {
+			writer.write(String.valueOf(lancamento.getId()));
+			writer.write(',');
+			writer.write(escaparCsv(lancamento.getDescricao()));
+			writer.write(',');
+			writer.write(String.valueOf(lancamento.getMes()));
+			writer.write(',');
+			writer.write(String.valueOf(lancamento.getAno()));
+			writer.write(',');
+			writer.write(String.valueOf(lancamento.getUsuario()));
+			writer.write(',');
+			writer.write(lancamento.getValor().toPlainString());
+			writer.write(',');
+			writer.write(lancamento.getTipo());
+			writer.write(',');
+			writer.write(lancamento.getStatus());
+			writer.write('\n');
+		}
+	},
+
+	NDJSON("application/x-ndjson", "ndjson") {
+		@Override
+		protected void escreverLinha(Writer writer, LancamentoDTO lancamento, ObjectMapper objectMapper) throws IOException {
+//			O gerador nao pode fechar o writer, que continua recebendo as proximas linhas
+			objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(writer, lancamento);
+			writer.write('\n');
+		}
+	};
+
+	private final String contentType;
+	private final String extensao;
+
+	FormatoExportacao(String contentType, String extensao) {
+		this.contentType = contentType;
+		this.extensao = extensao;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public String getExtensao() {
+		return extensao;
+	}
+
+	public void escreverCabecalho(Writer writer) throws IOException {
+	}
+
+//	Usado dentro do consumidor da exportação, que nao pode lançar IOException
+	public void escrever(Writer writer, LancamentoDTO lancamento, ObjectMapper objectMapper) {
+		try {
+			escreverLinha(writer, lancamento, objectMapper);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	protected abstract void escreverLinha(Writer writer, LancamentoDTO lancamento, ObjectMapper objectMapper) throws IOException;
+
+	private static String escaparCsv(String valor) {
+		if (valor == null) {
+			return "";
+		}
+		if (valor.contains(",") || valor.contains("\"") || valor.contains("\n") || valor.contains("\r")) {
+			return "\"" + valor.replace("\"", "\"\"") + "\"";
+		}
+		return valor;
+	}
+
+}
@@ -0,0 +1,249 @@
+package com.renatom.minhasfinancas.gravacao;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.renatom.minhasfinancas.exception.GravacaoNaoConfirmadaException;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.service.PesquisaLancamentoService;
+import com.renatom.minhasfinancas.service.ResumoMensalService;
+import com.renatom.minhasfinancas.service.SaldoUsuarioService;
+import com.renatom.minhasfinancas.shard.ShardContexto;
+
+import io.micrometer.core.instrument.Metrics;
+
+// Gravação agrupada (group commit) dos lancamentos do LancamentoService.salvar, ligada com financas.gravacao.agrupada=true.
+// As requisições concorrentes entram em uma fila limitada e uma unica thread grava tudo o que estiver na fila em uma
+// transação, com os inserts em batch, e so completa o futuro de cada requisição depois do commit. Assim um commit, e um
+// fsync do banco, atende varias requisições com a mesma durabilidade da gravação individual.
+// Nao ha espera para juntar o lote: com pouca carga cada lote tem um lancamento, com muita carga os lotes crescem sozinhos.
+@Component
+@ConditionalOnProperty(name = "financas.gravacao.agrupada", havingValue = "true")
+public class GravacaoAgrupadaLancamentos {
+
+	private static final Logger LOG = LoggerFactory.getLogger(GravacaoAgrupadaLancamentos.class);
+
+	private static final long ESPERA_FILA_MS = 100;
+
+	private LancamentoRepository repository;
+
+	private SaldoUsuarioService saldoService;
+
+	private PesquisaLancamentoService pesquisaService;
+
+	private ResumoMensalService resumoService;
+
+	private TransactionTemplate transactionTemplate;
+
+	private BlockingQueue<Pendente> fila;
+
+	private int tamanhoMaximoLote;
+
+	private long timeoutMs;
+
+	private Thread escritor;
+
+	private volatile boolean ativo = true;
+
+	public GravacaoAgrupadaLancamentos(LancamentoRepository repository, SaldoUsuarioService saldoService,
+			PesquisaLancamentoService pesquisaService, ResumoMensalService resumoService, TransactionTemplate transactionTemplate,
+			@Value("${financas.gravacao.fila:10000}") int capacidadeFila,
+			@Value("${financas.gravacao.lote-maximo:500}") int tamanhoMaximoLote,
+			@Value("${financas.gravacao.timeout-ms:10000}") long timeoutMs) {
+		this.repository = repository;
+		this.saldoService = saldoService;
+		this.pesquisaService = pesquisaService;
+		this.resumoService = resumoService;
+		this.transactionTemplate = transactionTemplate;
+		this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+		this.tamanhoMaximoLote = tamanhoMaximoLote;
+		this.timeoutMs = timeoutMs;
+	}
+
+	@PostConstruct
+	public void iniciar() {
+		escritor = new Thread(this::executar, "gravacao-agrupada-lancamentos");
+		escritor.setDaemon(true);
+		escritor.start();
+	}
+
+//	Para de aceitar lancamentos e espera o escritor gravar o que ja estava na fila.
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		ativo = false;
+		escritor.join(TimeUnit.SECONDS.toMillis(30));
+	}
+
+//	Bloqueia a requisição ate o commit do lote em que o lancamento foi gravado, retornando o lancamento com o id.
+//	Com a fila cheia lança RejectedExecutionException na hora, em vez de acumular requisições esperando.
+//	A espera é limitada por financas.gravacao.timeout-ms: um lancamento que ainda esta na fila é descartado pelo escritor,
+//	um que ja esta em uma transação ainda pode ser gravado, por isso a GravacaoNaoConfirmadaException.
+	public Lancamento gravar(Lancamento lancamento) {
+		Pendente pendente = new Pendente(lancamento);
+		if (!ativo || !fila.offer(pendente)) {
+			throw new RejectedExecutionException("Fila de gravação de lançamentos cheia, tente novamente.");
+		}
+
+		try {
+			return pendente.resultado.get(timeoutMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			return desistir(pendente, "A gravação do lançamento não foi confirmada em " + timeoutMs
+					+ "ms, consulte os lançamentos antes de enviar novamente.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return desistir(pendente, "A gravação do lançamento foi interrompida, consulte os lançamentos antes de enviar novamente.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new CompletionException(e.getCause());
+		}
+	}
+
+	int getPendentes() {
+		return fila.size();
+	}
+
+//	Se o escritor completou o lancamento entre o timeout e aqui o resultado dele vale.
+	private Lancamento desistir(Pendente pendente, String mensagem) {
+		GravacaoNaoConfirmadaException erro = new GravacaoNaoConfirmadaException(mensagem);
+		if (pendente.resultado.completeExceptionally(erro)) {
+			throw erro;
+		}
+		return pendente.resultado.join();
+	}
+
+	private void executar() {
+		List<Pendente> lote = new ArrayList<>(tamanhoMaximoLote);
+		while (ativo || !fila.isEmpty()) {
+			try {
+				Pendente primeiro = fila.poll(ESPERA_FILA_MS, TimeUnit.MILLISECONDS);
+				if (primeiro == null) {
+					continue;
+				}
+				lote.add(primeiro);
+				fila.drainTo(lote, tamanhoMaximoLote - 1);
+//				Descarta os lancamentos cujas requisições desistiram por timeout
+				lote.removeIf(pendente -> pendente.resultado.isDone());
+				if (!lote.isEmpty()) {
+					gravarPorShard(lote);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (Throwable e) {
+//				Inclusive Error, para que nenhuma requisição do lote fique esperando um futuro que nunca completa
+				LOG.error("Erro inesperado na gravação agrupada de lançamentos.", e);
+				lote.forEach(pendente -> pendente.resultado.completeExceptionally(e));
+			} finally {
+				lote.clear();
+			}
+		}
+
+		Pendente restante;
+		while ((restante = fila.poll()) != null) {
+			restante.resultado.completeExceptionally(
+					new RejectedExecutionException("Gravação de lançamentos encerrada, tente novamente."));
+		}
+	}
+
+//	Com shards cada transação fica em um banco, entao o lote é dividido pelo shard da requisição que enfileirou cada item.
+	private void gravarPorShard(List<Pendente> lote) {
+		Map<String, List<Pendente>> porShard = new LinkedHashMap<>();
+		lote.forEach(pendente -> porShard.computeIfAbsent(pendente.shard, shard -> new ArrayList<>()).add(pendente));
+		porShard.forEach((shard, pendentes) -> ShardContexto.executar(shard, () -> {
+			gravarLote(pendentes);
+			return null;
+		}));
+	}
+
+//	Um lancamento com erro desfaz a transação do lote inteiro, entao os itens sao gravados de novo um por transação
+//	para que somente a requisição com problema receba o erro.
+	private void gravarLote(List<Pendente> lote) {
+		List<Lancamento> lancamentos = lote.stream().map(pendente -> pendente.lancamento).collect(Collectors.toList());
+		try {
+			transactionTemplate.execute(status -> inserir(lancamentos));
+			Metrics.summary("financas.gravacao.lote").record(lote.size());
+			lote.forEach(pendente -> pendente.resultado.complete(pendente.lancamento));
+		} catch (RuntimeException e) {
+			if (lote.size() == 1) {
+				lote.get(0).resultado.completeExceptionally(e);
+				return;
+			}
+
+			LOG.warn("Lote de {} lançamentos desfeito, gravando individualmente: {}", lote.size(), e.getMessage());
+			for (Pendente pendente : lote) {
+				try {
+					limparGeracao(pendente.lancamento);
+					transactionTemplate.execute(status -> inserir(Collections.singletonList(pendente.lancamento)));
+					pendente.resultado.complete(pendente.lancamento);
+				} catch (RuntimeException erro) {
+					pendente.resultado.completeExceptionally(erro);
+				}
+			}
+		}
+	}
+
+//	Mesma gravação da importação em lote: inserts em batch, saldo uma vez por usuario, resumo mensal e indice de pesquisa.
+	private Void inserir(List<Lancamento> lancamentos) {
+		repository.saveAll(lancamentos);
+
+		Map<Long, BigDecimal> variacoes = new HashMap<>();
+		for (Lancamento lancamento : lancamentos) {
+			BigDecimal impacto = lancamento.getTipo() == TipoLancamento.RECEITA ? lancamento.getValor() : lancamento.getValor().negate();
+			variacoes.merge(lancamento.getUsuario().getId(), impacto, BigDecimal::add);
+		}
+		pesquisaService.indexarNovos(lancamentos);
+		repository.flush();
+		variacoes.forEach(saldoService::atualizarSaldo);
+		resumoService.adicionar(lancamentos);
+		return null;
+	}
+
+//	O rollback nao desfaz o id e a versao atribuidos pelo persist, sem limpar o lancamento seria tratado como ja existente.
+	private void limparGeracao(Lancamento lancamento) {
+		lancamento.setId(null);
+		lancamento.setVersao(null);
+	}
+
+	private static class Pendente {
+
+		private final Lancamento lancamento;
+
+		private final CompletableFuture<Lancamento> resultado = new CompletableFuture<>();
+
+		private final String shard = ShardContexto.atual();
+
+		Pendente(Lancamento lancamento) {
+			this.lancamento = lancamento;
+		}
+
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.renatom.minhasfinancas.job;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.renatom.minhasfinancas.service.PesquisaLancamentoService;
+import com.renatom.minhasfinancas.shard.MapaShards;
+import com.renatom.minhasfinancas.shard.ShardContexto;
+
+// Indexa em pequenos lotes os lancamentos que ainda nao possuem trigramas, como os gravados antes da pesquisa existir.
+// No Postgres a pesquisa usa o pg_trgm e o job nao faz nada.
+// As escritas indexam o lancamento na propria transação, entao a faixa de ids ja verificada nao volta a ter pendentes:
+// cada shard guarda o ultimo id verificado e as execuções seguintes leem somente os lancamentos novos.
+// Cada execução indexa no maximo MAXIMO_LOTES lotes e continua do mesmo id na proxima, assim a thread do agendador
+// nao fica presa por uma tabela grande. Depois de reiniciar a aplicação a primeira execução verifica a tabela desde o inicio.
+@Component
+public class IndicePesquisaJob {
+
+	private static final int TAMANHO_LOTE = 500;
+
+	private static final int MAXIMO_LOTES = 100;
+
+	private PesquisaLancamentoService pesquisaService;
+
+	private MapaShards mapaShards;
+
+//	Ultimo id verificado por shard (chave null sem shards). O fixedDelay nunca executa o job em paralelo.
+	private final Map<String, Long> verificadosAte = new HashMap<>();
+
+	public IndicePesquisaJob(PesquisaLancamentoService pesquisaService, Optional<MapaShards> mapaShards) {
+		this.pesquisaService = pesquisaService;
+		this.mapaShards = mapaShards.orElse(null);
+	}
+
+	@Scheduled(fixedDelayString = "${financas.pesquisa.indexacao.intervalo-ms:60000}")
+	public void executar() {
+		if (mapaShards != null) {
+			mapaShards.paraCadaShard(this::indexar);
+		} else {
+			indexar();
+		}
+	}
+
+	private void indexar() {
+		Long ateId = pesquisaService.obterUltimoIdLancamento();
+		if (ateId == null) {
+			return;
+		}
+
+		String shard = ShardContexto.atual();
+		Long ultimoId = verificadosAte.getOrDefault(shard, 0l);
+		for (int lote = 0; lote < MAXIMO_LOTES && ultimoId < ateId; lote++) {
+			Long proximo = pesquisaService.indexarPendentes(ultimoId, ateId, TAMANHO_LOTE);
+			ultimoId = proximo == null ? ateId : proximo;
+		}
+		verificadosAte.put(shard, ultimoId);
+	}
+
+}
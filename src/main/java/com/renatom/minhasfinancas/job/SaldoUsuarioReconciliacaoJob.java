@@ -0,0 +1,34 @@
+package com.renatom.minhasfinancas.job;
+
+import java.util.Optional;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.renatom.minhasfinancas.service.SaldoUsuarioService;
+import com.renatom.minhasfinancas.shard.MapaShards;
+
+// Job que recalcula periodicamente os snapshots de saldo a partir dos lancamentos,
+// corrigindo qualquer divergencia causada por alterações feitas fora da aplicação. Com shards recalcula cada shard.
+@Component
+public class SaldoUsuarioReconciliacaoJob {
+
+	private SaldoUsuarioService saldoService;
+
+	private MapaShards mapaShards;
+
+	public SaldoUsuarioReconciliacaoJob(SaldoUsuarioService saldoService, Optional<MapaShards> mapaShards) {
+		this.saldoService = saldoService;
+		this.mapaShards = mapaShards.orElse(null);
+	}
+
+	@Scheduled(cron = "${financas.saldo.reconciliacao.cron:0 0 3 * * *}")
+	public void executar() {
+		if (mapaShards != null) {
+			mapaShards.paraCadaShard(saldoService::reconciliar);
+		} else {
+			saldoService.reconciliar();
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.renatom.minhasfinancas.job;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.renatom.minhasfinancas.roteamento.RoteamentoDataSource;
+
+// Testa periodicamente a conexao com cada replica de leitura, retirando do rodizio as que nao respondem
+// e devolvendo as que voltaram.
+@Component
+@ConditionalOnProperty(name = "financas.replicas.habilitado", havingValue = "true")
+public class VerificacaoReplicasJob {
+
+	private RoteamentoDataSource roteamento;
+
+//	O DataSource pode estar envolvido pelo DataSourceLimitado quando as conexoes sao limitadas.
+	public VerificacaoReplicasJob(DataSource dataSource) throws SQLException {
+		this.roteamento = dataSource.unwrap(RoteamentoDataSource.class);
+	}
+
+	@Scheduled(fixedDelayString = "${financas.replicas.verificacao-ms:5000}")
+	public void executar() {
+		roteamento.verificarReplicas();
+	}
+
+}
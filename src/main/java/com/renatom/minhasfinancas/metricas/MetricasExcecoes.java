@@ -0,0 +1,23 @@
+package com.renatom.minhasfinancas.metricas;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Conta no financas.excecoes cada exceção tratada antes de chegar ao cliente, com o nome da exceção na tag tipo.
+// Usado pelo TratamentoExcecoesAdvice, para as exceções dos controllers, e pelo TokenAutenticacaoFilter.
+public final class MetricasExcecoes {
+
+	static final String METRICA = "financas.excecoes";
+
+	private MetricasExcecoes() {
+	}
+
+	public static void contar(ObjectProvider<MeterRegistry> registry, Throwable erro) {
+		MeterRegistry meterRegistry = registry.getIfAvailable();
+		if (meterRegistry != null) {
+			meterRegistry.counter(METRICA, "tipo", erro.getClass().getSimpleName()).increment();
+		}
+	}
+
+}
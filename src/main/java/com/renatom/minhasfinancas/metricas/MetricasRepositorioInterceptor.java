@@ -0,0 +1,52 @@
+package com.renatom.minhasfinancas.metricas;
+
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Mede o tempo de cada chamada de metodo de um repository, com tags do repository, do metodo e do resultado.
+// O nome e as tags seguem as metricas de repository que o Spring Boot so passou a ter nas versões 2.5+.
+public class MetricasRepositorioInterceptor implements MethodInterceptor {
+
+	static final String METRICA = "spring.data.repository.invocations";
+
+	private final ObjectProvider<MeterRegistry> registry;
+
+	private final String repositorio;
+
+	public MetricasRepositorioInterceptor(ObjectProvider<MeterRegistry> registry, Class<?> repositorio) {
+		this.registry = registry;
+		this.repositorio = repositorio.getSimpleName();
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		long inicio = System.nanoTime();
+		String estado = "SUCCESS";
+		String excecao = "none";
+		try {
+			return invocation.proceed();
+		} catch (Throwable e) {
+			estado = "ERROR";
+			excecao = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			MeterRegistry meterRegistry = registry.getIfAvailable();
+			if (meterRegistry != null) {
+				Timer.builder(METRICA)
+						.tag("repository", repositorio)
+						.tag("method", invocation.getMethod().getName())
+						.tag("state", estado)
+						.tag("exception", excecao)
+						.register(meterRegistry)
+						.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.renatom.minhasfinancas.metricas;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Adiciona o MetricasRepositorioInterceptor no proxy criado pelo Spring Data para cada repository
+// (LancamentoRepository, UsuarioRepository...), assim todo metodo chamado passa pelo timer.
+// O MeterRegistry é obtido de forma tardia pois um BeanPostProcessor é criado antes dos demais beans.
+@Component
+public class MetricasRepositorioPostProcessor implements BeanPostProcessor {
+
+	private final ObjectProvider<MeterRegistry> registry;
+
+	public MetricasRepositorioPostProcessor(ObjectProvider<MeterRegistry> registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof Repository && bean instanceof Advised) {
+			Class<?> repositorio = obterInterfaceRepositorio((Advised) bean);
+			if (repositorio != null) {
+				((Advised) bean).addAdvice(0, new MetricasRepositorioInterceptor(registry, repositorio));
+			}
+		}
+		return bean;
+	}
+
+//	A interface declarada na aplicação é a que estende Repository, as demais sao interfaces internas do proxy.
+	private Class<?> obterInterfaceRepositorio(Advised proxy) {
+		for (Class<?> interfaceProxy : proxy.getProxiedInterfaces()) {
+			if (Repository.class.isAssignableFrom(interfaceProxy)
+					&& !interfaceProxy.getName().startsWith("org.springframework.")) {
+				return interfaceProxy;
+			}
+		}
+		return null;
+	}
+
+}
@@ -3,18 +3,25 @@ package com.renatom.minhasfinancas.model.entity;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 
 import com.renatom.minhasfinancas.model.enums.StatusLancamento;
@@ -26,16 +33,25 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "lancamento", schema = "financas")
+// Mesmo indice criado pela migração V2, declarado aqui para que o schema gerado nos testes fique igual
+@Table(name = "lancamento", schema = "financas",
+		indexes = { @Index(name = "idx_lancamento_usuario_ano_mes_tipo", columnList = "id_usuario, ano, mes, tipo"),
+				@Index(name = "idx_lancamento_usuario_ano_mes_id", columnList = "id_usuario, ano, mes, id") })
+// Cache de segundo nivel na região "lancamento" (application.conf), atualizado pelo Hibernate em cada escrita pela JPA
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "lancamento")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Lancamento {
 	
 	@Id
 	@Column(name = "id")
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	// Sequence com allocationSize permite ao Hibernate reservar 50 ids por vez e agrupar os inserts em batch,
+	// o que nao acontece com IDENTITY pois cada insert precisa ir ao banco para descobrir o id gerado
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_seq")
+	@SequenceGenerator(name = "lancamento_seq", sequenceName = "lancamento_seq", schema = "financas", allocationSize = 50)
 	private Long id;
 	
 	@Column(name = "descricao")
@@ -48,7 +64,8 @@ public class Lancamento {
 	private Integer ano;
 
 	// Para relacionamento de tabelas: Many= muitos lancamentos toOne= para um usuario
-	@ManyToOne
+	// LAZY para que ler um lancamento nao busque tambem o usuario, as leituras da API usam o id_usuario pela projeção
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "id_usuario")
 	private Usuario usuario;
 	
@@ -70,7 +87,12 @@ public class Lancamento {
 	@Column(name = "status")
 	@Enumerated(value = EnumType.STRING)
 	private StatusLancamento status;
-
+	
+	@Version
+	@Column(name = "versao")
+	// Controle otimista de concorrencia: o PUT compara a versao com o If-Match e o UPDATE so altera a linha
+	// se ela ainda estiver na versao lida, ver LancamentoRepository.atualizarSeVersao
+	private Long versao;
 	
 
 }
@@ -0,0 +1,60 @@
+package com.renatom.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Soma e quantidade dos lancamentos de cada usuario por ano, mes, tipo e status, mantido pelas escritas de lancamento.
+// Um ano de um usuario tem no maximo 12 meses x 2 tipos x 3 status linhas, independente da quantidade de lancamentos.
+@Entity
+@Table(name = "resumo_mensal", schema = "financas")
+@IdClass(ResumoMensalId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensal {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Id
+	@Column(name = "ano")
+	private Integer ano;
+
+	@Id
+	@Column(name = "mes")
+	private Integer mes;
+
+	@Id
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+
+	@Id
+	@Column(name = "status")
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+
+	@Column(name = "valor")
+	private BigDecimal valor;
+
+	@Column(name = "quantidade")
+	private Long quantidade;
+
+}
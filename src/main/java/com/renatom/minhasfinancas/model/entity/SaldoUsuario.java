@@ -0,0 +1,41 @@
+package com.renatom.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Snapshot do saldo de cada usuario, mantido pelas operações de escrita de lancamento.
+// A chave é o proprio id do usuario, assim a consulta de saldo vira uma busca pela chave primaria.
+@Entity
+@Table(name = "saldo_usuario", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "valor")
+	private BigDecimal valor;
+
+	@Column(name = "data_atualizacao")
+	private LocalDateTime dataAtualizacao;
+
+//	Incrementada a cada escrita de lancamento do usuario, usada como ETag das consultas.
+//	Começa no horario de criação em milissegundos para que um snapshot recriado nao repita versões antigas.
+	@Column(name = "versao")
+	private Long versao;
+
+}
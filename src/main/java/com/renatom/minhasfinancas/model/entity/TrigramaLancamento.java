@@ -0,0 +1,50 @@
+package com.renatom.minhasfinancas.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Indice invertido da descrição dos lancamentos: uma linha para cada trigrama distinto da descrição.
+// A pesquisa busca pelo indice (id_usuario, trigrama) e nunca precisa varrer a tabela de lancamento.
+@Entity
+@Table(name = "lancamento_trigrama", schema = "financas")
+@IdClass(TrigramaLancamentoId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrigramaLancamento implements Persistable<TrigramaLancamentoId> {
+
+	@Id
+	@Column(name = "id_lancamento")
+	private Long idLancamento;
+
+	@Id
+	@Column(name = "trigrama", length = 3)
+	private String trigrama;
+
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Override
+	public TrigramaLancamentoId getId() {
+		return new TrigramaLancamentoId(idLancamento, trigrama);
+	}
+
+//	Os trigramas sao sempre inseridos (a reindexação apaga os antigos antes), assim o Spring Data usa persist
+//	e nao faz um select por linha como aconteceria no merge de uma entidade com chave atribuida.
+	@Override
+	public boolean isNew() {
+		return true;
+	}
+
+}
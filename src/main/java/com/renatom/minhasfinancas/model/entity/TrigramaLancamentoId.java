@@ -0,0 +1,20 @@
+package com.renatom.minhasfinancas.model.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Chave composta do TrigramaLancamento, exigida pelo @IdClass
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrigramaLancamentoId implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long idLancamento;
+	private String trigrama;
+
+}
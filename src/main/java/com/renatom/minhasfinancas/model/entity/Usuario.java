@@ -1,12 +1,17 @@
 package com.renatom.minhasfinancas.model.entity;
 
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -16,7 +21,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table( name = "usuario" , schema = "financas")
+// A unicidade do email fica no banco (uk_usuario_email, criada pela migração V2)
+@Table( name = "usuario" , schema = "financas",
+		uniqueConstraints = @UniqueConstraint(name = "uk_usuario_email", columnNames = "email"))
+// Cache de segundo nivel na região "usuario" (application.conf), usado pelo find e pelo lancamento.getUsuario()
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuario")
 // Cria todos os get and set , equals and hashCodes
 @Data
 @Builder
@@ -0,0 +1,19 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+// Dialeto do banco para as consultas nativas que tem uma versão propria do Postgres e outra para o H2 dos testes.
+final class Dialetos {
+
+	private Dialetos() {
+	}
+
+	static boolean isPostgres(EntityManager entityManager) {
+		return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+				.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+	}
+
+}
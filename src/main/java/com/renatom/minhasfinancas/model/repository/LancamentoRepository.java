@@ -1,19 +1,85 @@
 package com.renatom.minhasfinancas.model.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Example;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.SaldoMensalDTO;
+import com.renatom.minhasfinancas.dto.SaldoTotalDTO;
 import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
 import com.renatom.minhasfinancas.model.enums.TipoLancamento;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
+
+//	Sobrescrito apenas para guardar o resultado no cache de consultas do Hibernate, as mesmas combinações de filtro do
+//	buscar se repetem muito. O Hibernate descarta o resultado em qualquer escrita na tabela lancamento.
+	@Override
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	<S extends Lancamento> List<S> findAll(Example<S> example);
+
+//	Projeção do lancamento com somente o id do usuario, sem carregar a entidade Usuario.
+	@Query(value = "select new com.renatom.minhasfinancas.dto.LancamentoDTO(l.id, l.descricao, l.mes, l.ano, l.usuario.id, l.valor, l.tipo, l.status, l.versao) "
+			+ "from Lancamento l where l.id = :id")
+	Optional<LancamentoDTO> consultarPorId(@Param("id") Long id);
+
+	@Query(value = "select new com.renatom.minhasfinancas.dto.LancamentoDTO(l.id, l.descricao, l.mes, l.ano, l.usuario.id, l.valor, l.tipo, l.status, l.versao) "
+			+ "from Lancamento l where l.id in :ids")
+	List<LancamentoDTO> consultarPorIds(@Param("ids") Collection<Long> ids);
+
+//	Atualização otimista em um unico UPDATE, sem carregar nem fazer merge da entidade: so altera a linha se ela for do usuario
+//	e ainda estiver na versao informada, retornando 0 quando outra escrita chegou antes.
+	@Modifying
+	@Query("update Lancamento l set l.descricao = :descricao, l.mes = :mes, l.ano = :ano, l.valor = :valor, l.tipo = :tipo, "
+			+ "l.status = :status, l.versao = l.versao + 1 where l.id = :id and l.usuario.id = :idUsuario and l.versao = :versao")
+	int atualizarSeVersao(@Param("id") Long id, @Param("idUsuario") Long idUsuario, @Param("versao") Long versao,
+			@Param("descricao") String descricao, @Param("mes") Integer mes, @Param("ano") Integer ano,
+			@Param("valor") BigDecimal valor, @Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status);
 
-//	Realizado a soma de todos os lancamentos do tipo enviado como parametros.
+//	Mesmo controle do atualizarSeVersao alterando somente o status.
+	@Modifying
+	@Query("update Lancamento l set l.status = :status, l.versao = l.versao + 1 "
+			+ "where l.id = :id and l.usuario.id = :idUsuario and l.versao = :versao")
+	int atualizarStatusSeVersao(@Param("id") Long id, @Param("idUsuario") Long idUsuario, @Param("versao") Long versao,
+			@Param("status") StatusLancamento status);
+
+//	Realizado a soma das receitas e a soma das despesas do usuario em uma unica consulta, usando soma condicional,
+//	o saldo é a diferença das duas calculada no SaldoTotalDTO.
 //	Como o tipo é um enum Deve enviar a Classe e nao o tipo ex: String
-	@Query(value = "select sum(l.valor) from Lancamento l join l.usuario u where u.id = :idUsuario and l.tipo = :tipo group by u ")
-	BigDecimal obterSaldoPorTipoLancamentoEUsuario(@Param("idUsuario") Long idUsuario, @Param("tipo") TipoLancamento tipo);
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	@Query(value = "select new com.renatom.minhasfinancas.dto.SaldoTotalDTO("
+			+ "sum(case when l.tipo = :receita then l.valor else 0 end), sum(case when l.tipo = :despesa then l.valor else 0 end)) "
+			+ "from Lancamento l where l.usuario.id = :idUsuario")
+	SaldoTotalDTO obterSaldoPorUsuario(@Param("idUsuario") Long idUsuario, @Param("receita") TipoLancamento receita,
+			@Param("despesa") TipoLancamento despesa);
+
+//	Totais de receitas e despesas do ano agrupados por mes e status, tudo em um unico select, guardado no cache de consultas.
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	@Query(value = "select new com.renatom.minhasfinancas.dto.SaldoMensalDTO(l.mes, l.status, "
+			+ "sum(case when l.tipo = :receita then l.valor else 0 end), sum(case when l.tipo = :despesa then l.valor else 0 end)) "
+			+ "from Lancamento l where l.usuario.id = :idUsuario and l.ano = :ano "
+			+ "group by l.mes, l.status order by l.mes, l.status")
+	List<SaldoMensalDTO> obterSaldoMensalPorUsuarioEAno(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano,
+			@Param("receita") TipoLancamento receita, @Param("despesa") TipoLancamento despesa);
+
+//	Usado pela reconciliação dos saldos: retorna para cada usuario [id, total de receitas, total de despesas].
+	@Query(value = "select u.id, sum(case when l.tipo = :receita then l.valor else 0 end), sum(case when l.tipo = :despesa then l.valor else 0 end) "
+			+ "from Lancamento l join l.usuario u group by u.id")
+	List<Object[]> obterTotaisPorUsuario(@Param("receita") TipoLancamento receita, @Param("despesa") TipoLancamento despesa);
+
+//	Maior id de lancamento, fim da faixa verificada pela indexação dos pendentes.
+	@Query(value = "select max(l.id) from Lancamento l")
+	Long obterUltimoId();
 
 }
@@ -0,0 +1,28 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.renatom.minhasfinancas.dto.CursorLancamento;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+
+// Consultas que o Spring Data nao consegue gerar pelo nome do metodo, implementadas em LancamentoRepositoryImpl.
+public interface LancamentoRepositoryCustom {
+
+	List<LancamentoDTO> consultar(Lancamento lancamentoFiltro);
+
+	List<LancamentoDTO> buscarAposCursor(Lancamento lancamentoFiltro, CursorLancamento cursor, int limite);
+
+	void percorrer(Lancamento lancamentoFiltro, Consumer<LancamentoDTO> consumidor);
+
+	int atualizarStatusEmLote(Lancamento lancamentoFiltro, Collection<Long> ids, StatusLancamento status);
+
+	int deletarEmLote(Lancamento lancamentoFiltro, Collection<Long> ids);
+
+	BigDecimal somarImpactoNoSaldo(Lancamento lancamentoFiltro, Collection<Long> ids);
+
+}
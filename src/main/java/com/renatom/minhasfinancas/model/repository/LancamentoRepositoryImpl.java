@@ -0,0 +1,190 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.renatom.minhasfinancas.dto.CursorLancamento;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.TrigramaLancamento;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+// O Spring Data encontra essa classe pelo sufixo Impl e junta os metodos dela ao LancamentoRepository.
+// As consultas daqui sao projeções direto para LancamentoDTO: leem as colunas de lancamento e o id_usuario,
+// sem join com usuario e sem colocar entidades no contexto de persistencia.
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+//	Quantidade de linhas que o driver traz do banco por vez ao percorrer o cursor
+	@Value("${financas.exportacao.fetch-size:500}")
+	private int fetchSize;
+
+//	Guardada no cache de consultas do Hibernate como o findAll por Example do buscar.
+	@Override
+	public List<LancamentoDTO> consultar(Lancamento lancamentoFiltro) {
+		return entityManager.createQuery(criarConsulta(lancamentoFiltro, null))
+				.setHint(QueryHints.HINT_CACHEABLE, true)
+				.getResultList();
+	}
+
+//	Paginação por cursor (keyset): ao inves de OFFSET a consulta continua a partir da ultima linha lida,
+//	usando a ordenação (ano, mes, id) que o indice de lancamento por usuario atende.
+	@Override
+	public List<LancamentoDTO> buscarAposCursor(Lancamento lancamentoFiltro, CursorLancamento cursor, int limite) {
+		return entityManager.createQuery(criarConsulta(lancamentoFiltro, cursor))
+				.setMaxResults(limite)
+				.getResultList();
+	}
+
+//	Percorre os lancamentos do filtro com um cursor somente para frente, entregando um de cada vez ao consumidor.
+//	Como sao projeções nada fica no contexto de persistencia, assim a memoria usada nao depende da quantidade de linhas.
+//	Precisa ser chamado dentro de uma transação, pois o Postgres so usa o fetch size com o auto commit desligado.
+	@Override
+	public void percorrer(Lancamento lancamentoFiltro, Consumer<LancamentoDTO> consumidor) {
+		try (Stream<LancamentoDTO> lancamentos = entityManager.createQuery(criarConsulta(lancamentoFiltro, null))
+				.setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(QueryHints.HINT_READONLY, true)
+				.getResultStream()) {
+			lancamentos.forEach(consumidor);
+		}
+	}
+
+//	Um unico UPDATE para todos os lancamentos do filtro, sem carregar nenhum deles.
+	@Override
+	public int atualizarStatusEmLote(Lancamento lancamentoFiltro, Collection<Long> ids, StatusLancamento status) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Lancamento> update = cb.createCriteriaUpdate(Lancamento.class);
+		Root<Lancamento> root = update.from(Lancamento.class);
+
+		update.set(root.<StatusLancamento>get("status"), status)
+				.set(root.<Long>get("versao"), cb.sum(root.<Long>get("versao"), 1L))
+				.where(criarFiltrosLote(cb, root, lancamentoFiltro, ids));
+		return entityManager.createQuery(update).executeUpdate();
+	}
+
+//	Remove primeiro os trigramas dos lancamentos do filtro, por subconsulta, e depois os lancamentos com um unico DELETE.
+	@Override
+	public int deletarEmLote(Lancamento lancamentoFiltro, Collection<Long> ids) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+		CriteriaDelete<TrigramaLancamento> deleteTrigramas = cb.createCriteriaDelete(TrigramaLancamento.class);
+		Root<TrigramaLancamento> trigrama = deleteTrigramas.from(TrigramaLancamento.class);
+		Subquery<Long> idsLancamento = deleteTrigramas.subquery(Long.class);
+		Root<Lancamento> lancamento = idsLancamento.from(Lancamento.class);
+		idsLancamento.select(lancamento.get("id")).where(criarFiltrosLote(cb, lancamento, lancamentoFiltro, ids));
+		deleteTrigramas.where(
+				cb.equal(trigrama.get("idUsuario"), lancamentoFiltro.getUsuario().getId()),
+				trigrama.get("idLancamento").in(idsLancamento));
+		entityManager.createQuery(deleteTrigramas).executeUpdate();
+
+		CriteriaDelete<Lancamento> delete = cb.createCriteriaDelete(Lancamento.class);
+		Root<Lancamento> root = delete.from(Lancamento.class);
+		delete.where(criarFiltrosLote(cb, root, lancamentoFiltro, ids));
+		return entityManager.createQuery(delete).executeUpdate();
+	}
+
+//	Receitas menos despesas dos lancamentos do filtro, usado para ajustar o saldo antes de uma exclusão em lote.
+	@Override
+	public BigDecimal somarImpactoNoSaldo(Lancamento lancamentoFiltro, Collection<Long> ids) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<BigDecimal> query = cb.createQuery(BigDecimal.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+
+		Expression<BigDecimal> valor = root.get("valor");
+		Expression<BigDecimal> impacto = cb.<BigDecimal>selectCase()
+				.when(cb.equal(root.get("tipo"), TipoLancamento.RECEITA), valor)
+				.otherwise(cb.neg(valor));
+		query.select(cb.sum(impacto)).where(criarFiltrosLote(cb, root, lancamentoFiltro, ids));
+
+		BigDecimal soma = entityManager.createQuery(query).getSingleResult();
+		return soma == null ? BigDecimal.ZERO : soma;
+	}
+
+	private CriteriaQuery<LancamentoDTO> criarConsulta(Lancamento lancamentoFiltro, CursorLancamento cursor) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<LancamentoDTO> query = cb.createQuery(LancamentoDTO.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+
+		List<Predicate> filtros = criarFiltros(cb, root, lancamentoFiltro);
+		if (cursor != null) {
+			filtros.add(aposCursor(cb, root, cursor));
+		}
+
+//		usuario.id é lido da propria coluna id_usuario, sem join
+		query.select(cb.construct(LancamentoDTO.class, root.get("id"), root.get("descricao"), root.get("mes"),
+						root.get("ano"), root.get("usuario").get("id"), root.get("valor"), root.get("tipo"), root.get("status"),
+						root.get("versao")))
+				.where(filtros.toArray(new Predicate[0]))
+				.orderBy(cb.asc(root.get("ano")), cb.asc(root.get("mes")), cb.asc(root.get("id")));
+		return query;
+	}
+
+//	Mesmos filtros do buscar por Example: descricao contendo o texto ignorando caixa alta e os demais por igualdade.
+	private List<Predicate> criarFiltros(CriteriaBuilder cb, Root<Lancamento> root, Lancamento filtro) {
+		List<Predicate> filtros = new ArrayList<>();
+		filtros.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuario().getId()));
+
+		if (filtro.getDescricao() != null) {
+			filtros.add(cb.like(cb.lower(root.get("descricao")), "%" + filtro.getDescricao().toLowerCase() + "%"));
+		}
+		if (filtro.getAno() != null) {
+			filtros.add(cb.equal(root.get("ano"), filtro.getAno()));
+		}
+		if (filtro.getMes() != null) {
+			filtros.add(cb.equal(root.get("mes"), filtro.getMes()));
+		}
+		if (filtro.getTipo() != null) {
+			filtros.add(cb.equal(root.get("tipo"), filtro.getTipo()));
+		}
+		if (filtro.getStatus() != null) {
+			filtros.add(cb.equal(root.get("status"), filtro.getStatus()));
+		}
+		return filtros;
+	}
+
+//	Filtros das operações em lote: sempre restritas ao usuario, pelos ids informados e/ou por ano, mes e tipo.
+	private Predicate[] criarFiltrosLote(CriteriaBuilder cb, Root<Lancamento> root, Lancamento filtro, Collection<Long> ids) {
+		List<Predicate> filtros = criarFiltros(cb, root, filtro);
+		if (ids != null && !ids.isEmpty()) {
+			filtros.add(root.get("id").in(ids));
+		}
+		return filtros.toArray(new Predicate[0]);
+	}
+
+//	(ano, mes, id) > (cursor.ano, cursor.mes, cursor.id) escrito por extenso, pois nem todo banco aceita comparação de tuplas.
+//	O ano >= cursor.ano redundante fora do or da ao planejador o inicio da faixa no indice (id_usuario, ano, mes, id),
+//	sem ele o or vira um filtro aplicado a todos os lancamentos do usuario.
+	private Predicate aposCursor(CriteriaBuilder cb, Root<Lancamento> root, CursorLancamento cursor) {
+		Path<Integer> ano = root.get("ano");
+		Path<Integer> mes = root.get("mes");
+		Path<Long> id = root.get("id");
+
+		return cb.and(cb.greaterThanOrEqualTo(ano, cursor.getAno()), cb.or(
+				cb.greaterThan(ano, cursor.getAno()),
+				cb.and(cb.equal(ano, cursor.getAno()), cb.greaterThan(mes, cursor.getMes())),
+				cb.and(cb.equal(ano, cursor.getAno()), cb.equal(mes, cursor.getMes()), cb.greaterThan(id, cursor.getId()))));
+	}
+
+}
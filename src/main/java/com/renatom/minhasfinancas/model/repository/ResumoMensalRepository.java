@@ -0,0 +1,36 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.renatom.minhasfinancas.dto.ResumoMensalDTO;
+import com.renatom.minhasfinancas.model.entity.ResumoMensal;
+import com.renatom.minhasfinancas.model.entity.ResumoMensalId;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, ResumoMensalId>, ResumoMensalRepositoryCustom {
+
+//	Mesmo modelo do saldo: soma a variação direto no banco e retorna 0 quando a linha do resumo ainda nao existe.
+	@Modifying
+	@Query("update ResumoMensal r set r.valor = r.valor + :valor, r.quantidade = r.quantidade + :quantidade "
+			+ "where r.idUsuario = :idUsuario and r.ano = :ano and r.mes = :mes and r.tipo = :tipo and r.status = :status")
+	int somar(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano, @Param("mes") Integer mes,
+			@Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status,
+			@Param("valor") BigDecimal valor, @Param("quantidade") Long quantidade);
+
+	@Modifying
+	@Query("delete from ResumoMensal r where r.idUsuario = :idUsuario")
+	int removerPorUsuario(@Param("idUsuario") Long idUsuario);
+
+//	Le somente as linhas do ano pela chave primaria (id_usuario, ano, ...), no maximo 72.
+	@Query("select new com.renatom.minhasfinancas.dto.ResumoMensalDTO(r.mes, r.tipo, r.status, r.valor, r.quantidade) "
+			+ "from ResumoMensal r where r.idUsuario = :idUsuario and r.ano = :ano order by r.mes, r.tipo, r.status")
+	List<ResumoMensalDTO> consultarPorUsuarioEAno(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+
+}
@@ -0,0 +1,17 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.util.List;
+
+import com.renatom.minhasfinancas.dto.SaldoHistoricoDTO;
+
+// Inserts nativos do resumo mensal e a consulta do saldo acumulado, implementados em ResumoMensalRepositoryImpl.
+public interface ResumoMensalRepositoryCustom {
+
+	int inserirCalculado(Long idUsuario, Integer ano, Integer mes, String tipo, String status);
+
+	int inserirCalculadoPorUsuario(Long idUsuario);
+
+//	Periodos no formato aaaamm (ano * 100 + mes)
+	List<SaldoHistoricoDTO> consultarSaldoAcumulado(Long idUsuario, int de, int ate);
+
+}
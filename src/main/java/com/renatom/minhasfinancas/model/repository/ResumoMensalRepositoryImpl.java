@@ -0,0 +1,112 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.renatom.minhasfinancas.dto.SaldoHistoricoDTO;
+import com.renatom.minhasfinancas.model.entity.ResumoMensal;
+
+// Os inserts ... select do resumo sao SQL nativo. Sem informar a tabela alterada o Hibernate considera que um update
+// nativo pode ter alterado qualquer tabela e limpa todo o cache de segundo nivel e de consultas, por isso as queries
+// sao criadas aqui e sincronizadas somente com a entidade ResumoMensal.
+// O saldo acumulado tambem é SQL nativo, pois o JPQL nao tem funções de janela.
+public class ResumoMensalRepositoryImpl implements ResumoMensalRepositoryCustom {
+
+	private static final String INSERIR_CALCULADO = "insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, valor, quantidade) "
+			+ "select id_usuario, ano, mes, tipo, status, sum(valor), count(*) from financas.lancamento ";
+
+	private static final String AGRUPAMENTO = " group by id_usuario, ano, mes, tipo, status";
+
+//	Receitas menos despesas das linhas do resumo, de todos os status como o saldo do usuario
+	private static final String VARIACAO = "sum(case when tipo = 'RECEITA' then valor when tipo = 'DESPESA' then -valor else 0 end)";
+
+//	A serie começa no ultimo mes com lancamentos antes de :de, que traz o saldo acumulado ate ali, ou no proprio :de
+	private static final String INICIO = "coalesce((select max(ano * 100 + mes) from financas.resumo_mensal "
+			+ "where id_usuario = :idUsuario and ano * 100 + mes < :de), :de)";
+
+//	Soma acumulada por uma função de janela sobre os totais de cada mes
+	private static final String SALDO_ACUMULADO_JANELA = "select ano, mes, saldo from ("
+			+ "select ano, mes, sum(variacao) over (order by ano, mes) as saldo from ("
+			+ "select ano, mes, " + VARIACAO + " as variacao from financas.resumo_mensal "
+			+ "where id_usuario = :idUsuario and ano * 100 + mes <= :ate group by ano, mes) meses) acumulado "
+			+ "where ano * 100 + mes >= " + INICIO + " order by ano, mes";
+
+//	Mesmo resultado sem função de janela, com uma subconsulta por mes somando as linhas do resumo ate ele
+	private static final String SALDO_ACUMULADO_SUBCONSULTA = "select ano, mes, (select " + VARIACAO
+			+ " from financas.resumo_mensal r where r.id_usuario = :idUsuario and r.ano * 100 + r.mes <= meses.ano * 100 + meses.mes) "
+			+ "as saldo from (select distinct ano, mes from financas.resumo_mensal "
+			+ "where id_usuario = :idUsuario and ano * 100 + mes <= :ate) meses "
+			+ "where ano * 100 + mes >= " + INICIO + " order by ano, mes";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+//	Desligado somente em bancos sem funções de janela, como o H2 anterior ao 1.4.198
+	@Value("${financas.saldo.historico.funcao-janela:true}")
+	private boolean funcaoJanela;
+
+//	Cria a linha do resumo a partir dos lancamentos, que ja contem a alteração atual. Se nao houver lancamentos nada é inserido.
+//	Como no snapshot do saldo, quando outra transação cria a mesma linha primeiro nada é inserido e o retorno é 0: no Postgres
+//	o on conflict espera o commit da outra, sem erro de chave duplicada, e no H2 dos testes o insert é condicionado a linha nao existir.
+	@Override
+	public int inserirCalculado(Long idUsuario, Integer ano, Integer mes, String tipo, String status) {
+		String filtro = "where id_usuario = :idUsuario and ano = :ano and mes = :mes and tipo = :tipo and status = :status";
+		String sql = Dialetos.isPostgres(entityManager)
+				? INSERIR_CALCULADO + filtro + AGRUPAMENTO + " on conflict do nothing"
+				: INSERIR_CALCULADO + filtro + " and not exists (select 1 from financas.resumo_mensal r where r.id_usuario = :idUsuario "
+						+ "and r.ano = :ano and r.mes = :mes and r.tipo = :tipo and r.status = :status)" + AGRUPAMENTO;
+
+		return criarInsert(sql)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("ano", ano)
+				.setParameter("mes", mes)
+				.setParameter("tipo", tipo)
+				.setParameter("status", status)
+				.executeUpdate();
+	}
+
+//	Refaz todo o resumo do usuario em um unico insert ... select, usado depois das operações em lote.
+	@Override
+	public int inserirCalculadoPorUsuario(Long idUsuario) {
+		return criarInsert(INSERIR_CALCULADO
+				+ "where id_usuario = :idUsuario and ano is not null and mes is not null and tipo is not null and status is not null"
+				+ AGRUPAMENTO)
+				.setParameter("idUsuario", idUsuario)
+				.executeUpdate();
+	}
+
+//	Uma unica consulta sobre o resumo mensal, no maximo 72 linhas por ano, sem ler a tabela lancamento.
+//	Somente os meses com lancamentos sao retornados, o primeiro pode ser anterior a :de. Mes somente com valores nulos tem saldo zero.
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<SaldoHistoricoDTO> consultarSaldoAcumulado(Long idUsuario, int de, int ate) {
+		List<Object[]> linhas = entityManager.createNativeQuery(funcaoJanela ? SALDO_ACUMULADO_JANELA : SALDO_ACUMULADO_SUBCONSULTA)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("de", de)
+				.setParameter("ate", ate)
+				.getResultList();
+
+		return linhas.stream()
+				.map(linha -> SaldoHistoricoDTO.builder()
+						.ano(((Number) linha[0]).intValue())
+						.mes(((Number) linha[1]).intValue())
+						.saldo(linha[2] == null ? BigDecimal.ZERO : (BigDecimal) linha[2])
+						.build())
+				.collect(Collectors.toList());
+	}
+
+	@SuppressWarnings("rawtypes")
+	private NativeQuery criarInsert(String sql) {
+		return entityManager.createNativeQuery(sql)
+				.unwrap(NativeQuery.class)
+				.addSynchronizedEntityClass(ResumoMensal.class);
+	}
+
+}
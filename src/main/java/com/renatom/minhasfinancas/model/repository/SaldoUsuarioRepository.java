@@ -0,0 +1,37 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.renatom.minhasfinancas.model.entity.SaldoUsuario;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom {
+
+//	Soma a variação direto no banco, sem carregar a entidade, para que escritas concorrentes do mesmo usuario nao se sobrescrevam.
+//	Retorna a quantidade de linhas alteradas, se for 0 o snapshot do usuario ainda nao existe.
+	@Modifying
+	@Query(value = "update SaldoUsuario s set s.valor = s.valor + :variacao, s.versao = s.versao + 1, s.dataAtualizacao = :data "
+			+ "where s.idUsuario = :idUsuario")
+	int somarVariacao(@Param("idUsuario") Long idUsuario, @Param("variacao") BigDecimal variacao, @Param("data") LocalDateTime data);
+
+//	Para escritas que nao alteram o saldo, como a mudança de status em lote.
+	@Modifying
+	@Query(value = "update SaldoUsuario s set s.versao = s.versao + 1, s.dataAtualizacao = :data where s.idUsuario = :idUsuario")
+	int incrementarVersao(@Param("idUsuario") Long idUsuario, @Param("data") LocalDateTime data);
+
+//	Grava o saldo recalculado, usado com a linha ja bloqueada pelo bloquear.
+	@Modifying
+	@Query(value = "update SaldoUsuario s set s.valor = :valor, s.versao = s.versao + 1, s.dataAtualizacao = :data "
+			+ "where s.idUsuario = :idUsuario")
+	int definirSaldo(@Param("idUsuario") Long idUsuario, @Param("valor") BigDecimal valor, @Param("data") LocalDateTime data);
+
+	@Query(value = "select s.versao from SaldoUsuario s where s.idUsuario = :idUsuario")
+	Optional<Long> obterVersao(@Param("idUsuario") Long idUsuario);
+
+}
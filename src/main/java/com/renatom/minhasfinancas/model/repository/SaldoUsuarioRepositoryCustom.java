@@ -0,0 +1,13 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Bloqueio e criação do snapshot de saldo em SQL nativo, implementados em SaldoUsuarioRepositoryImpl.
+public interface SaldoUsuarioRepositoryCustom {
+
+	boolean bloquear(Long idUsuario);
+
+	int inserirSeNaoExistir(Long idUsuario, BigDecimal valor, LocalDateTime data, Long versao);
+
+}
@@ -0,0 +1,51 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.query.NativeQuery;
+
+import com.renatom.minhasfinancas.model.entity.SaldoUsuario;
+
+// O insert do snapshot é sincronizado somente com a entidade SaldoUsuario, como no ResumoMensalRepositoryImpl,
+// para que o Hibernate nao limpe todo o cache de segundo nivel.
+public class SaldoUsuarioRepositoryImpl implements SaldoUsuarioRepositoryCustom {
+
+	private static final String INSERIR = "insert into financas.saldo_usuario (id_usuario, valor, data_atualizacao, versao) ";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+//	Trava a linha do snapshot ate o fim da transação, as escritas de lancamento do usuario esperam no somarVariacao.
+//	Retorna false quando o usuario ainda nao tem snapshot.
+	@Override
+	public boolean bloquear(Long idUsuario) {
+		return !entityManager.createNativeQuery("select id_usuario from financas.saldo_usuario where id_usuario = :idUsuario for update")
+				.setParameter("idUsuario", idUsuario)
+				.getResultList()
+				.isEmpty();
+	}
+
+//	No Postgres um insert concorrente do mesmo usuario espera o commit do outro e nao insere nada, sem erro de chave
+//	duplicada, e o retorno é 0. O H2 dos testes nao tem on conflict, nele o insert é condicionado a linha nao existir.
+	@Override
+	public int inserirSeNaoExistir(Long idUsuario, BigDecimal valor, LocalDateTime data, Long versao) {
+		String sql = Dialetos.isPostgres(entityManager)
+				? INSERIR + "values (:idUsuario, :valor, :data, :versao) on conflict do nothing"
+				: INSERIR + "select :idUsuario, :valor, :data, :versao "
+						+ "where not exists (select 1 from financas.saldo_usuario where id_usuario = :idUsuario)";
+
+		return entityManager.createNativeQuery(sql)
+				.unwrap(NativeQuery.class)
+				.addSynchronizedEntityClass(SaldoUsuario.class)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("valor", valor)
+				.setParameter("data", data)
+				.setParameter("versao", versao)
+				.executeUpdate();
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.TrigramaLancamento;
+import com.renatom.minhasfinancas.model.entity.TrigramaLancamentoId;
+
+public interface TrigramaLancamentoRepository extends JpaRepository<TrigramaLancamento, TrigramaLancamentoId>, TrigramaLancamentoRepositoryCustom {
+
+	@Modifying
+	@Query(value = "delete from TrigramaLancamento t where t.idLancamento = :idLancamento")
+	int removerPorLancamento(@Param("idLancamento") Long idLancamento);
+
+//	Retorna [idLancamento, quantidade de trigramas em comum] dos lancamentos do usuario que possuem
+//	pelo menos o minimo de trigramas informado, do mais parecido para o menos parecido.
+	@Query(value = "select t.idLancamento, count(t) from TrigramaLancamento t "
+			+ "where t.idUsuario = :idUsuario and t.trigrama in :trigramas "
+			+ "group by t.idLancamento having count(t) >= :minimo "
+			+ "order by count(t) desc, t.idLancamento desc")
+	List<Object[]> pontuarPorTrigramas(@Param("idUsuario") Long idUsuario, @Param("trigramas") Collection<String> trigramas,
+			@Param("minimo") Long minimo, Pageable pageable);
+
+//	Lancamentos que ainda nao possuem trigramas, usado para indexar os registros anteriores a pesquisa.
+//	Percorre pela chave a faixa entre o ultimo id do lote anterior e o ateId, cada lote avança mesmo que algum
+//	lancamento nao seja indexado.
+	@Query(value = "select l from Lancamento l where l.id > :aposId and l.id <= :ateId and not exists "
+			+ "(select t.idLancamento from TrigramaLancamento t where t.idLancamento = l.id) "
+			+ "order by l.id")
+	List<Lancamento> buscarLancamentosNaoIndexados(@Param("aposId") Long aposId, @Param("ateId") Long ateId, Pageable pageable);
+
+}
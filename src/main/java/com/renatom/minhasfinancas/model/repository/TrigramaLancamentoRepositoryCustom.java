@@ -0,0 +1,12 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.util.List;
+
+// Pesquisa pelo pg_trgm do Postgres em SQL nativo, implementada em TrigramaLancamentoRepositoryImpl.
+public interface TrigramaLancamentoRepositoryCustom {
+
+	boolean possuiPgTrgm();
+
+	List<Object[]> pesquisarPorSimilaridade(Long idUsuario, String termo, int limite);
+
+}
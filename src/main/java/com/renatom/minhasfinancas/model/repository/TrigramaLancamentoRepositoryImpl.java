@@ -0,0 +1,37 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+// No Postgres a descrição é pesquisada pelo pg_trgm, com o indice GIN idx_lancamento_descricao_trgm (migração V8),
+// e a tabela lancamento_trigrama nao é usada. Nos outros bancos, como o H2 dos testes, a pesquisa usa a tabela.
+public class TrigramaLancamentoRepositoryImpl implements TrigramaLancamentoRepositoryCustom {
+
+//	O operador % usa o indice e filtra pelo pg_trgm.similarity_threshold (0.3 por padrao), a similarity é
+//	trigramas em comum / trigramas dos dois textos.
+	private static final String PESQUISAR = "select l.id, similarity(l.descricao, :termo) from financas.lancamento l "
+			+ "where l.id_usuario = :idUsuario and l.descricao % :termo "
+			+ "order by 2 desc, l.id desc";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public boolean possuiPgTrgm() {
+		return Dialetos.isPostgres(entityManager);
+	}
+
+//	Retorna [id do lancamento, similaridade] do mais parecido para o menos parecido.
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Object[]> pesquisarPorSimilaridade(Long idUsuario, String termo, int limite) {
+		return entityManager.createNativeQuery(PESQUISAR)
+				.setParameter("idUsuario", idUsuario)
+				.setParameter("termo", termo)
+				.setMaxResults(limite)
+				.getResultList();
+	}
+
+}
@@ -2,7 +2,11 @@ package com.renatom.minhasfinancas.model.repository;
 
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.renatom.minhasfinancas.model.entity.Usuario;
 
@@ -11,12 +15,24 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 //	Usamos Optional pois pode retornar ou nao um usuario com o email que foi enviado pelo parametro.
 //	Ja que passamos o metodo findByEmail não precisamos fazer uma query pois o spring data reconhece e faz a busca sozinho.
 //	Nome dessa feature é query Methods.
+//	O resultado fica no cache usuariosPorEmail, quando nao encontra nada o vazio nao é guardado.
+	@Cacheable(cacheNames = "usuariosPorEmail", unless = "#result == null")
 	Optional<Usuario> findByEmail(String email);
 	
+//	Sobrescrito apenas para guardar o usuario no cache usuariosPorId, usado por quase todas as requisições de lancamento.
+	@Override
+	@Cacheable(cacheNames = "usuariosPorId", unless = "#result == null")
+	Optional<Usuario> findById(Long id);
+	
 //	Caso queiramos buscar por Email e Nome basta usar dessa forma:
 //	Optional<Usuario> findByEmailAndNome(String email, String nome);
 	
 //	Podemos verficiar e retornar apenas um booleano para verificar se o email existe na base:
 	boolean existsByEmail(String email);
+	
+//	Com shards o id vem do MapaShards, unico entre todos os bancos, e nao da sequence do shard (usado pelo UsuarioServiceShard).
+	@Modifying
+	@Query(value = "insert into financas.usuario (id, nome, email, senha) values (:id, :nome, :email, :senha)", nativeQuery = true)
+	int inserirComId(@Param("id") Long id, @Param("nome") String nome, @Param("email") String email, @Param("senha") String senha);
 
 }
@@ -0,0 +1,82 @@
+package com.renatom.minhasfinancas.roteamento;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Liga o roteamento de leituras para as replicas com financas.replicas.habilitado=true.
+// O DataSource e o transaction manager daqui substituem os do Spring Boot, que so sao criados quando nao existem.
+@Configuration
+@ConditionalOnProperty(name = "financas.replicas.habilitado", havingValue = "true")
+public class ConfiguracaoReplicas implements WebMvcConfigurer {
+
+	@Value("${financas.replicas.janela-leitura-apos-escrita-ms:5000}")
+	private long janelaLeituraAposEscrita;
+
+//	Um pool Hikari para o primario e um para cada url de financas.replicas.urls, todos com as propriedades spring.datasource.hikari.
+	@Bean
+	public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+			@Value("${financas.replicas.urls}") String[] urls) {
+		Binder binder = Binder.get(environment);
+		HikariDataSource primario = criarPool(properties, binder, meterRegistry, "primario", properties.determineUrl());
+
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (int i = 0; i < urls.length; i++) {
+			if (!urls[i].trim().isEmpty()) {
+				String nome = "replica-" + (i + 1);
+				replicas.put(nome, criarPool(properties, binder, meterRegistry, nome, urls[i].trim()));
+			}
+		}
+		return new RoteamentoDataSource(primario, replicas);
+	}
+
+	@Bean
+	public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+		return new RoteamentoTransactionManager(entityManagerFactory);
+	}
+
+//	Por padrao a sessão do Hibernate guarda a conexao ate ser fechada. Com um EntityManager que dura mais que a transação,
+//	como o do open-in-view, uma escrita depois de uma leitura na mesma sessão usaria a conexao da replica.
+//	Aqui a conexao é devolvida no fim de cada transação e a seguinte passa de novo pelo RoteamentoDataSource.
+	@Bean
+	public HibernatePropertiesCustomizer liberarConexaoAposTransacao() {
+		return propriedades -> propriedades.put(AvailableSettings.CONNECTION_HANDLING,
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new LeituraAposEscritaInterceptor(janelaLeituraAposEscrita));
+	}
+
+	private HikariDataSource criarPool(DataSourceProperties properties, Binder binder, MeterRegistry meterRegistry,
+			String nome, String url) {
+		HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+		pool.setPoolName(nome);
+		pool.setMetricRegistry(meterRegistry);
+		return pool;
+	}
+
+}
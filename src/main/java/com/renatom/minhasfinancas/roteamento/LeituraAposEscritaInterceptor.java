@@ -0,0 +1,61 @@
+package com.renatom.minhasfinancas.roteamento;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renatom.minhasfinancas.seguranca.TokenAutenticacaoFilter;
+
+// Leitura das proprias escritas: depois de um POST, PUT ou DELETE bem sucedido do usuario, as requisições dele vão para o
+// primario durante a janela configurada, que deve ser maior que o atraso de replicação.
+// O registro das escritas é desta instancia, sem afinidade no balanceador a leitura em outra instancia pode ir a uma replica.
+public class LeituraAposEscritaInterceptor implements AsyncHandlerInterceptor {
+
+	private final Cache<Long, Boolean> escritasRecentes;
+
+	public LeituraAposEscritaInterceptor(long janelaMs) {
+		this.escritasRecentes = Caffeine.newBuilder()
+				.expireAfterWrite(janelaMs, TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		Long idUsuario = obterIdUsuario(request);
+		if (idUsuario != null && escritasRecentes.getIfPresent(idUsuario) != null) {
+			RoteamentoContexto.exigirPrimario();
+		}
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		Long idUsuario = obterIdUsuario(request);
+		if (idUsuario != null && ex == null && response.getStatus() < 400 && isEscrita(request)) {
+			escritasRecentes.put(idUsuario, Boolean.TRUE);
+		}
+		RoteamentoContexto.limpar();
+	}
+
+//	A thread do servlet é liberada nas respostas assincronas, a tarefa ja levou a marcação pelo RoteamentoContexto.propagar.
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		RoteamentoContexto.limpar();
+	}
+
+	private boolean isEscrita(HttpServletRequest request) {
+		return HttpMethod.POST.matches(request.getMethod()) || HttpMethod.PUT.matches(request.getMethod())
+				|| HttpMethod.DELETE.matches(request.getMethod()) || HttpMethod.PATCH.matches(request.getMethod());
+	}
+
+	private Long obterIdUsuario(HttpServletRequest request) {
+		return (Long) request.getAttribute(TokenAutenticacaoFilter.ID_USUARIO);
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.renatom.minhasfinancas.roteamento;
+
+// Marca a thread atual para ler do primario mesmo em transações somente leitura, usado para que o usuario
+// leia as proprias escritas enquanto as replicas ainda podem estar atrasadas.
+public final class RoteamentoContexto {
+
+	private static final ThreadLocal<Boolean> PRIMARIO = new ThreadLocal<>();
+
+	private RoteamentoContexto() {
+	}
+
+	public static void exigirPrimario() {
+		PRIMARIO.set(Boolean.TRUE);
+	}
+
+	public static boolean isPrimarioExigido() {
+		return Boolean.TRUE.equals(PRIMARIO.get());
+	}
+
+	public static void limpar() {
+		PRIMARIO.remove();
+	}
+
+//	TaskDecorator dos executores: a tarefa roda com a marcação da thread que a criou, como as consultas em /api/async.
+	public static Runnable propagar(Runnable tarefa) {
+		boolean primario = isPrimarioExigido();
+		return () -> {
+			if (primario) {
+				exigirPrimario();
+			}
+			try {
+				tarefa.run();
+			} finally {
+				limpar();
+			}
+		};
+	}
+
+}
@@ -0,0 +1,148 @@
+package com.renatom.minhasfinancas.roteamento;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.renatom.minhasfinancas.execucao.DataSourceAgrupado;
+
+// Envia as transações somente leitura (@Transactional(readOnly = true)) para as replicas, em round-robin entre as
+// saudaveis, e todo o resto para o primario: escritas, codigo fora de transação e as leituras marcadas pelo RoteamentoContexto.
+// Uma replica que falha ao entregar uma conexao sai do rodizio ate a proxima verificação e a leitura vai para o primario.
+// A escolha acontece na obtenção da conexao, por isso o RoteamentoTransactionManager publica o readOnly antes dela.
+public class RoteamentoDataSource extends AbstractDataSource implements DataSourceAgrupado, AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RoteamentoDataSource.class);
+
+	private static final int TIMEOUT_VERIFICACAO_SEGUNDOS = 2;
+
+	private DataSource primario;
+
+	private final List<Replica> replicas = new ArrayList<>();
+
+	private final AtomicInteger proxima = new AtomicInteger();
+
+	public RoteamentoDataSource(DataSource primario, Map<String, DataSource> replicas) {
+		this.primario = primario;
+		replicas.forEach((nome, dataSource) -> this.replicas.add(new Replica(nome, dataSource)));
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return obterConexao(DataSource::getConnection);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return obterConexao(dataSource -> dataSource.getConnection(username, password));
+	}
+
+	@Override
+	public void envolverPools(UnaryOperator<DataSource> envoltorio) {
+		primario = envoltorio.apply(primario);
+		replicas.forEach(replica -> replica.dataSource = envoltorio.apply(replica.dataSource));
+	}
+
+//	Chamado periodicamente pelo VerificacaoReplicasJob, uma replica volta ao rodizio assim que responder de novo.
+	public void verificarReplicas() {
+		for (Replica replica : replicas) {
+			boolean saudavel;
+			try (Connection conexao = replica.dataSource.getConnection()) {
+				saudavel = conexao.isValid(TIMEOUT_VERIFICACAO_SEGUNDOS);
+			} catch (SQLException e) {
+				saudavel = false;
+			}
+
+			if (saudavel != replica.saudavel) {
+				LOG.info("Replica {} {}.", replica.nome, saudavel ? "voltou ao rodizio" : "retirada do rodizio");
+			}
+			replica.saudavel = saudavel;
+		}
+	}
+
+	public List<String> getReplicasSaudaveis() {
+		List<String> saudaveis = new ArrayList<>();
+		replicas.stream().filter(replica -> replica.saudavel).forEach(replica -> saudaveis.add(replica.nome));
+		return saudaveis;
+	}
+
+//	Fecha os pools do primario e das replicas junto com o contexto.
+	@Override
+	public void close() throws Exception {
+		for (Replica replica : replicas) {
+			fechar(replica.dataSource);
+		}
+		fechar(primario);
+	}
+
+//	Null quando a conexao deve vir do primario.
+	private Replica escolherReplica() {
+		if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+				|| RoteamentoContexto.isPrimarioExigido()) {
+			return null;
+		}
+
+		int inicio = Math.floorMod(proxima.getAndIncrement(), replicas.size());
+		for (int i = 0; i < replicas.size(); i++) {
+			Replica replica = replicas.get((inicio + i) % replicas.size());
+			if (replica.saudavel) {
+				return replica;
+			}
+		}
+		return null;
+	}
+
+//	Mesma escolha para os dois getConnection, a conexao com usuario e senha vem do pool escolhido.
+	private Connection obterConexao(FonteConexao fonte) throws SQLException {
+		Replica replica = escolherReplica();
+		if (replica == null) {
+			return fonte.obter(primario);
+		}
+
+		try {
+			return fonte.obter(replica.dataSource);
+		} catch (SQLException e) {
+			replica.saudavel = false;
+			LOG.warn("Replica {} indisponível, leitura enviada ao primario: {}", replica.nome, e.getMessage());
+			return fonte.obter(primario);
+		}
+	}
+
+	private void fechar(DataSource dataSource) throws Exception {
+		if (dataSource instanceof AutoCloseable) {
+			((AutoCloseable) dataSource).close();
+		}
+	}
+
+	@FunctionalInterface
+	private interface FonteConexao {
+		Connection obter(DataSource dataSource) throws SQLException;
+	}
+
+	private static class Replica {
+
+		private final String nome;
+
+		private DataSource dataSource;
+
+		private volatile boolean saudavel = true;
+
+		Replica(String nome, DataSource dataSource) {
+			this.nome = nome;
+			this.dataSource = dataSource;
+		}
+
+	}
+
+}
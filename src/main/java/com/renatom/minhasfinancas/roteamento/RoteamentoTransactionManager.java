@@ -0,0 +1,29 @@
+package com.renatom.minhasfinancas.roteamento;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// O JpaTransactionManager obtem a conexao no doBegin e so depois marca a transação como somente leitura,
+// entao o RoteamentoDataSource nao saberia que a transação é de leitura. Aqui o readOnly é publicado antes.
+public class RoteamentoTransactionManager extends JpaTransactionManager {
+
+	public RoteamentoTransactionManager(EntityManagerFactory entityManagerFactory) {
+		super(entityManagerFactory);
+	}
+
+	@Override
+	protected void doBegin(Object transaction, TransactionDefinition definition) {
+		boolean anterior = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(definition.isReadOnly());
+		try {
+			super.doBegin(transaction, definition);
+		} catch (RuntimeException | Error e) {
+			TransactionSynchronizationManager.setCurrentTransactionReadOnly(anterior);
+			throw e;
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.renatom.minhasfinancas.seguranca;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.renatom.minhasfinancas.exception.ErroAutenticacao;
+import com.renatom.minhasfinancas.metricas.MetricasExcecoes;
+import com.renatom.minhasfinancas.service.TokenService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Exige o token gerado em /api/usuarios/auth (header Authorization: Bearer <token>) nos endpoints de lancamento,
+// de saldo e de resumo (inclusive as versões assincronas em /api/async) e nas estatisticas de /api/cache, e coloca o id do usuario do token no atributo ID_USUARIO da requisição.
+// Os controllers confiam nesse id, sem buscar o usuario no banco a cada requisição.
+@Component
+public class TokenAutenticacaoFilter extends OncePerRequestFilter {
+
+	public static final String ID_USUARIO = "idUsuario";
+
+	private static final String PREFIXO = "Bearer ";
+
+	private static final Pattern PROTEGIDOS = Pattern.compile("^/api/(async/)?(lancamentos(/.*)?|usuarios/[^/]+/(saldo|resumo)(/.*)?)$|^/api/cache(/.*)?$");
+
+	private TokenService tokenService;
+
+	private ObjectProvider<MeterRegistry> registry;
+
+	public TokenAutenticacaoFilter(TokenService tokenService, ObjectProvider<MeterRegistry> registry) {
+		this.tokenService = tokenService;
+		this.registry = registry;
+	}
+
+//	Cadastro, autenticação, actuator e preflight de CORS continuam sem token.
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+			return true;
+		}
+		String caminho = request.getRequestURI().substring(request.getContextPath().length());
+		return !PROTEGIDOS.matcher(caminho).matches();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String autorizacao = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (autorizacao == null || !autorizacao.startsWith(PREFIXO)) {
+			recusar(response, "Informe o token de acesso.");
+			return;
+		}
+
+		try {
+			Long idUsuario = tokenService.obterIdUsuario(autorizacao.substring(PREFIXO.length()).trim());
+			request.setAttribute(ID_USUARIO, idUsuario);
+		} catch (ErroAutenticacao e) {
+//			O token invalido é recusado aqui, antes do TratamentoExcecoesAdvice, por isso a contagem tambem é feita aqui.
+			MetricasExcecoes.contar(registry, e);
+			recusar(response, e.getMessage());
+			return;
+		}
+
+		chain.doFilter(request, response);
+	}
+
+	private void recusar(HttpServletResponse response, String mensagem) throws IOException {
+		response.setStatus(HttpStatus.UNAUTHORIZED.value());
+		response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.getWriter().write(mensagem);
+	}
+
+}
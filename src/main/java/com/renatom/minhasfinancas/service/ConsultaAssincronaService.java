@@ -0,0 +1,22 @@
+package com.renatom.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+
+public interface ConsultaAssincronaService {
+
+	CompletableFuture<List<LancamentoDTO>> consultar(Lancamento lancamentoFiltro);
+
+	CompletableFuture<PaginaCursorDTO<LancamentoDTO>> buscarPagina(Lancamento lancamentoFiltro, String cursor, int limite);
+
+	CompletableFuture<Optional<LancamentoDTO>> consultarPorId(Long id);
+
+	CompletableFuture<BigDecimal> obterSaldoPorUsuario(Long idUsuario);
+
+}
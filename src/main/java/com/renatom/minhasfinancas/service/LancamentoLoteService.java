@@ -0,0 +1,11 @@
+package com.renatom.minhasfinancas.service;
+
+import java.io.InputStream;
+
+import com.renatom.minhasfinancas.dto.ResultadoLoteDTO;
+
+public interface LancamentoLoteService {
+
+	ResultadoLoteDTO importar(Long idUsuario, InputStream json);
+
+}
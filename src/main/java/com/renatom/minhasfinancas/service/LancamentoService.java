@@ -3,7 +3,11 @@ package com.renatom.minhasfinancas.service;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
+import com.renatom.minhasfinancas.dto.SaldoDetalhadoDTO;
 import com.renatom.minhasfinancas.model.entity.Lancamento;
 import com.renatom.minhasfinancas.model.enums.StatusLancamento;
 
@@ -18,12 +22,28 @@ public interface LancamentoService {
 	
 	List<Lancamento> buscar(Lancamento lancamentoFiltro);
 	
-	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
+	List<LancamentoDTO> consultar(Lancamento lancamentoFiltro);
+	
+	PaginaCursorDTO<LancamentoDTO> buscarPagina(Lancamento lancamentoFiltro, String cursor, int limite);
+	
+	void exportar(Lancamento lancamentoFiltro, Consumer<LancamentoDTO> consumidor);
+	
+	Lancamento atualizarStatus(Lancamento lancamento, StatusLancamento status);
+	
+	int atualizarStatusEmLote(Lancamento lancamentoFiltro, List<Long> ids, StatusLancamento status);
+	
+	int deletarEmLote(Lancamento lancamentoFiltro, List<Long> ids);
 	
 	void validar(Lancamento lancamento);
 	
 	Optional<Lancamento> buscarPorId(Long id);
 	
+	Optional<LancamentoDTO> consultarPorId(Long id);
+	
 	BigDecimal obterSaldoPorUsuario(Long id);
+	
+	Long obterVersaoPorUsuario(Long idUsuario);
+	
+	SaldoDetalhadoDTO obterSaldoDetalhado(Long idUsuario, Integer ano);
 
 }
@@ -0,0 +1,22 @@
+package com.renatom.minhasfinancas.service;
+
+import java.util.List;
+
+import com.renatom.minhasfinancas.dto.ResultadoPesquisaDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+
+public interface PesquisaLancamentoService {
+
+	void indexar(Lancamento lancamento);
+	
+	void indexarNovos(List<Lancamento> lancamentos);
+
+	void removerIndice(Long idLancamento);
+
+	List<ResultadoPesquisaDTO> pesquisar(Long idUsuario, String termo, int limite);
+
+	Long obterUltimoIdLancamento();
+
+	Long indexarPendentes(Long aposId, Long ateId, int quantidade);
+
+}
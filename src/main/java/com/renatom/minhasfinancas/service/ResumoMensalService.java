@@ -0,0 +1,27 @@
+package com.renatom.minhasfinancas.service;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+import com.renatom.minhasfinancas.dto.ResumoMensalDTO;
+import com.renatom.minhasfinancas.dto.SaldoHistoricoDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+
+public interface ResumoMensalService {
+
+	void adicionar(Lancamento lancamento);
+
+	void adicionar(Collection<Lancamento> lancamentos);
+
+	void remover(Lancamento lancamento);
+
+	void substituir(Lancamento anterior, Lancamento atual);
+
+	void recalcular(Long idUsuario);
+
+	List<ResumoMensalDTO> obterResumo(Long idUsuario, Integer ano);
+
+	List<SaldoHistoricoDTO> obterSaldoHistorico(Long idUsuario, YearMonth de, YearMonth ate);
+
+}
@@ -0,0 +1,19 @@
+package com.renatom.minhasfinancas.service;
+
+import java.math.BigDecimal;
+
+public interface SaldoUsuarioService {
+
+	BigDecimal obterSaldo(Long idUsuario);
+
+	void atualizarSaldo(Long idUsuario, BigDecimal variacao);
+
+	BigDecimal recalcularSaldo(Long idUsuario);
+
+	void registrarAlteracao(Long idUsuario);
+
+	Long obterVersao(Long idUsuario);
+
+	void reconciliar();
+
+}
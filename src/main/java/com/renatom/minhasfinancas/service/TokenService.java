@@ -0,0 +1,11 @@
+package com.renatom.minhasfinancas.service;
+
+import com.renatom.minhasfinancas.model.entity.Usuario;
+
+public interface TokenService {
+
+	String gerarToken(Usuario usuario);
+
+	Long obterIdUsuario(String token);
+
+}
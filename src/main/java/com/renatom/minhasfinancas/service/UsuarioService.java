@@ -10,7 +10,5 @@ public interface UsuarioService {
 	
 	Usuario salvarUsuario(Usuario usuario);
 	
-	void validarEmail(String email);
-	
 	Optional<Usuario> obterPorId(Long id);
 }
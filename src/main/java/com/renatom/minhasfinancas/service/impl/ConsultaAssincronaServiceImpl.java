@@ -0,0 +1,54 @@
+package com.renatom.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.service.ConsultaAssincronaService;
+import com.renatom.minhasfinancas.service.LancamentoService;
+
+// Executa as leituras do LancamentoService no executorConsultas, que tem o tamanho do pool de conexoes.
+// A thread do Tomcat é liberada assim que a consulta é agendada e a resposta é escrita quando o CompletableFuture termina,
+// entao um pico de requisições lentas fica na fila do executor e nao ocupa todas as threads do servidor.
+@Service
+public class ConsultaAssincronaServiceImpl implements ConsultaAssincronaService {
+
+	private LancamentoService lancamentoService;
+
+	private Executor executor;
+
+	public ConsultaAssincronaServiceImpl(LancamentoService lancamentoService,
+			@Qualifier("executorConsultas") Executor executor) {
+		this.lancamentoService = lancamentoService;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<List<LancamentoDTO>> consultar(Lancamento lancamentoFiltro) {
+		return CompletableFuture.supplyAsync(() -> lancamentoService.consultar(lancamentoFiltro), executor);
+	}
+
+	@Override
+	public CompletableFuture<PaginaCursorDTO<LancamentoDTO>> buscarPagina(Lancamento lancamentoFiltro, String cursor, int limite) {
+		return CompletableFuture.supplyAsync(() -> lancamentoService.buscarPagina(lancamentoFiltro, cursor, limite), executor);
+	}
+
+	@Override
+	public CompletableFuture<Optional<LancamentoDTO>> consultarPorId(Long id) {
+		return CompletableFuture.supplyAsync(() -> lancamentoService.consultarPorId(id), executor);
+	}
+
+	@Override
+	public CompletableFuture<BigDecimal> obterSaldoPorUsuario(Long idUsuario) {
+		return CompletableFuture.supplyAsync(() -> lancamentoService.obterSaldoPorUsuario(idUsuario), executor);
+	}
+
+}
@@ -0,0 +1,190 @@
+package com.renatom.minhasfinancas.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renatom.minhasfinancas.dto.ItemLoteDTO;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.ResultadoLoteDTO;
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.service.LancamentoLoteService;
+import com.renatom.minhasfinancas.service.LancamentoService;
+import com.renatom.minhasfinancas.service.PesquisaLancamentoService;
+import com.renatom.minhasfinancas.service.ResumoMensalService;
+import com.renatom.minhasfinancas.service.SaldoUsuarioService;
+
+@Service
+public class LancamentoLoteServiceImpl implements LancamentoLoteService {
+
+//	Quantidade de itens gravados por transação, cada transação envia os inserts em batches de hibernate.jdbc.batch_size
+	private static final int ITENS_POR_TRANSACAO = 1000;
+
+	private LancamentoRepository repository;
+
+	private LancamentoService lancamentoService;
+
+	private SaldoUsuarioService saldoService;
+
+	private PesquisaLancamentoService pesquisaService;
+
+	private ResumoMensalService resumoService;
+
+	private TransactionTemplate transactionTemplate;
+
+	private ObjectMapper objectMapper;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public LancamentoLoteServiceImpl(LancamentoRepository repository, LancamentoService lancamentoService,
+			SaldoUsuarioService saldoService, PesquisaLancamentoService pesquisaService, ResumoMensalService resumoService,
+			TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+		this.repository = repository;
+		this.lancamentoService = lancamentoService;
+		this.saldoService = saldoService;
+		this.pesquisaService = pesquisaService;
+		this.resumoService = resumoService;
+		this.transactionTemplate = transactionTemplate;
+		this.objectMapper = objectMapper;
+	}
+
+//	Le o array JSON item a item, sem montar a lista inteira em memoria, e grava a cada ITENS_POR_TRANSACAO itens.
+//	Todos os lancamentos sao do usuario autenticado, que ja foi validado pelo token.
+//	Um item que nao é objeto ou um JSON invalido no meio do array interrompe a leitura: os itens anteriores sao gravados
+//	e o resultado informa o indiceErro, ja que os lotes anteriores podem ter sido confirmados.
+	@Override
+	public ResultadoLoteDTO importar(Long idUsuario, InputStream json) {
+		List<ItemLoteDTO> itens = new ArrayList<>();
+		Usuario usuario = Usuario.builder().id(idUsuario).build();
+		List<Lancamento> pendentes = new ArrayList<>();
+		List<ItemLoteDTO> itensPendentes = new ArrayList<>();
+		String erro = null;
+
+		try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new RegraNegocioException("Envie um array JSON de lançamentos.");
+			}
+
+			for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+				if (token != JsonToken.START_OBJECT) {
+					erro = "O item " + itens.size() + " não é um objeto de lançamento.";
+					break;
+				}
+
+				LancamentoDTO dto = objectMapper.readValue(parser, LancamentoDTO.class);
+				ItemLoteDTO item = ItemLoteDTO.builder().indice(itens.size()).build();
+				itens.add(item);
+
+				try {
+					Lancamento lancamento = converterLancamento(dto, usuario);
+					lancamentoService.validar(lancamento);
+					lancamento.setStatus(StatusLancamento.PENDENTE);
+					pendentes.add(lancamento);
+					itensPendentes.add(item);
+				} catch (RegraNegocioException | IllegalArgumentException e) {
+					item.setSucesso(false);
+					item.setMensagem(e.getMessage());
+				}
+
+				if (pendentes.size() == ITENS_POR_TRANSACAO) {
+					gravar(pendentes, itensPendentes);
+					pendentes.clear();
+					itensPendentes.clear();
+				}
+			}
+		} catch (IOException e) {
+			erro = "Não foi possivel ler o item " + itens.size() + " do JSON enviado: " + e.getMessage();
+		}
+		gravar(pendentes, itensPendentes);
+
+		int sucessos = (int) itens.stream().filter(ItemLoteDTO::getSucesso).count();
+		return ResultadoLoteDTO.builder()
+				.total(itens.size())
+				.sucessos(sucessos)
+				.falhas(itens.size() - sucessos)
+				.itens(itens)
+				.indiceErro(erro == null ? null : itens.size())
+				.erro(erro)
+				.build();
+	}
+
+//	Grava os lancamentos ja validados em uma unica transação, atualizando o saldo uma vez por usuario, o resumo mensal
+//	uma vez por linha e o indice de pesquisa.
+//	Se a transação falhar todos os itens dela sao marcados com o erro.
+	private void gravar(List<Lancamento> lancamentos, List<ItemLoteDTO> itens) {
+		if (lancamentos.isEmpty()) {
+			return;
+		}
+
+		try {
+			transactionTemplate.execute(status -> {
+				repository.saveAll(lancamentos);
+
+				Map<Long, BigDecimal> variacoes = new HashMap<>();
+				for (Lancamento lancamento : lancamentos) {
+					BigDecimal impacto = lancamento.getTipo() == TipoLancamento.RECEITA ? lancamento.getValor() : lancamento.getValor().negate();
+					variacoes.merge(lancamento.getUsuario().getId(), impacto, BigDecimal::add);
+				}
+				pesquisaService.indexarNovos(lancamentos);
+				repository.flush();
+				variacoes.forEach(saldoService::atualizarSaldo);
+				resumoService.adicionar(lancamentos);
+
+//				Libera as entidades do contexto de persistencia para a memoria nao crescer com o tamanho do arquivo
+				entityManager.clear();
+				return null;
+			});
+
+			for (int i = 0; i < lancamentos.size(); i++) {
+				itens.get(i).setId(lancamentos.get(i).getId());
+				itens.get(i).setSucesso(true);
+			}
+		} catch (RuntimeException e) {
+			itens.forEach(item -> {
+				item.setId(null);
+				item.setSucesso(false);
+				item.setMensagem("Erro ao gravar o lote: " + e.getMessage());
+			});
+		}
+	}
+
+//	Mesma conversão do LancamentoController, um item com o usuario de outra pessoa é recusado.
+	private Lancamento converterLancamento(LancamentoDTO dto, Usuario usuario) {
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao(dto.getDescricao());
+		lancamento.setAno(dto.getAno());
+		lancamento.setMes(dto.getMes());
+		lancamento.setValor(dto.getValor());
+
+		if (dto.getUsuario() != null && !dto.getUsuario().equals(usuario.getId())) {
+			throw new RegraNegocioException("Lançamento de outro usuário.");
+		}
+		lancamento.setUsuario(usuario);
+
+		if (dto.getTipo() != null) {
+			lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+		}
+
+		return lancamento;
+	}
+
+}
@@ -4,52 +4,134 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.ExampleMatcher.StringMatcher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.renatom.minhasfinancas.colunar.MotorColunarLancamentos;
+import com.renatom.minhasfinancas.dto.CursorLancamento;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
+import com.renatom.minhasfinancas.dto.SaldoDetalhadoDTO;
+import com.renatom.minhasfinancas.dto.SaldoMensalDTO;
 import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.exception.VersaoConflitanteException;
+import com.renatom.minhasfinancas.gravacao.GravacaoAgrupadaLancamentos;
 import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
 import com.renatom.minhasfinancas.model.enums.StatusLancamento;
 import com.renatom.minhasfinancas.model.enums.TipoLancamento;
 import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
 import com.renatom.minhasfinancas.service.LancamentoService;
+import com.renatom.minhasfinancas.service.PesquisaLancamentoService;
+import com.renatom.minhasfinancas.service.ResumoMensalService;
+import com.renatom.minhasfinancas.service.SaldoUsuarioService;
 
 @Service
 public class LancamentoServiceImpl implements LancamentoService {
 	
+	private static final int LIMITE_MAXIMO_PAGINA = 1000;
+	
 	private LancamentoRepository repository;
 	
-	public LancamentoServiceImpl(LancamentoRepository repository) {
+	private SaldoUsuarioService saldoService;
+	
+	private PesquisaLancamentoService pesquisaService;
+	
+	private ResumoMensalService resumoService;
+	
+	private TransactionTemplate transactionTemplate;
+	
+//	Presente somente com financas.gravacao.agrupada=true
+	private GravacaoAgrupadaLancamentos gravacaoAgrupada;
+	
+//	Presente somente com financas.colunar.habilitado=true
+	private MotorColunarLancamentos motorColunar;
+	
+	public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioService saldoService,
+			PesquisaLancamentoService pesquisaService, ResumoMensalService resumoService,
+			TransactionTemplate transactionTemplate, Optional<GravacaoAgrupadaLancamentos> gravacaoAgrupada,
+			Optional<MotorColunarLancamentos> motorColunar) {
 		this.repository = repository;
+		this.saldoService = saldoService;
+		this.pesquisaService = pesquisaService;
+		this.resumoService = resumoService;
+		this.transactionTemplate = transactionTemplate;
+		this.gravacaoAgrupada = gravacaoAgrupada.orElse(null);
+		this.motorColunar = motorColunar.orElse(null);
 	}
 
+//	Na gravação agrupada o lancamento ja validado vai para a fila do GravacaoAgrupadaLancamentos e a requisição espera o
+//	commit do lote. Por isso o metodo nao é @Transactional: a espera nao pode segurar uma conexao do pool.
+//	O lote incrementa a versao do usuario uma unica vez, por isso nao é aplicado no motor colunar, que recarrega o usuario.
 	@Override
-	@Transactional
 	public Lancamento salvar(Lancamento lancamento) {
 		validar(lancamento);
 		lancamento.setStatus(StatusLancamento.PENDENTE);
-		return repository.save(lancamento);
+		if (gravacaoAgrupada != null) {
+			return gravacaoAgrupada.gravar(lancamento);
+		}
+		Lancamento salvo = transactionTemplate.execute(status -> gravar(lancamento));
+		registrarGravacaoColunar(salvo);
+		return salvo;
 	}
 
+	private Lancamento gravar(Lancamento lancamento) {
+		Lancamento salvo = repository.save(lancamento);
+		atualizarSaldo(obterIdUsuario(lancamento), calcularImpactoNoSaldo(lancamento));
+		resumoService.adicionar(salvo);
+		indexarDescricao(salvo);
+		return salvo;
+	}
+
+//	A versao do lancamento recebido é a esperada pelo cliente (If-Match), quando nula vale a versao lida do banco.
+//	A gravação é um unico UPDATE condicionado a versao, sem merge, e um conflito lança VersaoConflitanteException.
 	@Override
 	@Transactional
 	public Lancamento atualizar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
 		validar(lancamento);
 		
-		return repository.save(lancamento);
+//		A projeção do lancamento como esta no banco é necessaria para a variação do saldo e do resumo.
+		Lancamento anterior = obterAnterior(lancamento);
+		if (lancamento.getStatus() == null) {
+			lancamento.setStatus(anterior.getStatus());
+		}
+		
+		Long versao = anterior.getVersao();
+		int alterados = repository.atualizarSeVersao(lancamento.getId(), obterIdUsuario(lancamento), versao,
+				lancamento.getDescricao(), lancamento.getMes(), lancamento.getAno(), lancamento.getValor(),
+				lancamento.getTipo(), lancamento.getStatus());
+		confirmarAlteracao(alterados);
+		lancamento.setVersao(versao + 1);
+		
+		atualizarSaldo(obterIdUsuario(lancamento), calcularImpactoNoSaldo(lancamento).subtract(calcularImpactoNoSaldo(anterior)));
+		resumoService.substituir(anterior, lancamento);
+		
+		if (!Objects.equals(anterior.getDescricao(), lancamento.getDescricao())) {
+			indexarDescricao(lancamento);
+		}
+		
+		registrarGravacaoColunar(lancamento);
+		return lancamento;
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
+		pesquisaService.removerIndice(lancamento.getId());
 		repository.delete(lancamento);
-		
+		atualizarSaldo(obterIdUsuario(lancamento), calcularImpactoNoSaldo(lancamento).negate());
+		resumoService.remover(lancamento);
+		if (motorColunar != null) {
+			motorColunar.registrarExclusao(lancamento);
+		}
 	}
 
 	@Override
@@ -66,12 +148,138 @@ public class LancamentoServiceImpl implements LancamentoService {
 //		Ira retornar todos os lancamentos que se encaixam nessa busca.
 		return repository.findAll(example);
 	}
+	
+//	Mesmos filtros do buscar, porem retorna a projeção LancamentoDTO e nao carrega o Usuario de cada lancamento.
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoDTO> consultar(Lancamento lancamentoFiltro) {
+		if (motorColunar != null) {
+			return motorColunar.consultar(lancamentoFiltro);
+		}
+		return repository.consultar(lancamentoFiltro);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaCursorDTO<LancamentoDTO> buscarPagina(Lancamento lancamentoFiltro, String cursor, int limite) {
+		if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+			throw new RegraNegocioException("Informe um limite entre 1 e " + LIMITE_MAXIMO_PAGINA + ".");
+		}
+		
+		CursorLancamento posicao = cursor == null ? null : CursorLancamento.decodificar(cursor);
+		
+//		Busca uma linha a mais que o limite apenas para saber se existe uma proxima pagina.
+		List<LancamentoDTO> lancamentos = repository.buscarAposCursor(lancamentoFiltro, posicao, limite + 1);
+		String proximoCursor = null;
+		if (lancamentos.size() > limite) {
+			lancamentos = lancamentos.subList(0, limite);
+			proximoCursor = CursorLancamento.de(lancamentos.get(limite - 1)).codificar();
+		}
+		
+		return PaginaCursorDTO.<LancamentoDTO>builder()
+				.itens(lancamentos)
+				.proximoCursor(proximoCursor)
+				.build();
+	}
+
+//	A transação precisa ficar aberta enquanto o consumidor escreve as linhas, por isso o metodo recebe o consumidor.
+	@Override
+	@Transactional(readOnly = true)
+	public void exportar(Lancamento lancamentoFiltro, Consumer<LancamentoDTO> consumidor) {
+		repository.percorrer(lancamentoFiltro, consumidor);
+	}
+
+//	Do lancamento recebido sao usados somente o id, o usuario e a versao esperada, o restante vem do banco.
+//	O status nao altera o saldo, mas move o valor entre as linhas do resumo mensal.
+	@Override
+	@Transactional
+	public Lancamento atualizarStatus(Lancamento lancamento, StatusLancamento status) {
+		Objects.requireNonNull(lancamento.getId());
+		Lancamento anterior = obterAnterior(lancamento);
+		
+		int alterados = repository.atualizarStatusSeVersao(lancamento.getId(), obterIdUsuario(lancamento),
+				anterior.getVersao(), status);
+		confirmarAlteracao(alterados);
+		
+		Lancamento atualizado = anterior.toBuilder().status(status).versao(anterior.getVersao() + 1).build();
+		saldoService.registrarAlteracao(obterIdUsuario(lancamento));
+		resumoService.substituir(anterior, atualizado);
+		registrarGravacaoColunar(atualizado);
+		return atualizado;
+	}
+	
+//	Le a projeção do lancamento, sem carregar a entidade, e confere o usuario e a versao esperada antes do UPDATE,
+//	evitando o round trip quando a versao do If-Match ja esta desatualizada.
+	private Lancamento obterAnterior(Lancamento lancamento) {
+		Lancamento anterior = repository.consultarPorId(lancamento.getId())
+				.filter(dto -> Objects.equals(dto.getUsuario(), obterIdUsuario(lancamento)))
+				.map(this::converterProjecao)
+				.orElseThrow(() -> new RegraNegocioException("Lançamento não encontrado na base de Dados."));
+		
+		if (lancamento.getVersao() != null && !lancamento.getVersao().equals(anterior.getVersao())) {
+			throw new VersaoConflitanteException("O lançamento foi alterado por outra requisição, consulte a versão atual.");
+		}
+		return anterior;
+	}
+	
+//	Nenhuma linha alterada depois da leitura significa que outra escrita mudou a versao entre a leitura e o UPDATE.
+	private void confirmarAlteracao(int alterados) {
+		if (alterados == 0) {
+			throw new VersaoConflitanteException("O lançamento foi alterado por outra requisição, consulte a versão atual.");
+		}
+	}
+	
+	private Lancamento converterProjecao(LancamentoDTO dto) {
+		return Lancamento.builder()
+				.id(dto.getId())
+				.descricao(dto.getDescricao())
+				.mes(dto.getMes())
+				.ano(dto.getAno())
+				.usuario(Usuario.builder().id(dto.getUsuario()).build())
+				.valor(dto.getValor())
+				.tipo(dto.getTipo() == null ? null : TipoLancamento.valueOf(dto.getTipo()))
+				.status(dto.getStatus() == null ? null : StatusLancamento.valueOf(dto.getStatus()))
+				.versao(dto.getVersao())
+				.build();
+	}
 
+//	Altera o status de todos os lancamentos do filtro com um unico UPDATE. O status nao altera o saldo,
+//	mas move os valores entre as linhas do resumo mensal, que é refeito para o usuario.
 	@Override
-	public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
-		lancamento.setStatus(status);
-		atualizar(lancamento);
+	@Transactional
+	public int atualizarStatusEmLote(Lancamento lancamentoFiltro, List<Long> ids, StatusLancamento status) {
+		validarFiltroLote(lancamentoFiltro, ids);
+		int alterados = repository.atualizarStatusEmLote(lancamentoFiltro, ids, status);
+		if (alterados > 0) {
+			saldoService.registrarAlteracao(obterIdUsuario(lancamentoFiltro));
+			resumoService.recalcular(obterIdUsuario(lancamentoFiltro));
+		}
+		return alterados;
+	}
+
+//	Exclui todos os lancamentos do filtro com um unico DELETE, descontando do saldo a soma do que foi excluido.
+	@Override
+	@Transactional
+	public int deletarEmLote(Lancamento lancamentoFiltro, List<Long> ids) {
+		validarFiltroLote(lancamentoFiltro, ids);
+		BigDecimal impacto = repository.somarImpactoNoSaldo(lancamentoFiltro, ids);
+		int excluidos = repository.deletarEmLote(lancamentoFiltro, ids);
+		if (excluidos > 0) {
+			atualizarSaldo(obterIdUsuario(lancamentoFiltro), impacto.negate());
+			resumoService.recalcular(obterIdUsuario(lancamentoFiltro));
+		}
+		return excluidos;
+	}
+
+//	Evita que uma operação em lote sem filtro altere todos os lancamentos do usuario.
+	private void validarFiltroLote(Lancamento lancamentoFiltro, List<Long> ids) {
+		if (obterIdUsuario(lancamentoFiltro) == null) {
+			throw new RegraNegocioException("Informe um Usuário.");
+		}
 		
+		if ((ids == null || ids.isEmpty()) && lancamentoFiltro.getAno() == null) {
+			throw new RegraNegocioException("Informe os ids ou o ano dos lançamentos.");
+		}
 	}
 
 	@Override
@@ -109,21 +317,78 @@ public class LancamentoServiceImpl implements LancamentoService {
 		return repository.findById(id);
 	}
 
-//	Capturando a soma das receitas e despesas para realizar a subtração 
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<LancamentoDTO> consultarPorId(Long id) {
+		return repository.consultarPorId(id);
+	}
+
+//	O saldo é lido do snapshot mantido pelas escritas, ver SaldoUsuarioService.
 	@Override
 	public BigDecimal obterSaldoPorUsuario(Long id) {
-		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.RECEITA);
-		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.DESPESA);
+		return saldoService.obterSaldo(id);
+	}
+	
+//	Versao incrementada por todas as escritas acima, mantida junto do snapshot de saldo.
+	@Override
+	public Long obterVersaoPorUsuario(Long idUsuario) {
+		return saldoService.obterVersao(idUsuario);
+	}
+	
+//	Uma unica consulta agrupada por mes e status traz receitas e despesas, os totais do ano sao somados em memoria.
+	@Override
+	@Transactional(readOnly = true)
+	public SaldoDetalhadoDTO obterSaldoDetalhado(Long idUsuario, Integer ano) {
+		List<SaldoMensalDTO> meses = motorColunar != null ? motorColunar.obterSaldoMensal(idUsuario, ano)
+				: repository.obterSaldoMensalPorUsuarioEAno(idUsuario, ano, TipoLancamento.RECEITA, TipoLancamento.DESPESA);
 		
-		if (receitas == null) {
-			receitas = BigDecimal.ZERO;
+		BigDecimal receitas = BigDecimal.ZERO;
+		BigDecimal despesas = BigDecimal.ZERO;
+		for (SaldoMensalDTO mes : meses) {
+			receitas = receitas.add(mes.getReceitas());
+			despesas = despesas.add(mes.getDespesas());
 		}
 		
-		if (despesas == null) {
-			despesas = BigDecimal.ZERO;
+		return SaldoDetalhadoDTO.builder()
+				.usuario(idUsuario)
+				.ano(ano)
+				.receitas(receitas)
+				.despesas(despesas)
+				.saldo(receitas.subtract(despesas))
+				.meses(meses)
+				.build();
+	}
+	
+	private void atualizarSaldo(Long idUsuario, BigDecimal variacao) {
+		if (idUsuario != null) {
+			saldoService.atualizarSaldo(idUsuario, variacao);
 		}
-
-		return receitas.subtract(despesas);
+	}
+	
+//	Escritas de um unico lancamento, que incrementam a versao do usuario em um como o motor colunar.
+//	As escritas em lote nao passam por aqui, o motor detecta a versao diferente e recarrega o usuario.
+	private void registrarGravacaoColunar(Lancamento lancamento) {
+		if (motorColunar != null) {
+			motorColunar.registrarGravacao(lancamento);
+		}
+	}
+	
+	private void indexarDescricao(Lancamento lancamento) {
+		if (lancamento != null && lancamento.getId() != null && obterIdUsuario(lancamento) != null) {
+			pesquisaService.indexar(lancamento);
+		}
+	}
+	
+	private Long obterIdUsuario(Lancamento lancamento) {
+		return lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+	}
+	
+//	Receitas somam no saldo e despesas subtraem, o status nao altera o saldo.
+	private BigDecimal calcularImpactoNoSaldo(Lancamento lancamento) {
+		if (lancamento.getValor() == null || lancamento.getTipo() == null) {
+			return BigDecimal.ZERO;
+		}
+		return lancamento.getTipo() == TipoLancamento.RECEITA ? lancamento.getValor() : lancamento.getValor().negate();
 	}
 
 	
@@ -0,0 +1,177 @@
+package com.renatom.minhasfinancas.service.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.ResultadoPesquisaDTO;
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.TrigramaLancamento;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.model.repository.TrigramaLancamentoRepository;
+import com.renatom.minhasfinancas.service.PesquisaLancamentoService;
+
+@Service
+public class PesquisaLancamentoServiceImpl implements PesquisaLancamentoService {
+
+//	Pesquisa pela tabela de trigramas, fora do Postgres: a relevancia é a fração dos trigramas do termo encontrados na
+//	descrição (em comum / trigramas do termo) e o lancamento precisa ter pelo menos 30% deles. Nao é a similaridade do
+//	pg_trgm, que divide pelos trigramas dos dois textos.
+	private static final double FRACAO_MINIMA_TERMO = 0.3;
+
+//	Gravado para descrições sem nenhum trigrama, como "!!!", para que o lancamento conste como indexado.
+//	Nunca é gerado a partir de um termo, entao nao aparece na pesquisa.
+	static final String SEM_TRIGRAMAS = "";
+
+	private TrigramaLancamentoRepository repository;
+
+	private LancamentoRepository lancamentoRepository;
+
+	public PesquisaLancamentoServiceImpl(TrigramaLancamentoRepository repository, LancamentoRepository lancamentoRepository) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+	}
+
+//	Remove os trigramas antigos e grava os da descrição atual, chamado na mesma transação das escritas de lancamento.
+//	No Postgres a pesquisa usa o pg_trgm sobre a propria descrição e nada é gravado.
+	@Override
+	@Transactional
+	public void indexar(Lancamento lancamento) {
+		if (repository.possuiPgTrgm()) {
+			return;
+		}
+		repository.removerPorLancamento(lancamento.getId());
+		repository.saveAll(criarTrigramas(lancamento));
+	}
+
+//	Para lancamentos recem inseridos nao existe indice anterior, entao o delete é dispensado e os inserts vao em batch.
+	@Override
+	@Transactional
+	public void indexarNovos(List<Lancamento> lancamentos) {
+		if (repository.possuiPgTrgm()) {
+			return;
+		}
+		List<TrigramaLancamento> trigramas = new ArrayList<>();
+		lancamentos.forEach(lancamento -> trigramas.addAll(criarTrigramas(lancamento)));
+		repository.saveAll(trigramas);
+	}
+
+	@Override
+	@Transactional
+	public void removerIndice(Long idLancamento) {
+		if (repository.possuiPgTrgm()) {
+			return;
+		}
+		repository.removerPorLancamento(idLancamento);
+	}
+
+//	A pontuação é feita no indice, o GIN do pg_trgm no Postgres ou a tabela de trigramas nos outros bancos,
+//	e somente os lancamentos da pagina de resultado sao carregados pelo id.
+	@Override
+	@Transactional(readOnly = true)
+	public List<ResultadoPesquisaDTO> pesquisar(Long idUsuario, String termo, int limite) {
+		Set<String> trigramas = gerarTrigramas(termo);
+		if (trigramas.isEmpty()) {
+			throw new RegraNegocioException("Informe um termo de pesquisa válido.");
+		}
+
+		Map<Long, Double> relevanciaPorId = new LinkedHashMap<>();
+		if (repository.possuiPgTrgm()) {
+			for (Object[] linha : repository.pesquisarPorSimilaridade(idUsuario, termo, limite)) {
+				relevanciaPorId.put(((Number) linha[0]).longValue(), ((Number) linha[1]).doubleValue());
+			}
+		} else {
+			long minimo = (long) Math.ceil(trigramas.size() * FRACAO_MINIMA_TERMO);
+			for (Object[] linha : repository.pontuarPorTrigramas(idUsuario, trigramas, minimo, PageRequest.of(0, limite))) {
+				relevanciaPorId.put((Long) linha[0], ((Long) linha[1]).doubleValue() / trigramas.size());
+			}
+		}
+		if (relevanciaPorId.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		Map<Long, LancamentoDTO> lancamentos = lancamentoRepository.consultarPorIds(relevanciaPorId.keySet()).stream()
+				.collect(Collectors.toMap(LancamentoDTO::getId, Function.identity()));
+
+		List<ResultadoPesquisaDTO> resultado = new ArrayList<>();
+		relevanciaPorId.forEach((id, relevancia) -> {
+			LancamentoDTO lancamento = lancamentos.get(id);
+			if (lancamento != null) {
+				resultado.add(ResultadoPesquisaDTO.builder()
+						.lancamento(lancamento)
+						.relevancia(relevancia)
+						.build());
+			}
+		});
+		return resultado;
+	}
+
+//	Retorna null quando nao ha o que indexar, como no Postgres, que nao usa a tabela de trigramas.
+	@Override
+	@Transactional(readOnly = true)
+	public Long obterUltimoIdLancamento() {
+		return repository.possuiPgTrgm() ? null : lancamentoRepository.obterUltimoId();
+	}
+
+//	Indexa os lancamentos gravados antes da existencia do indice de trigramas com id entre aposId e ateId.
+//	Retorna o id do ultimo lancamento do lote para o proximo lote, ou null quando o lote nao veio cheio e nao restam pendentes.
+	@Override
+	@Transactional
+	public Long indexarPendentes(Long aposId, Long ateId, int quantidade) {
+		List<Lancamento> pendentes = repository.buscarLancamentosNaoIndexados(aposId, ateId, PageRequest.of(0, quantidade));
+		pendentes.forEach(this::indexar);
+		return pendentes.size() < quantidade ? null : pendentes.get(pendentes.size() - 1).getId();
+	}
+
+	private List<TrigramaLancamento> criarTrigramas(Lancamento lancamento) {
+		Set<String> gerados = gerarTrigramas(lancamento.getDescricao());
+		if (gerados.isEmpty()) {
+			gerados.add(SEM_TRIGRAMAS);
+		}
+
+		List<TrigramaLancamento> trigramas = new ArrayList<>();
+		for (String trigrama : gerados) {
+			trigramas.add(TrigramaLancamento.builder()
+					.idLancamento(lancamento.getId())
+					.idUsuario(lancamento.getUsuario().getId())
+					.trigrama(trigrama)
+					.build());
+		}
+		return trigramas;
+	}
+
+//	Gera os trigramas no mesmo formato do pg_trgm: texto em caixa baixa e sem acentos, cada palavra
+//	recebe dois espaços antes e um depois, e os trigramas repetidos sao descartados.
+	static Set<String> gerarTrigramas(String texto) {
+		Set<String> trigramas = new LinkedHashSet<>();
+		if (texto == null) {
+			return trigramas;
+		}
+
+		String normalizado = Normalizer.normalize(texto.toLowerCase(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+		for (String palavra : normalizado.split("[^\\p{Alnum}]+")) {
+			if (palavra.isEmpty()) {
+				continue;
+			}
+			String palavraComEspacos = "  " + palavra + " ";
+			for (int i = 0; i + 3 <= palavraComEspacos.length(); i++) {
+				trigramas.add(palavraComEspacos.substring(i, i + 3));
+			}
+		}
+		return trigramas;
+	}
+
+}
@@ -0,0 +1,163 @@
+package com.renatom.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.renatom.minhasfinancas.dto.ResumoMensalDTO;
+import com.renatom.minhasfinancas.dto.SaldoHistoricoDTO;
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.ResumoMensal;
+import com.renatom.minhasfinancas.model.entity.ResumoMensalId;
+import com.renatom.minhasfinancas.model.repository.ResumoMensalRepository;
+import com.renatom.minhasfinancas.service.ResumoMensalService;
+
+@Service
+public class ResumoMensalServiceImpl implements ResumoMensalService {
+
+	private static final int LIMITE_MESES_HISTORICO = 1200;
+
+	private ResumoMensalRepository repository;
+
+	public ResumoMensalServiceImpl(ResumoMensalRepository repository) {
+		this.repository = repository;
+	}
+
+	@Override
+	@Transactional
+	public void adicionar(Lancamento lancamento) {
+		adicionar(Collections.singletonList(lancamento));
+	}
+
+//	Agrupa os lancamentos pela linha do resumo, assim uma importação grande faz um update por linha e nao por lancamento.
+	@Override
+	@Transactional
+	public void adicionar(Collection<Lancamento> lancamentos) {
+		Map<ResumoMensalId, ResumoMensal> variacoes = new LinkedHashMap<>();
+		for (Lancamento lancamento : lancamentos) {
+			ResumoMensalId chave = obterChave(lancamento);
+			if (chave == null) {
+				continue;
+			}
+			ResumoMensal variacao = variacoes.computeIfAbsent(chave, c -> ResumoMensal.builder()
+					.valor(BigDecimal.ZERO).quantidade(0l).build());
+			variacao.setValor(variacao.getValor().add(lancamento.getValor()));
+			variacao.setQuantidade(variacao.getQuantidade() + 1);
+		}
+
+		variacoes.forEach((chave, variacao) -> somar(chave, variacao.getValor(), variacao.getQuantidade()));
+	}
+
+	@Override
+	@Transactional
+	public void remover(Lancamento lancamento) {
+		ResumoMensalId chave = obterChave(lancamento);
+		if (chave != null) {
+			somar(chave, lancamento.getValor().negate(), -1l);
+		}
+	}
+
+//	Quando o lancamento continua na mesma linha do resumo (ex: so mudou a descrição ou o valor) é feito um unico update.
+	@Override
+	@Transactional
+	public void substituir(Lancamento anterior, Lancamento atual) {
+		ResumoMensalId chaveAnterior = anterior == null ? null : obterChave(anterior);
+		ResumoMensalId chaveAtual = obterChave(atual);
+		if (chaveAnterior != null && chaveAnterior.equals(chaveAtual)) {
+			BigDecimal variacao = atual.getValor().subtract(anterior.getValor());
+			if (variacao.signum() != 0) {
+				somar(chaveAtual, variacao, 0l);
+			}
+			return;
+		}
+
+		if (chaveAnterior != null) {
+			remover(anterior);
+		}
+		if (chaveAtual != null) {
+			adicionar(atual);
+		}
+	}
+
+//	Apaga e recria todas as linhas do usuario a partir dos lancamentos.
+	@Override
+	@Transactional
+	public void recalcular(Long idUsuario) {
+		repository.removerPorUsuario(idUsuario);
+		repository.inserirCalculadoPorUsuario(idUsuario);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ResumoMensalDTO> obterResumo(Long idUsuario, Integer ano) {
+		return repository.consultarPorUsuarioEAno(idUsuario, ano);
+	}
+
+//	O banco retorna o saldo acumulado somente dos meses com lancamentos, os meses sem lancamentos repetem o saldo anterior.
+	@Override
+	@Transactional(readOnly = true)
+	public List<SaldoHistoricoDTO> obterSaldoHistorico(Long idUsuario, YearMonth de, YearMonth ate) {
+		if (de.isAfter(ate)) {
+			throw new RegraNegocioException("O mês inicial deve ser anterior ao mês final.");
+		}
+		
+		if (de.until(ate, ChronoUnit.MONTHS) >= LIMITE_MESES_HISTORICO) {
+			throw new RegraNegocioException("Informe um período de até " + LIMITE_MESES_HISTORICO + " meses.");
+		}
+
+		List<SaldoHistoricoDTO> acumulados = repository.consultarSaldoAcumulado(idUsuario, periodo(de), periodo(ate));
+		List<SaldoHistoricoDTO> historico = new ArrayList<>();
+		BigDecimal saldo = BigDecimal.ZERO;
+		int proximo = 0;
+		for (YearMonth mes = de; !mes.isAfter(ate); mes = mes.plusMonths(1)) {
+			while (proximo < acumulados.size()
+					&& periodo(YearMonth.of(acumulados.get(proximo).getAno(), acumulados.get(proximo).getMes())) <= periodo(mes)) {
+				saldo = acumulados.get(proximo++).getSaldo();
+			}
+			historico.add(SaldoHistoricoDTO.builder()
+					.ano(mes.getYear())
+					.mes(mes.getMonthValue())
+					.saldo(saldo)
+					.build());
+		}
+		return historico;
+	}
+
+	private int periodo(YearMonth mes) {
+		return mes.getYear() * 100 + mes.getMonthValue();
+	}
+
+//	Mesmo modelo do atualizarSaldo: se outra transação criou a linha antes, ela foi calculada sem a alteração atual,
+//	que ainda nao tinha commit, entao o insert nao grava nada e a variação é somada na linha criada.
+	private void somar(ResumoMensalId chave, BigDecimal valor, Long quantidade) {
+		int alterados = repository.somar(chave.getIdUsuario(), chave.getAno(), chave.getMes(), chave.getTipo(),
+				chave.getStatus(), valor, quantidade);
+		if (alterados == 0 && repository.inserirCalculado(chave.getIdUsuario(), chave.getAno(), chave.getMes(),
+				chave.getTipo().name(), chave.getStatus().name()) == 0) {
+			repository.somar(chave.getIdUsuario(), chave.getAno(), chave.getMes(), chave.getTipo(), chave.getStatus(),
+					valor, quantidade);
+		}
+	}
+
+//	Lancamentos sem algum dos campos da chave nao entram no resumo.
+	private ResumoMensalId obterChave(Lancamento lancamento) {
+		if (lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null || lancamento.getAno() == null
+				|| lancamento.getMes() == null || lancamento.getTipo() == null || lancamento.getStatus() == null
+				|| lancamento.getValor() == null) {
+			return null;
+		}
+		return new ResumoMensalId(lancamento.getUsuario().getId(), lancamento.getAno(), lancamento.getMes(),
+				lancamento.getTipo(), lancamento.getStatus());
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.renatom.minhasfinancas.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.renatom.minhasfinancas.model.entity.SaldoUsuario;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.renatom.minhasfinancas.service.SaldoUsuarioService;
+
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+
+	private static final Long VERSAO_SEM_SNAPSHOT = 0l;
+
+	private SaldoUsuarioRepository repository;
+
+	private LancamentoRepository lancamentoRepository;
+
+	private TransactionTemplate transactionTemplate;
+
+	public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository,
+			TransactionTemplate transactionTemplate) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.transactionTemplate = transactionTemplate;
+	}
+
+//	Busca o snapshot pela chave primaria, caso o usuario ainda nao tenha snapshot o saldo é calculado pelos lancamentos.
+	@Override
+	@Transactional(readOnly = true)
+	public BigDecimal obterSaldo(Long idUsuario) {
+		return repository.findById(idUsuario)
+				.map(SaldoUsuario::getValor)
+				.orElseGet(() -> calcularSaldo(idUsuario));
+	}
+
+//	Chamado pelas escritas de lancamento dentro da mesma transação.
+//	Se o snapshot ainda nao existe ele é criado a partir dos lancamentos, que ja contem a alteração atual. Quando outra
+//	transação cria o snapshot antes, ele foi calculado sem a alteração atual, que ainda nao tinha commit, e a variação é somada.
+	@Override
+	@Transactional
+	public void atualizarSaldo(Long idUsuario, BigDecimal variacao) {
+		int alterados = repository.somarVariacao(idUsuario, variacao, LocalDateTime.now());
+		if (alterados == 0 && !criarSnapshot(idUsuario)) {
+			repository.somarVariacao(idUsuario, variacao, LocalDateTime.now());
+		}
+	}
+
+//	O snapshot é bloqueado antes de somar os lancamentos: uma escrita que ja fez commit entra na soma e uma que ainda
+//	nao fez espera o bloqueio no somarVariacao e soma a sua variação depois, assim nenhuma é desfeita.
+	@Override
+	@Transactional
+	public BigDecimal recalcularSaldo(Long idUsuario) {
+		if (!repository.bloquear(idUsuario)) {
+			BigDecimal saldo = calcularSaldo(idUsuario);
+			if (repository.inserirSeNaoExistir(idUsuario, saldo, LocalDateTime.now(), proximaVersao(null)) > 0) {
+				return saldo;
+			}
+			repository.bloquear(idUsuario);
+		}
+
+		BigDecimal saldo = calcularSaldo(idUsuario);
+		repository.definirSaldo(idUsuario, saldo, LocalDateTime.now());
+		return saldo;
+	}
+
+//	Escritas que nao mudam o saldo mas mudam os lancamentos listados, so a versao do usuario é incrementada.
+//	O snapshot criado agora ja nasce com uma versao nova, se outra transação o criou primeiro a versao dela é incrementada.
+	@Override
+	@Transactional
+	public void registrarAlteracao(Long idUsuario) {
+		int alterados = repository.incrementarVersao(idUsuario, LocalDateTime.now());
+		if (alterados == 0 && !criarSnapshot(idUsuario)) {
+			repository.incrementarVersao(idUsuario, LocalDateTime.now());
+		}
+	}
+
+//	Versao atual dos lancamentos do usuario pela chave primaria, somente leitura para poder ir a replica.
+//	Sem snapshot a versao é fixa: o snapshot é criado pela proxima escrita com a versao no horario atual, sempre diferente.
+	@Override
+	@Transactional(readOnly = true)
+	public Long obterVersao(Long idUsuario) {
+		return repository.obterVersao(idUsuario).orElse(VERSAO_SEM_SNAPSHOT);
+	}
+
+//	Uma unica consulta agrupada encontra os snapshots divergentes, que podem ja ter mudado desde a leitura.
+//	Cada um é corrigido pelo recalcularSaldo em uma transação curta, com o snapshot bloqueado antes da soma.
+//	Usuarios que possuem snapshot mas nao possuem mais lancamentos ficam com saldo zero.
+	@Override
+	public void reconciliar() {
+		Map<Long, BigDecimal> saldos = new HashMap<>();
+		for (Object[] linha : lancamentoRepository.obterTotaisPorUsuario(TipoLancamento.RECEITA, TipoLancamento.DESPESA)) {
+			BigDecimal receitas = linha[1] == null ? BigDecimal.ZERO : (BigDecimal) linha[1];
+			BigDecimal despesas = linha[2] == null ? BigDecimal.ZERO : (BigDecimal) linha[2];
+			saldos.put((Long) linha[0], receitas.subtract(despesas));
+		}
+
+		Set<Long> divergentes = new LinkedHashSet<>();
+		for (SaldoUsuario snapshot : repository.findAll()) {
+			BigDecimal saldo = saldos.remove(snapshot.getIdUsuario());
+			if (saldo == null) {
+				saldo = BigDecimal.ZERO;
+			}
+			if (snapshot.getValor() == null || snapshot.getValor().compareTo(saldo) != 0) {
+				divergentes.add(snapshot.getIdUsuario());
+			}
+		}
+		divergentes.addAll(saldos.keySet());
+
+		divergentes.forEach(idUsuario -> transactionTemplate.execute(status -> recalcularSaldo(idUsuario)));
+	}
+
+//	Retorna false quando outra transação criou o snapshot primeiro.
+	private boolean criarSnapshot(Long idUsuario) {
+		return repository.inserirSeNaoExistir(idUsuario, calcularSaldo(idUsuario), LocalDateTime.now(), proximaVersao(null)) > 0;
+	}
+
+	private Long proximaVersao(Long versao) {
+		return versao == null ? System.currentTimeMillis() : versao + 1;
+	}
+
+	private BigDecimal calcularSaldo(Long idUsuario) {
+		return lancamentoRepository.obterSaldoPorUsuario(idUsuario, TipoLancamento.RECEITA, TipoLancamento.DESPESA).getSaldo();
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.renatom.minhasfinancas.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.renatom.minhasfinancas.exception.ErroAutenticacao;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.service.TokenService;
+
+// Token compacto no formato <dados>.<assinatura>, os dois em base64url, onde dados é "idUsuario:expiracao" (epoch em segundos)
+// e a assinatura é o HMAC-SHA256 dos dados. A validação é feita toda em memoria, sem consultar o banco.
+@Service
+public class TokenServiceImpl implements TokenService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(TokenServiceImpl.class);
+
+	private static final String ALGORITMO = "HmacSHA256";
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private final SecretKeySpec chave;
+
+	private final long validadeSegundos;
+
+	private final Clock relogio;
+
+//	Mac nao é thread safe, cada thread da requisição usa a sua instancia
+	private final ThreadLocal<Mac> mac;
+
+	@Autowired
+	public TokenServiceImpl(@Value("${financas.token.segredo:}") String segredo,
+			@Value("${financas.token.validade-minutos:60}") long validadeMinutos) {
+		this(segredo, validadeMinutos, Clock.systemUTC());
+	}
+
+	public TokenServiceImpl(String segredo, long validadeMinutos, Clock relogio) {
+		this.chave = new SecretKeySpec(obterSegredo(segredo), ALGORITMO);
+		this.validadeSegundos = validadeMinutos * 60;
+		this.relogio = relogio;
+		this.mac = ThreadLocal.withInitial(this::criarMac);
+	}
+
+	@Override
+	public String gerarToken(Usuario usuario) {
+		long expiracao = relogio.instant().getEpochSecond() + validadeSegundos;
+		byte[] dados = (usuario.getId() + ":" + expiracao).getBytes(StandardCharsets.UTF_8);
+		return ENCODER.encodeToString(dados) + "." + ENCODER.encodeToString(assinar(dados));
+	}
+
+	@Override
+	public Long obterIdUsuario(String token) {
+		int separador = token == null ? -1 : token.indexOf('.');
+		if (separador < 1) {
+			throw new ErroAutenticacao("Token inválido.");
+		}
+
+		byte[] dados;
+		byte[] assinatura;
+		try {
+			dados = DECODER.decode(token.substring(0, separador));
+			assinatura = DECODER.decode(token.substring(separador + 1));
+		} catch (IllegalArgumentException e) {
+			throw new ErroAutenticacao("Token inválido.");
+		}
+
+//		Comparação em tempo constante para nao revelar quantos bytes da assinatura estao corretos
+		if (!MessageDigest.isEqual(assinar(dados), assinatura)) {
+			throw new ErroAutenticacao("Token inválido.");
+		}
+
+		String[] campos = new String(dados, StandardCharsets.UTF_8).split(":");
+		long expiracao = Long.parseLong(campos[1]);
+		if (relogio.instant().getEpochSecond() >= expiracao) {
+			throw new ErroAutenticacao("Token expirado.");
+		}
+
+		return Long.valueOf(campos[0]);
+	}
+
+	private byte[] assinar(byte[] dados) {
+		return mac.get().doFinal(dados);
+	}
+
+	private Mac criarMac() {
+		try {
+			Mac instancia = Mac.getInstance(ALGORITMO);
+			instancia.init(chave);
+			return instancia;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Não foi possivel criar o HMAC do token.", e);
+		}
+	}
+
+//	Sem segredo configurado é gerado um aleatorio, os tokens deixam de valer quando a aplicação reinicia
+//	e nao sao aceitos por outras instancias.
+	private static byte[] obterSegredo(String segredo) {
+		if (segredo != null && !segredo.trim().isEmpty()) {
+			return segredo.getBytes(StandardCharsets.UTF_8);
+		}
+
+		LOG.warn("financas.token.segredo nao configurado, usando um segredo aleatorio.");
+		byte[] aleatorio = new byte[32];
+		new SecureRandom().nextBytes(aleatorio);
+		return aleatorio;
+	}
+
+}
@@ -3,6 +3,9 @@ package com.renatom.minhasfinancas.service.impl;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -40,20 +43,18 @@ public class UsuarioServiceImpl implements UsuarioService {
 	@Override
 	// Anotação @Transactional abre uma transação com o banco e depois do save ele commita.
 	@Transactional 
+	// Remove o usuario salvo dos caches do UsuarioRepository, para que a proxima leitura busque a versão atual.
+	@Caching(evict = {
+			@CacheEvict(cacheNames = "usuariosPorId", key = "#result.id"),
+			@CacheEvict(cacheNames = "usuariosPorEmail", key = "#usuario.email") })
 	public Usuario salvarUsuario(Usuario usuario) {
-		validarEmail(usuario.getEmail());
-		return repository.save(usuario);
-	}
-
-	@Override
-	public void validarEmail(String email) {
-		boolean existe = repository.existsByEmail(email);
-		if(existe) {
-//			Verificamos se o email existe, se existir lança uma exception, 
-//			Criada Classe RegraNegocioException no pacote de exception
+//		Sem consultar o email antes: a constraint uk_usuario_email recusa o insert repetido,
+//		o que evita uma query a mais e a corrida entre dois cadastros simultaneos com o mesmo email.
+		try {
+			return repository.save(usuario);
+		} catch (DataIntegrityViolationException e) {
 			throw new RegraNegocioException("Já existe um usuário cadastrado com esse email.");
 		}
-		
 	}
 
 	@Override
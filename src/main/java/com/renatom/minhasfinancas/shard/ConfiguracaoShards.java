@@ -0,0 +1,122 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.renatom.minhasfinancas.model.repository.UsuarioRepository;
+import com.renatom.minhasfinancas.service.UsuarioService;
+import com.renatom.minhasfinancas.service.impl.UsuarioServiceImpl;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Liga a divisão dos dados por usuario em shards com financas.shards.habilitado=true.
+// O shard principal é o spring.datasource e cada url de financas.shards.urls vira um shard a mais, o usuario e todos os
+// dados dele ficam no mesmo shard. O DataSource daqui substitui o do Spring Boot e nao combina com as replicas de leitura.
+@Configuration
+@ConditionalOnProperty(name = "financas.shards.habilitado", havingValue = "true")
+public class ConfiguracaoShards {
+
+//	Um pool Hikari por shard, todos com as propriedades spring.datasource.hikari. O Flyway do Spring Boot migra o principal,
+//	os outros sao migrados aqui com o indice do shard, que separa as faixas de ids de lancamento entre os shards.
+	@Bean
+	public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+			@Value("${financas.shards.urls}") String[] urls,
+			@Value("${financas.replicas.habilitado:false}") boolean replicas,
+			@Value("${spring.flyway.enabled:true}") boolean flyway) {
+		if (replicas) {
+			throw new IllegalStateException("financas.shards.habilitado e financas.replicas.habilitado não podem ser usados juntos.");
+		}
+
+		Binder binder = Binder.get(environment);
+		Map<String, DataSource> shards = new LinkedHashMap<>();
+		shards.put(ShardDataSource.PRINCIPAL, criarPool(properties, binder, meterRegistry, ShardDataSource.PRINCIPAL, properties.determineUrl()));
+		for (int i = 0; i < urls.length; i++) {
+			if (!urls[i].trim().isEmpty()) {
+				String nome = "shard-" + (i + 1);
+				HikariDataSource pool = criarPool(properties, binder, meterRegistry, nome, urls[i].trim());
+				if (flyway) {
+					migrar(pool, nome, i + 1);
+				}
+				shards.put(nome, pool);
+			}
+		}
+		return new ShardDataSource(shards);
+	}
+
+//	Com as conexoes limitadas o principal devolvido pelo getShard ja esta envolvido pelo DataSourceLimitado.
+	@Bean
+	public MapaShards mapaShards(DataSource dataSource, @Value("${financas.shards.cache-ms:1000}") long cacheMs) throws SQLException {
+		ShardDataSource shards = dataSource.unwrap(ShardDataSource.class);
+		return new MapaShards(shards.getShard(ShardDataSource.PRINCIPAL), shards.getNomes(), cacheMs);
+	}
+
+	@Bean
+	@Primary
+	public UsuarioService usuarioServiceShard(UsuarioServiceImpl usuarioService, UsuarioRepository repository,
+			MapaShards mapaShards, TransactionTemplate transactionTemplate) {
+		return new UsuarioServiceShard(usuarioService, repository, mapaShards, transactionTemplate);
+	}
+
+	@Bean
+	public RebalanceamentoShards rebalanceamentoShards(DataSource dataSource, MapaShards mapaShards) throws SQLException {
+		return new RebalanceamentoShards(dataSource.unwrap(ShardDataSource.class), mapaShards);
+	}
+
+	@Bean
+	public ShardsEndpoint shardsEndpoint(MapaShards mapaShards, RebalanceamentoShards rebalanceamento) {
+		return new ShardsEndpoint(mapaShards, rebalanceamento);
+	}
+
+	@Bean
+	public WebMvcConfigurer interceptadorShards(MapaShards mapaShards) {
+		return new WebMvcConfigurer() {
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(new ShardInterceptor(mapaShards));
+			}
+		};
+	}
+
+	private HikariDataSource criarPool(DataSourceProperties properties, Binder binder, MeterRegistry meterRegistry,
+			String nome, String url) {
+		HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+		pool.setPoolName(nome);
+		pool.setMetricRegistry(meterRegistry);
+		return pool;
+	}
+
+	private void migrar(DataSource dataSource, String nome, int indice) {
+		Map<String, String> placeholders = new HashMap<>();
+		placeholders.put("shard", nome);
+		placeholders.put("shard_indice", String.valueOf(indice));
+		Flyway.configure()
+				.dataSource(dataSource)
+				.schemas("financas")
+				.baselineOnMigrate(true)
+				.baselineVersion("0")
+				.placeholders(placeholders)
+				.load()
+				.migrate();
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+
+// Mapa de usuarios por shard, guardado na tabela financas.usuario_shard do shard principal.
+// A tabela tambem gera os ids de usuario, unicos entre todos os shards, e garante o email unico que a constraint
+// uk_usuario_email so garantiria dentro de cada shard. Usuarios fora do mapa ficam no principal.
+// As consultas por id ficam em cache por financas.shards.cache-ms, que é o tempo que uma mudança leva para valer em
+// todas as instancias, por isso o RebalanceamentoShards espera esse tempo entre os passos.
+public class MapaShards {
+
+	private static final RowMapper<UsuarioShard> MAPEAMENTO = (resultado, linha) -> new UsuarioShard(
+			resultado.getLong("id_usuario"), resultado.getString("shard"), resultado.getBoolean("bloqueado"));
+
+	private final JdbcTemplate diretorio;
+
+	private final List<String> shards;
+
+	private final long cacheMs;
+
+	private final Cache<Long, UsuarioShard> cache;
+
+	public MapaShards(DataSource principal, List<String> shards, long cacheMs) {
+		this.diretorio = new JdbcTemplate(principal);
+		this.shards = shards;
+		this.cacheMs = cacheMs;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(100_000)
+				.expireAfterWrite(cacheMs, TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	public UsuarioShard obter(Long idUsuario) {
+		return cache.get(idUsuario, this::consultar);
+	}
+
+	public Optional<UsuarioShard> obterPorEmail(String email) {
+		return diretorio.query("select id_usuario, shard, bloqueado from financas.usuario_shard where email = ?",
+				MAPEAMENTO, email).stream().findFirst();
+	}
+
+//	Reserva o id e o email do novo usuario no shard com menos usuarios.
+	public UsuarioShard registrar(String email) {
+		String shard = escolherShard();
+		KeyHolder chave = new GeneratedKeyHolder();
+		try {
+			diretorio.update(conexao -> {
+				PreparedStatement statement = conexao.prepareStatement(
+						"insert into financas.usuario_shard (email, shard, bloqueado) values (?, ?, false)",
+						new String[] { "id_usuario" });
+				statement.setString(1, email);
+				statement.setString(2, shard);
+				return statement;
+			}, chave);
+		} catch (DuplicateKeyException e) {
+			throw new RegraNegocioException("Já existe um usuário cadastrado com esse email.");
+		}
+		return new UsuarioShard(chave.getKey().longValue(), shard, false);
+	}
+
+//	Desfaz o registrar quando o insert do usuario no shard falha.
+	public void remover(Long idUsuario) {
+		diretorio.update("delete from financas.usuario_shard where id_usuario = ?", idUsuario);
+		cache.invalidate(idUsuario);
+	}
+
+	public void bloquear(Long idUsuario, boolean bloqueado) {
+		diretorio.update("update financas.usuario_shard set bloqueado = ? where id_usuario = ?", bloqueado, idUsuario);
+		cache.invalidate(idUsuario);
+	}
+
+//	Aponta o usuario para o novo shard e libera as escritas dele.
+	public void mover(Long idUsuario, String shard) {
+		diretorio.update("update financas.usuario_shard set shard = ?, bloqueado = false where id_usuario = ?", shard, idUsuario);
+		cache.invalidate(idUsuario);
+	}
+
+	public Map<String, Long> contarUsuarios() {
+		Map<String, Long> quantidades = new LinkedHashMap<>();
+		shards.forEach(shard -> quantidades.put(shard, 0L));
+		diretorio.query("select shard, count(*) from financas.usuario_shard group by shard",
+				resultado -> {
+					quantidades.put(resultado.getString(1), resultado.getLong(2));
+				});
+		return quantidades;
+	}
+
+//	Executa a operação uma vez em cada shard, usado pelos jobs que percorrem todos os usuarios.
+	public void paraCadaShard(Runnable operacao) {
+		for (String shard : shards) {
+			ShardContexto.executar(shard, () -> {
+				operacao.run();
+				return null;
+			});
+		}
+	}
+
+	public List<String> getShards() {
+		return shards;
+	}
+
+	public long getCacheMs() {
+		return cacheMs;
+	}
+
+	private UsuarioShard consultar(Long idUsuario) {
+		return diretorio.query("select id_usuario, shard, bloqueado from financas.usuario_shard where id_usuario = ?",
+				MAPEAMENTO, idUsuario).stream().findFirst()
+				.orElse(new UsuarioShard(idUsuario, ShardDataSource.PRINCIPAL, false));
+	}
+
+	private String escolherShard() {
+		return contarUsuarios().entrySet().stream()
+				.filter(entrada -> shards.contains(entrada.getKey()))
+				.min(Map.Entry.comparingByValue())
+				.map(Map.Entry::getKey)
+				.orElse(ShardDataSource.PRINCIPAL);
+	}
+
+}
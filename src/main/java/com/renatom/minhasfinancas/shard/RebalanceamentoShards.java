@@ -0,0 +1,207 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+
+// Move um usuario e todos os dados dele para outro shard sem parar a aplicação:
+// 1. bloqueia as escritas do usuario e espera os caches do MapaShards das outras instancias expirarem;
+// 2. trava o usuario e o snapshot de saldo na origem (select ... for update) e, com a trava, copia usuario, lancamentos,
+//    trigramas, saldo e resumo mensal para o destino em uma transação e aponta o usuario para o destino;
+// 3. espera os caches de novo;
+// 4. trava a origem outra vez e apaga os dados do usuario, somente se as contagens ainda forem as copiadas.
+// O bloqueio do passo 1 depende do cache de cada instancia, por isso a trava: toda escrita de lancamento atualiza o
+// snapshot de saldo, entao uma escrita que passou antes do bloqueio termina antes da copia ou espera a trava e grava
+// na origem depois dela, o que o passo 4 detecta. Nesse caso os dados da origem sao mantidos para a conciliação.
+// As leituras continuam na origem ate o passo 2. Se a copia falhar nada muda no destino e o usuario é desbloqueado.
+public class RebalanceamentoShards {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RebalanceamentoShards.class);
+
+	private static final int TAMANHO_LOTE = 500;
+
+	// Ordem das chaves estrangeiras, a remoção na origem usa a ordem inversa
+	private static final String[][] TABELAS = {
+			{ "usuario", "id" },
+			{ "lancamento", "id_usuario" },
+			{ "lancamento_trigrama", "id_usuario" },
+			{ "saldo_usuario", "id_usuario" },
+			{ "resumo_mensal", "id_usuario" } };
+
+	private ShardDataSource shards;
+
+	private MapaShards mapaShards;
+
+	public RebalanceamentoShards(ShardDataSource shards, MapaShards mapaShards) {
+		this.shards = shards;
+		this.mapaShards = mapaShards;
+	}
+
+	public void mover(Long idUsuario, String destino) {
+		String origem = mapaShards.obter(idUsuario).getShard();
+		if (!shards.getNomes().contains(destino)) {
+			throw new RegraNegocioException("Shard desconhecido: " + destino);
+		}
+		if (origem.equals(destino)) {
+			throw new RegraNegocioException("O usuário já está no shard " + destino + ".");
+		}
+
+		LOG.info("Movendo usuario {} do shard {} para {}.", idUsuario, origem, destino);
+		mapaShards.bloquear(idUsuario, true);
+		List<Long> copiadas;
+		try {
+			aguardarCaches();
+			copiadas = copiar(idUsuario, shards.getShard(origem), destino);
+		} catch (RuntimeException e) {
+			mapaShards.bloquear(idUsuario, false);
+			throw e;
+		}
+
+		aguardarCaches();
+		remover(idUsuario, shards.getShard(origem), copiadas);
+		LOG.info("Usuario {} movido para o shard {}.", idUsuario, destino);
+	}
+
+//	Retorna as contagens copiadas, conferidas no destino antes do commit da copia.
+	private List<Long> copiar(Long idUsuario, DataSource origem, String destino) {
+		DataSource bancoDestino = shards.getShard(destino);
+		JdbcTemplate leitura = new JdbcTemplate(origem);
+		leitura.setFetchSize(TAMANHO_LOTE);
+		JdbcTemplate escrita = new JdbcTemplate(bancoDestino);
+
+		return new TransactionTemplate(new DataSourceTransactionManager(origem)).execute(statusOrigem -> {
+			travar(leitura, idUsuario);
+			List<Long> naOrigem = contar(leitura, idUsuario);
+			new TransactionTemplate(new DataSourceTransactionManager(bancoDestino)).execute(status -> {
+				for (String[] tabela : TABELAS) {
+					CopiaTabela copia = new CopiaTabela(escrita, tabela[0]);
+					leitura.query("select * from financas." + tabela[0] + " where " + tabela[1] + " = ?", copia, idUsuario);
+					copia.gravar();
+				}
+				List<Long> noDestino = contar(escrita, idUsuario);
+				if (!naOrigem.equals(noDestino)) {
+					throw new IllegalStateException("Copia do usuario " + idUsuario + " incompleta, origem " + naOrigem
+							+ " e destino " + noDestino + ".");
+				}
+				return null;
+			});
+			mapaShards.mover(idUsuario, destino);
+			return naOrigem;
+		});
+	}
+
+	private void remover(Long idUsuario, DataSource origem, List<Long> copiadas) {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(origem);
+		List<String[]> tabelas = new ArrayList<>();
+		Collections.addAll(tabelas, TABELAS);
+		Collections.reverse(tabelas);
+
+		new TransactionTemplate(new DataSourceTransactionManager(origem)).execute(status -> {
+			travar(jdbcTemplate, idUsuario);
+			List<Long> naOrigem = contar(jdbcTemplate, idUsuario);
+			if (!naOrigem.equals(copiadas)) {
+				LOG.error("Usuario {} recebeu escritas no shard de origem depois da copia, origem {} e copiado {}.",
+						idUsuario, naOrigem, copiadas);
+				throw new IllegalStateException("O usuário " + idUsuario
+						+ " recebeu escritas no shard de origem depois da cópia, os dados da origem foram mantidos.");
+			}
+			tabelas.forEach(tabela -> jdbcTemplate.update("delete from financas." + tabela[0] + " where " + tabela[1] + " = ?", idUsuario));
+			return null;
+		});
+	}
+
+//	As escritas de lancamento do usuario esperam esta trava ao atualizar o snapshot de saldo, ate o fim da transação.
+	private void travar(JdbcTemplate origem, Long idUsuario) {
+		origem.queryForList("select id from financas.usuario where id = ? for update", idUsuario);
+		origem.queryForList("select id_usuario from financas.saldo_usuario where id_usuario = ? for update", idUsuario);
+	}
+
+//	Linhas do usuario em cada tabela e a versao do snapshot de saldo, que toda escrita de lancamento incrementa.
+	private List<Long> contar(JdbcTemplate banco, Long idUsuario) {
+		List<Long> contagens = new ArrayList<>();
+		for (String[] tabela : TABELAS) {
+			contagens.add(banco.queryForObject("select count(*) from financas." + tabela[0] + " where " + tabela[1] + " = ?",
+					Long.class, idUsuario));
+		}
+		contagens.add(banco.queryForObject("select coalesce(sum(versao), 0) from financas.saldo_usuario where id_usuario = ?",
+				Long.class, idUsuario));
+		return contagens;
+	}
+
+//	Tempo para as outras instancias enxergarem a mudança no MapaShards.
+	private void aguardarCaches() {
+		try {
+			Thread.sleep(mapaShards.getCacheMs());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Movimentação de shard interrompida.", e);
+		}
+	}
+
+//	Le as linhas da origem e grava no destino em batches, com o insert montado a partir das colunas da consulta.
+	private static class CopiaTabela implements RowCallbackHandler {
+
+		private final JdbcTemplate escrita;
+
+		private final String tabela;
+
+		private final List<Object[]> lote = new ArrayList<>();
+
+		private String insert;
+
+		CopiaTabela(JdbcTemplate escrita, String tabela) {
+			this.escrita = escrita;
+			this.tabela = tabela;
+		}
+
+		@Override
+		public void processRow(ResultSet resultado) throws SQLException {
+			ResultSetMetaData colunas = resultado.getMetaData();
+			if (insert == null) {
+				insert = montarInsert(colunas);
+			}
+
+			Object[] linha = new Object[colunas.getColumnCount()];
+			for (int i = 0; i < linha.length; i++) {
+				linha[i] = resultado.getObject(i + 1);
+			}
+			lote.add(linha);
+			if (lote.size() == TAMANHO_LOTE) {
+				gravar();
+			}
+		}
+
+		void gravar() {
+			if (!lote.isEmpty()) {
+				escrita.batchUpdate(insert, lote);
+				lote.clear();
+			}
+		}
+
+		private String montarInsert(ResultSetMetaData colunas) throws SQLException {
+			StringBuilder nomes = new StringBuilder();
+			StringBuilder parametros = new StringBuilder();
+			for (int i = 1; i <= colunas.getColumnCount(); i++) {
+				nomes.append(i > 1 ? ", " : "").append(colunas.getColumnName(i));
+				parametros.append(i > 1 ? ", ?" : "?");
+			}
+			return "insert into financas." + tabela + " (" + nomes + ") values (" + parametros + ")";
+		}
+
+	}
+
+}
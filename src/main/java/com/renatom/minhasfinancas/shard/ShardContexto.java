@@ -0,0 +1,56 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.util.function.Supplier;
+
+// Shard da thread atual, usado pelo ShardDataSource para escolher o banco de cada conexao.
+// Sem shard definido as conexoes vão para o shard principal.
+public final class ShardContexto {
+
+	private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+	private ShardContexto() {
+	}
+
+	public static void definir(String shard) {
+		SHARD.set(shard);
+	}
+
+	public static String atual() {
+		return SHARD.get();
+	}
+
+	public static void limpar() {
+		SHARD.remove();
+	}
+
+//	Executa no shard informado e volta ao shard anterior, usado fora das requisições (jobs, cadastro e autenticação).
+	public static <T> T executar(String shard, Supplier<T> operacao) {
+		String anterior = SHARD.get();
+		SHARD.set(shard);
+		try {
+			return operacao.get();
+		} finally {
+			if (anterior == null) {
+				SHARD.remove();
+			} else {
+				SHARD.set(anterior);
+			}
+		}
+	}
+
+//	TaskDecorator dos executores: a tarefa roda no shard da thread que a criou, como as consultas em /api/async.
+	public static Runnable propagar(Runnable tarefa) {
+		String shard = atual();
+		return () -> {
+			if (shard != null) {
+				definir(shard);
+			}
+			try {
+				tarefa.run();
+			} finally {
+				limpar();
+			}
+		};
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.renatom.minhasfinancas.execucao.DataSourceAgrupado;
+
+// Entrega as conexoes do shard definido no ShardContexto, ou do principal quando nenhum foi definido.
+// O principal tambem guarda o mapa de usuarios por shard (MapaShards) e é o banco migrado pelo Flyway do Spring Boot.
+// Como a escolha acontece na obtenção da conexao, o shard deve ser definido antes de abrir a transação.
+public class ShardDataSource extends AbstractDataSource implements DataSourceAgrupado, AutoCloseable {
+
+	public static final String PRINCIPAL = "principal";
+
+	private final Map<String, DataSource> shards;
+
+	public ShardDataSource(Map<String, DataSource> shards) {
+		if (!shards.containsKey(PRINCIPAL)) {
+			throw new IllegalArgumentException("O shard " + PRINCIPAL + " é obrigatório.");
+		}
+		this.shards = new LinkedHashMap<>(shards);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return obterShardAtual().getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return obterShardAtual().getConnection(username, password);
+	}
+
+	@Override
+	public void envolverPools(UnaryOperator<DataSource> envoltorio) {
+		shards.replaceAll((nome, dataSource) -> envoltorio.apply(dataSource));
+	}
+
+	public DataSource getShard(String nome) {
+		DataSource dataSource = shards.get(nome);
+		if (dataSource == null) {
+			throw new IllegalArgumentException("Shard desconhecido: " + nome);
+		}
+		return dataSource;
+	}
+
+	public List<String> getNomes() {
+		return new ArrayList<>(shards.keySet());
+	}
+
+//	Fecha os pools de todos os shards junto com o contexto.
+	@Override
+	public void close() throws Exception {
+		for (DataSource dataSource : shards.values()) {
+			if (dataSource instanceof AutoCloseable) {
+				((AutoCloseable) dataSource).close();
+			}
+		}
+	}
+
+	private DataSource obterShardAtual() throws SQLException {
+		String shard = ShardContexto.atual();
+		DataSource dataSource = shards.get(shard == null ? PRINCIPAL : shard);
+		if (dataSource == null) {
+			throw new SQLException("Shard desconhecido: " + shard);
+		}
+		return dataSource;
+	}
+
+}
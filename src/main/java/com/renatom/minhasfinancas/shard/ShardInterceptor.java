@@ -0,0 +1,56 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.renatom.minhasfinancas.seguranca.TokenAutenticacaoFilter;
+
+// Define o shard das requisições autenticadas a partir do usuario do token, antes de qualquer acesso ao banco.
+// Enquanto o usuario esta sendo movido de shard as escritas dele respondem 503, as leituras continuam no shard de origem.
+public class ShardInterceptor implements AsyncHandlerInterceptor {
+
+	private final MapaShards mapaShards;
+
+	public ShardInterceptor(MapaShards mapaShards) {
+		this.mapaShards = mapaShards;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+		Long idUsuario = (Long) request.getAttribute(TokenAutenticacaoFilter.ID_USUARIO);
+		if (idUsuario == null) {
+			return true;
+		}
+
+		UsuarioShard usuarioShard = mapaShards.obter(idUsuario);
+		if (usuarioShard.isBloqueado() && isEscrita(request)) {
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Usuário em manutenção, tente novamente.");
+			return false;
+		}
+		ShardContexto.definir(usuarioShard.getShard());
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		ShardContexto.limpar();
+	}
+
+//	A thread do servlet é liberada nas respostas assincronas, a tarefa ja levou o shard pelo ShardContexto.propagar.
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		ShardContexto.limpar();
+	}
+
+	private boolean isEscrita(HttpServletRequest request) {
+		return HttpMethod.POST.matches(request.getMethod()) || HttpMethod.PUT.matches(request.getMethod())
+				|| HttpMethod.DELETE.matches(request.getMethod()) || HttpMethod.PATCH.matches(request.getMethod());
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+// Endpoint do actuator para acompanhar e rebalancear os shards: a leitura mostra os usuarios por shard e a escrita move
+// um usuario. Disponivel por JMX, pela web somente se "shards" for incluido em management.endpoints.web.exposure.include.
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+
+	private MapaShards mapaShards;
+
+	private RebalanceamentoShards rebalanceamento;
+
+	public ShardsEndpoint(MapaShards mapaShards, RebalanceamentoShards rebalanceamento) {
+		this.mapaShards = mapaShards;
+		this.rebalanceamento = rebalanceamento;
+	}
+
+	@ReadOperation
+	public Map<String, Long> usuariosPorShard() {
+		return mapaShards.contarUsuarios();
+	}
+
+	@WriteOperation
+	public Map<String, Long> mover(Long idUsuario, String destino) {
+		rebalanceamento.mover(idUsuario, destino);
+		return mapaShards.contarUsuarios();
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.util.Optional;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.repository.UsuarioRepository;
+import com.renatom.minhasfinancas.service.UsuarioService;
+
+// UsuarioService usado com shards habilitados (@Primary na ConfiguracaoShards). Cadastro e autenticação chegam sem token,
+// entao o shard é descoberto pelo email no MapaShards antes de chamar o UsuarioServiceImpl, que continua com as regras.
+public class UsuarioServiceShard implements UsuarioService {
+
+	private UsuarioService usuarioService;
+
+	private UsuarioRepository repository;
+
+	private MapaShards mapaShards;
+
+	private TransactionTemplate transactionTemplate;
+
+	public UsuarioServiceShard(UsuarioService usuarioService, UsuarioRepository repository, MapaShards mapaShards,
+			TransactionTemplate transactionTemplate) {
+		this.usuarioService = usuarioService;
+		this.repository = repository;
+		this.mapaShards = mapaShards;
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	@Override
+	public Usuario autenticar(String email, String senha) {
+		String shard = mapaShards.obterPorEmail(email).map(UsuarioShard::getShard).orElse(ShardDataSource.PRINCIPAL);
+		return ShardContexto.executar(shard, () -> usuarioService.autenticar(email, senha));
+	}
+
+//	O MapaShards reserva o id e o email, recusando email repetido em qualquer shard, e escolhe o shard.
+//	Se o insert no shard falhar a reserva é desfeita.
+	@Override
+	public Usuario salvarUsuario(Usuario usuario) {
+		UsuarioShard registro = mapaShards.registrar(usuario.getEmail());
+		try {
+			ShardContexto.executar(registro.getShard(), () -> transactionTemplate.execute(status ->
+					repository.inserirComId(registro.getIdUsuario(), usuario.getName(), usuario.getEmail(), usuario.getSenha())));
+		} catch (RuntimeException e) {
+			mapaShards.remover(registro.getIdUsuario());
+			throw e;
+		}
+		usuario.setId(registro.getIdUsuario());
+		return usuario;
+	}
+
+	@Override
+	public Optional<Usuario> obterPorId(Long id) {
+		return ShardContexto.executar(mapaShards.obter(id).getShard(), () -> usuarioService.obterPorId(id));
+	}
+
+}
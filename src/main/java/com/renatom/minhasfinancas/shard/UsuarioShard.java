@@ -0,0 +1,18 @@
+package com.renatom.minhasfinancas.shard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Linha do mapa de usuarios por shard (financas.usuario_shard).
+// Bloqueado enquanto o RebalanceamentoShards copia o usuario, as escritas dele sao recusadas nesse intervalo.
+@Data
+@AllArgsConstructor
+public class UsuarioShard {
+
+	private Long idUsuario;
+
+	private String shard;
+
+	private boolean bloqueado;
+
+}
@@ -0,0 +1,44 @@
+-- Estrutura inicial do schema financas.
+-- Usa "if not exists" pois em bancos ja existentes as tabelas foram criadas antes das migrações,
+-- assim a mesma migração serve para um banco novo e para um banco que so precisa ser versionado.
+
+create schema if not exists financas;
+
+create table if not exists financas.usuario (
+	id bigserial primary key,
+	nome varchar(255),
+	email varchar(255),
+	senha varchar(255)
+);
+
+create table if not exists financas.lancamento (
+	id bigint primary key,
+	descricao varchar(255) not null,
+	mes integer not null,
+	ano integer not null,
+	id_usuario bigint not null references financas.usuario (id),
+	valor numeric(16, 2) not null,
+	data_cadastro date default now(),
+	tipo varchar(20),
+	status varchar(20)
+);
+
+-- Incremento igual ao allocationSize do Lancamento, o Hibernate reserva 50 ids a cada chamada da sequence.
+-- O setval garante que os ids gerados fiquem acima dos que ja existem na tabela.
+create sequence if not exists financas.lancamento_seq increment by 50;
+select setval('financas.lancamento_seq', greatest(
+	(select coalesce(max(id), 1) from financas.lancamento),
+	(select last_value from financas.lancamento_seq)));
+
+create table if not exists financas.saldo_usuario (
+	id_usuario bigint primary key references financas.usuario (id),
+	valor numeric(16, 2) not null,
+	data_atualizacao timestamp
+);
+
+create table if not exists financas.lancamento_trigrama (
+	id_lancamento bigint not null,
+	trigrama varchar(3) not null,
+	id_usuario bigint not null,
+	primary key (id_lancamento, trigrama)
+);
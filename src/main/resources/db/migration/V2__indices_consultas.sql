@@ -0,0 +1,12 @@
+-- Listagem, paginação, exportação, saldo mensal e operações em lote filtram sempre pelo usuario e depois por ano, mes e tipo.
+create index if not exists idx_lancamento_usuario_ano_mes_tipo
+	on financas.lancamento (id_usuario, ano, mes, tipo);
+
+-- Pesquisa por descrição: busca os trigramas do usuario e agrupa pelo lancamento sem precisar ler a tabela.
+create index if not exists idx_lancamento_trigrama_usuario
+	on financas.lancamento_trigrama (id_usuario, trigrama, id_lancamento);
+
+-- Garante um usuario por email, o cadastro depende dessa constraint em vez de consultar o email antes de inserir.
+-- Se o banco ja tiver emails repetidos a migração falha e os registros precisam ser corrigidos antes.
+create unique index if not exists uk_usuario_email
+	on financas.usuario (email);
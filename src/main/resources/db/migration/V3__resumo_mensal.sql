@@ -0,0 +1,20 @@
+-- Resumo mensal dos lancamentos por usuario, ano, mes, tipo e status, mantido pelas escritas de lancamento.
+-- A chave primaria começa por (id_usuario, ano), que é exatamente o filtro do endpoint de resumo.
+create table if not exists financas.resumo_mensal (
+	id_usuario bigint not null,
+	ano integer not null,
+	mes integer not null,
+	tipo varchar(20) not null,
+	status varchar(20) not null,
+	valor numeric(16, 2) not null,
+	quantidade bigint not null,
+	primary key (id_usuario, ano, mes, tipo, status)
+);
+
+-- Carga inicial a partir dos lancamentos ja existentes
+insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, valor, quantidade)
+select id_usuario, ano, mes, tipo, status, sum(valor), count(*)
+from financas.lancamento
+where ano is not null and mes is not null and tipo is not null and status is not null
+group by id_usuario, ano, mes, tipo, status
+on conflict do nothing;
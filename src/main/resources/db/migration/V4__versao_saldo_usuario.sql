@@ -0,0 +1,4 @@
+-- Versao dos lancamentos de cada usuario, incrementada a cada escrita e enviada como ETag nas consultas.
+alter table financas.saldo_usuario add column if not exists versao bigint;
+update financas.saldo_usuario set versao = 0 where versao is null;
+alter table financas.saldo_usuario alter column versao set not null;
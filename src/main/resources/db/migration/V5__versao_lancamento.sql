@@ -0,0 +1,2 @@
+-- Versao de cada lancamento para o controle otimista de concorrencia do PUT com If-Match.
+alter table financas.lancamento add column if not exists versao bigint not null default 0;
@@ -0,0 +1,25 @@
+-- Mapa de usuarios por shard, usado somente no shard principal (MapaShards). Gera os ids de usuario de todos os shards
+-- e garante o email unico entre eles. Os usuarios ja existentes entram no mapa no shard em que estao.
+create table if not exists financas.usuario_shard (
+	id_usuario bigserial primary key,
+	email varchar(255) not null,
+	shard varchar(50) not null,
+	bloqueado boolean not null default false,
+	constraint uk_usuario_shard_email unique (email)
+);
+
+insert into financas.usuario_shard (id_usuario, email, shard)
+select id, email, '${shard}'
+from financas.usuario
+where email is not null
+on conflict do nothing;
+
+select setval(pg_get_serial_sequence('financas.usuario_shard', 'id_usuario'), greatest(
+	(select coalesce(max(id), 1) from financas.usuario),
+	(select coalesce(max(id_usuario), 1) from financas.usuario_shard)));
+
+-- Cada shard gera ids de lancamento em uma faixa propria (shard_indice * 10^12), para que um usuario possa ser
+-- movido entre shards sem colisão de ids. No principal, indice 0, a sequence continua como esta.
+select setval('financas.lancamento_seq', greatest(
+	(select last_value from financas.lancamento_seq),
+	${shard_indice} * 1000000000000));
@@ -0,0 +1,4 @@
+-- Paginação por cursor da listagem: filtra pelo usuario e percorre na mesma ordem do order by (ano, mes, id),
+-- assim cada pagina é uma faixa do indice sem ordenar os lancamentos do usuario.
+create index if not exists idx_lancamento_usuario_ano_mes_id
+	on financas.lancamento (id_usuario, ano, mes, id);
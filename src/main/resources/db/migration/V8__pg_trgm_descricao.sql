@@ -0,0 +1,10 @@
+-- Pesquisa por descrição com o pg_trgm: o operador % compara os trigramas da descrição pelo indice GIN,
+-- sem ler todos os lancamentos do usuario. A extensão fica no schema public, onde a aplicação resolve
+-- o operador e a função similarity.
+create extension if not exists pg_trgm with schema public;
+
+create index if not exists idx_lancamento_descricao_trgm
+	on financas.lancamento using gin (descricao public.gin_trgm_ops);
+
+-- No Postgres a tabela de trigramas deixa de ser mantida pelas escritas, ela continua somente para os outros bancos.
+truncate table financas.lancamento_trigrama;
@@ -0,0 +1,121 @@
+package com.renatom.minhasfinancas.colunar;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.SaldoMensalDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+public class LancamentosColunaresTest {
+
+	@Test
+	public void deveManterAOrdemDoBancoAoGravarERemover() {
+		// cenario
+		LancamentosColunares lancamentos = new LancamentosColunares(1l, 10l);
+		lancamentos.acrescentar(criarLancamento(5l, "Mercado", 2020, 1, "10.50", TipoLancamento.DESPESA));
+		lancamentos.acrescentar(criarLancamento(2l, "Salario", 2020, 2, "3000", TipoLancamento.RECEITA));
+		lancamentos.acrescentar(criarLancamento(7l, "Aluguel", 2020, 2, "900", TipoLancamento.DESPESA));
+
+		// execução
+		LancamentoDTO alterado = criarLancamento(5l, "Mercado do mes", 2020, 3, "12.40", TipoLancamento.DESPESA);
+		alterado.setVersao(1l);
+		lancamentos.gravar(alterado);
+		lancamentos.gravar(criarLancamento(3l, "Luz", 2020, 2, "150", TipoLancamento.DESPESA));
+		lancamentos.remover(7l);
+
+		// verificação
+		List<LancamentoDTO> todos = lancamentos.consultar(criarFiltro());
+		Assertions.assertThat(todos).extracting(LancamentoDTO::getId).containsExactly(2l, 3l, 5l);
+		Assertions.assertThat(todos.get(2).getDescricao()).isEqualTo("Mercado do mes");
+		Assertions.assertThat(todos.get(2).getValor()).isEqualTo(new BigDecimal("12.40"));
+		Assertions.assertThat(lancamentos.getVersaoUsuario()).isEqualTo(13l);
+	}
+
+	@Test
+	public void deveIgnorarUmaGravacaoComVersaoAnterior() {
+		// cenario
+		LancamentosColunares lancamentos = new LancamentosColunares(1l, 0l);
+		LancamentoDTO atual = criarLancamento(1l, "Mercado", 2020, 1, "10", TipoLancamento.DESPESA);
+		atual.setVersao(2l);
+		lancamentos.acrescentar(atual);
+
+		// execução
+		LancamentoDTO atrasado = criarLancamento(1l, "Mercadinho", 2020, 1, "10", TipoLancamento.DESPESA);
+		atrasado.setVersao(1l);
+		lancamentos.gravar(atrasado);
+
+		// verificação
+		Assertions.assertThat(lancamentos.consultar(criarFiltro())).extracting(LancamentoDTO::getDescricao)
+				.containsExactly("Mercado");
+	}
+
+	@Test
+	public void deveFiltrarPorAnoMesEDescricaoIgnorandoCaixa() {
+		// cenario
+		LancamentosColunares lancamentos = new LancamentosColunares(1l, 0l);
+		lancamentos.acrescentar(criarLancamento(1l, "Conta de Luz", 2019, 3, "100", TipoLancamento.DESPESA));
+		lancamentos.acrescentar(criarLancamento(2l, "Conta de Luz", 2020, 3, "110", TipoLancamento.DESPESA));
+		lancamentos.acrescentar(criarLancamento(3l, "Agua", 2020, 3, "50", TipoLancamento.DESPESA));
+		lancamentos.acrescentar(criarLancamento(4l, "Conta de luz", 2020, 4, "120", TipoLancamento.DESPESA));
+
+		Lancamento filtro = criarFiltro();
+		filtro.setAno(2020);
+		filtro.setDescricao("LUZ");
+
+		// execução
+		List<LancamentoDTO> doAno = lancamentos.consultar(filtro);
+		filtro.setMes(3);
+		List<LancamentoDTO> doMes = lancamentos.consultar(filtro);
+
+		// verificação
+		Assertions.assertThat(doAno).extracting(LancamentoDTO::getId).containsExactly(2l, 4l);
+		Assertions.assertThat(doMes).extracting(LancamentoDTO::getId).containsExactly(2l);
+	}
+
+	@Test
+	public void deveSomarReceitasEDespesasPorMesEStatus() {
+		// cenario
+		LancamentosColunares lancamentos = new LancamentosColunares(1l, 0l);
+		lancamentos.acrescentar(criarLancamento(1l, "Salario", 2020, 1, "3000", TipoLancamento.RECEITA));
+		lancamentos.acrescentar(criarLancamento(2l, "Aluguel", 2020, 1, "900.25", TipoLancamento.DESPESA));
+		LancamentoDTO efetivado = criarLancamento(3l, "Luz", 2020, 1, "99.75", TipoLancamento.DESPESA);
+		efetivado.setStatus(StatusLancamento.EFETIVADO.name());
+		lancamentos.acrescentar(efetivado);
+		lancamentos.acrescentar(criarLancamento(4l, "Bonus", 2021, 1, "500", TipoLancamento.RECEITA));
+
+		// execução
+		List<SaldoMensalDTO> meses = lancamentos.obterSaldoMensal(2020);
+
+		// verificação
+		Assertions.assertThat(meses).extracting(SaldoMensalDTO::getStatus).containsExactly("EFETIVADO", "PENDENTE");
+		Assertions.assertThat(meses.get(0).getDespesas()).isEqualTo(new BigDecimal("99.75"));
+		Assertions.assertThat(meses.get(1).getReceitas()).isEqualTo(new BigDecimal("3000.00"));
+		Assertions.assertThat(meses.get(1).getSaldo()).isEqualTo(new BigDecimal("2099.75"));
+	}
+
+	private LancamentoDTO criarLancamento(Long id, String descricao, int ano, int mes, String valor, TipoLancamento tipo) {
+		return LancamentoDTO.builder()
+				.id(id)
+				.descricao(descricao)
+				.ano(ano)
+				.mes(mes)
+				.usuario(1l)
+				.valor(new BigDecimal(valor))
+				.tipo(tipo.name())
+				.status(StatusLancamento.PENDENTE.name())
+				.versao(0l)
+				.build();
+	}
+
+	private Lancamento criarFiltro() {
+		return Lancamento.builder().usuario(Usuario.builder().id(1l).build()).build();
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.renatom.minhasfinancas.controller;
+
+import java.util.Collections;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.renatom.minhasfinancas.service.TokenService;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = CacheController.class)
+@AutoConfigureMockMvc
+public class CacheControllerTest {
+
+	static final String API = "/api/cache/estatisticas";
+
+	@Autowired
+	MockMvc mvc;
+
+	@MockBean
+	CacheManager cacheManager;
+
+	@MockBean
+	TokenService tokenService;
+
+//	O controller le as estatisticas do Hibernate no construtor, entao a fabrica precisa existir antes dos testes.
+	@TestConfiguration
+	static class Configuracao {
+
+		@Bean
+		EntityManagerFactory entityManagerFactory() {
+			SessionFactory sessionFactory = Mockito.mock(SessionFactory.class);
+			Statistics estatisticas = Mockito.mock(Statistics.class);
+			Mockito.when(sessionFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+			Mockito.when(sessionFactory.getStatistics()).thenReturn(estatisticas);
+			Mockito.when(estatisticas.getSecondLevelCacheRegionNames()).thenReturn(new String[0]);
+			return sessionFactory;
+		}
+
+	}
+
+	@Test
+	public void deveExigirOTokenParaAsEstatisticas() throws Exception {
+//		Execução e verificação
+		mvc.perform(MockMvcRequestBuilders.get(API)).andExpect(MockMvcResultMatchers.status().isUnauthorized());
+	}
+
+	@Test
+	public void deveRetornarAsEstatisticasComToken() throws Exception {
+//		cenario
+		Mockito.when(tokenService.obterIdUsuario("token")).thenReturn(1l);
+		Mockito.when(cacheManager.getCacheNames()).thenReturn(Collections.emptyList());
+
+//		Execução e verificação
+		mvc.perform(MockMvcRequestBuilders.get(API).header("Authorization", "Bearer token"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+	}
+
+}
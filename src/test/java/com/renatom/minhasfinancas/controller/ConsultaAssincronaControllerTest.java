@@ -0,0 +1,96 @@
+package com.renatom.minhasfinancas.controller;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.service.ConsultaAssincronaService;
+import com.renatom.minhasfinancas.service.TokenService;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = ConsultaAssincronaController.class)
+@AutoConfigureMockMvc
+public class ConsultaAssincronaControllerTest {
+
+	static final String API = "/api/async";
+
+	@Autowired
+	MockMvc mvc;
+
+	@MockBean
+	ConsultaAssincronaService service;
+
+	@MockBean
+	TokenService tokenService;
+
+	@Test
+	public void deveRetornarOLancamentoDoUsuarioDoToken() throws Exception {
+//		cenario
+		Mockito.when(tokenService.obterIdUsuario("token")).thenReturn(1l);
+		LancamentoDTO dto = LancamentoDTO.builder().id(5l).usuario(1l).descricao("salario").build();
+		Mockito.when(service.consultarPorId(5l)).thenReturn(CompletableFuture.completedFuture(Optional.of(dto)));
+
+//		execução
+		MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/lancamentos/5"))
+				.header("Authorization", "Bearer token"))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+
+//		verificação
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("descricao").value("salario"));
+	}
+
+	@Test
+	public void deveRetornarServicoIndisponivelQuandoAFilaDeConsultasEstiverCheia() throws Exception {
+//		cenario
+		Mockito.when(tokenService.obterIdUsuario("token")).thenReturn(1l);
+		Mockito.when(service.obterSaldoPorUsuario(1l)).thenThrow(new RejectedExecutionException());
+
+//		execução e verificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/usuarios/1/saldo"))
+				.header("Authorization", "Bearer token"))
+				.andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+	}
+
+	@Test
+	public void deveRetornarRequisicaoInvalidaQuandoAConsultaFalharComRegraDeNegocio() throws Exception {
+//		cenario
+		Mockito.when(tokenService.obterIdUsuario("token")).thenReturn(1l);
+		CompletableFuture<PaginaCursorDTO<LancamentoDTO>> falha = new CompletableFuture<>();
+		falha.completeExceptionally(new RegraNegocioException("Cursor inválido."));
+		Mockito.when(service.buscarPagina(Mockito.any(), Mockito.eq("abc"), Mockito.anyInt())).thenReturn(falha);
+
+//		execução
+		MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/lancamentos"))
+				.param("cursor", "abc")
+				.header("Authorization", "Bearer token"))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+
+//		verificação
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest())
+				.andExpect(MockMvcResultMatchers.content().string("Cursor inválido."));
+	}
+
+}
@@ -0,0 +1,214 @@
+package com.renatom.minhasfinancas.controller;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.exception.ErroAutenticacao;
+import com.renatom.minhasfinancas.exception.VersaoConflitanteException;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.service.LancamentoLoteService;
+import com.renatom.minhasfinancas.service.LancamentoService;
+import com.renatom.minhasfinancas.service.PesquisaLancamentoService;
+import com.renatom.minhasfinancas.service.TokenService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = LancamentoController.class)
+@AutoConfigureMockMvc
+public class LancamentoControllerTest {
+
+//	O @WebMvcTest nao configura as metricas, o registry simples permite verificar o financas.excecoes.
+	@TestConfiguration
+	static class ConfiguracaoMetricas {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+	}
+
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	MeterRegistry registry;
+
+	@MockBean
+	LancamentoService service;
+
+	@MockBean
+	PesquisaLancamentoService pesquisaService;
+
+	@MockBean
+	LancamentoLoteService loteService;
+
+	@MockBean
+	TokenService tokenService;
+
+	@Before
+	public void autenticar() {
+		Mockito.when(tokenService.obterIdUsuario("token")).thenReturn(1l);
+	}
+
+	@Test
+	public void deveRetornarAVersaoDoLancamentoComoEtag() throws Exception {
+//		cenario
+		LancamentoDTO lancamento = criarLancamento();
+		Mockito.when(service.consultarPorId(10l)).thenReturn(Optional.of(lancamento));
+
+//		Execução e verificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/10")).header("Authorization", "Bearer token"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"3\""))
+				.andExpect(MockMvcResultMatchers.header().string("Vary", "Accept"));
+
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/10")).header("Authorization", "Bearer token")
+				.header("If-None-Match", "\"3\""))
+				.andExpect(MockMvcResultMatchers.status().isNotModified());
+	}
+
+	@Test
+	public void deveVariarAListaPeloAcceptInclusiveNoNaoModificado() throws Exception {
+//		cenario
+		Mockito.when(service.obterVersaoPorUsuario(1l)).thenReturn(7l);
+		Mockito.when(service.consultar(Mockito.any(Lancamento.class))).thenReturn(Collections.singletonList(criarLancamento()));
+
+//		Execução e verificação
+		mvc.perform(MockMvcRequestBuilders.get(API).header("Authorization", "Bearer token").accept("application/x-protobuf"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"1-7\""))
+				.andExpect(MockMvcResultMatchers.header().stringValues("Vary", "Accept"));
+
+		mvc.perform(MockMvcRequestBuilders.get(API).header("Authorization", "Bearer token").accept(JSON)
+				.header("If-None-Match", "\"1-7\""))
+				.andExpect(MockMvcResultMatchers.status().isNotModified())
+				.andExpect(MockMvcResultMatchers.header().stringValues("Vary", "Accept"));
+		Mockito.verify(service).consultar(Mockito.any(Lancamento.class));
+	}
+
+	@Test
+	public void deveAtualizarComAVersaoDoIfMatch() throws Exception {
+//		cenario
+		Lancamento atualizado = Lancamento.builder()
+				.id(10l)
+				.descricao("Mercado")
+				.ano(2020)
+				.mes(1)
+				.usuario(Usuario.builder().id(1l).build())
+				.valor(BigDecimal.TEN)
+				.tipo(TipoLancamento.DESPESA)
+				.status(StatusLancamento.PENDENTE)
+				.versao(4l)
+				.build();
+		Mockito.when(service.atualizar(Mockito.any(Lancamento.class))).thenReturn(atualizado);
+
+//		Execução e verificação
+		mvc.perform(criarPut("\"3\""))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"4\""));
+
+		ArgumentCaptor<Lancamento> enviado = ArgumentCaptor.forClass(Lancamento.class);
+		Mockito.verify(service).atualizar(enviado.capture());
+		Assertions.assertThat(enviado.getValue().getVersao()).isEqualTo(3l);
+	}
+
+	@Test
+	public void deveResponderPreCondicaoFalhaParaUmIfMatchFraco() throws Exception {
+//		Execução e verificação
+		mvc.perform(criarPut("W/\"3\"")).andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+		Mockito.verify(service, Mockito.never()).atualizar(Mockito.any());
+	}
+
+	@Test
+	public void deveResponderRequisicaoInvalidaParaUmIfMatchForaDoFormato() throws Exception {
+//		Execução e verificação
+		mvc.perform(criarPut("3")).andExpect(MockMvcResultMatchers.status().isBadRequest());
+		mvc.perform(criarPut("\"abc\"")).andExpect(MockMvcResultMatchers.status().isBadRequest());
+		mvc.perform(criarPut("\"3\", \"4\"")).andExpect(MockMvcResultMatchers.status().isBadRequest());
+		Mockito.verify(service, Mockito.never()).atualizar(Mockito.any());
+	}
+
+	@Test
+	public void deveResponderEContarUmaVezOConflitoDeVersao() throws Exception {
+//		cenario
+		Mockito.when(service.atualizar(Mockito.any(Lancamento.class)))
+				.thenThrow(new VersaoConflitanteException("Lançamento alterado por outra requisição."));
+		double antes = contarExcecoes("VersaoConflitanteException");
+
+//		Execução e verificação
+		mvc.perform(criarPut("\"3\""))
+				.andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+				.andExpect(MockMvcResultMatchers.content().string("Lançamento alterado por outra requisição."));
+		Assertions.assertThat(contarExcecoes("VersaoConflitanteException")).isEqualTo(antes + 1);
+	}
+
+	@Test
+	public void deveContarOTokenRecusadoPeloFiltro() throws Exception {
+//		cenario
+		Mockito.when(tokenService.obterIdUsuario("invalido")).thenThrow(new ErroAutenticacao("Token inválido."));
+		double antes = contarExcecoes("ErroAutenticacao");
+
+//		Execução e verificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/10")).header("Authorization", "Bearer invalido"))
+				.andExpect(MockMvcResultMatchers.status().isUnauthorized());
+		Assertions.assertThat(contarExcecoes("ErroAutenticacao")).isEqualTo(antes + 1);
+	}
+
+	private double contarExcecoes(String tipo) {
+		return registry.counter("financas.excecoes", "tipo", tipo).count();
+	}
+
+	private MockHttpServletRequestBuilder criarPut(String ifMatch) throws Exception {
+		String json = new ObjectMapper().writeValueAsString(criarLancamento());
+		return MockMvcRequestBuilders.put(API.concat("/10")).header("Authorization", "Bearer token")
+				.header("If-Match", ifMatch).accept(JSON).contentType(JSON).content(json);
+	}
+
+	private LancamentoDTO criarLancamento() {
+		return LancamentoDTO.builder()
+				.id(10l)
+				.descricao("Mercado")
+				.ano(2020)
+				.mes(1)
+				.usuario(1l)
+				.valor(BigDecimal.TEN)
+				.tipo("DESPESA")
+				.status("PENDENTE")
+				.versao(3l)
+				.build();
+	}
+
+}
@@ -22,6 +22,8 @@ import com.renatom.minhasfinancas.exception.ErroAutenticacao;
 import com.renatom.minhasfinancas.exception.RegraNegocioException;
 import com.renatom.minhasfinancas.model.entity.Usuario;
 import com.renatom.minhasfinancas.service.LancamentoService;
+import com.renatom.minhasfinancas.service.ResumoMensalService;
+import com.renatom.minhasfinancas.service.TokenService;
 import com.renatom.minhasfinancas.service.UsuarioService;
 
 @RunWith(SpringRunner.class)
@@ -41,6 +43,12 @@ public class UsuarioControllerTest {
 	
 	@MockBean
 	LancamentoService lancamentoService;
+	
+	@MockBean
+	TokenService tokenService;
+	
+	@MockBean
+	ResumoMensalService resumoService;
 
 	@Test
 	public void deveAutenticarUmUsuario() throws Exception {
@@ -52,6 +60,7 @@ public class UsuarioControllerTest {
 		Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
 
 		Mockito.when(service.autenticar(email, senha)).thenReturn(usuario);
+		Mockito.when(tokenService.gerarToken(usuario)).thenReturn("token");
 
 //		Ira criar uma string com formato de json com o usuario dto
 		String json = new ObjectMapper().writeValueAsString(dto);
@@ -66,7 +75,8 @@ public class UsuarioControllerTest {
 		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk())
 				.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 				.andExpect(MockMvcResultMatchers.jsonPath("name").value(usuario.getName()))
-				.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()));
+				.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()))
+				.andExpect(MockMvcResultMatchers.jsonPath("token").value("token"));
 
 	}
 	
@@ -143,5 +153,40 @@ public class UsuarioControllerTest {
 
 	}
 	
+	@Test
+	public void deveRecusarConsultaDeSaldoSemToken() throws Exception {
+//		Execução e verificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")))
+				.andExpect(MockMvcResultMatchers.status().isUnauthorized());
+	}
+	
+	@Test
+	public void naoDevePermitirConsultarOSaldoDeOutroUsuario() throws Exception {
+//		cenario
+		Mockito.when(tokenService.obterIdUsuario("token")).thenReturn(1l);
+
+//		Execução e verificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/2/saldo")).header("Authorization", "Bearer token"))
+				.andExpect(MockMvcResultMatchers.status().isForbidden());
+	}
+	
+	@Test
+	public void deveResponderNaoModificadoQuandoOEtagForDaVersaoAtual() throws Exception {
+//		cenario
+		Mockito.when(tokenService.obterIdUsuario("token")).thenReturn(1l);
+		Mockito.when(lancamentoService.obterVersaoPorUsuario(1l)).thenReturn(5l);
+
+//		Execução e verificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header("Authorization", "Bearer token")
+				.header("If-None-Match", "\"1-5\""))
+				.andExpect(MockMvcResultMatchers.status().isNotModified());
+		Mockito.verify(lancamentoService, Mockito.never()).obterSaldoPorUsuario(Mockito.anyLong());
+		
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header("Authorization", "Bearer token")
+				.header("If-None-Match", "\"1-4\""))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"1-5\""));
+	}
+	
 	
 }
@@ -0,0 +1,50 @@
+package com.renatom.minhasfinancas.conversao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
+import com.renatom.minhasfinancas.dto.ResumoMensalDTO;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+public class LancamentoProtobufTest {
+
+	@Test
+	public void deveLerAPaginaEscritaComOsMesmosValores() throws Exception {
+		// cenario
+		LancamentoDTO completo = new LancamentoDTO(10l, "Salário", 1, 2024, 3l, new BigDecimal("1500.50"),
+				TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 2l);
+		LancamentoDTO semCampos = LancamentoDTO.builder().id(11l).valor(new BigDecimal("-0.01")).build();
+		ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+		// execução
+		LancamentoProtobuf.escrever(Arrays.asList(completo, semCampos), "cursor", saida);
+		PaginaCursorDTO<LancamentoDTO> pagina = LancamentoProtobuf.ler(new ByteArrayInputStream(saida.toByteArray()));
+
+		// verificação
+		Assertions.assertThat(pagina.getProximoCursor()).isEqualTo("cursor");
+		Assertions.assertThat(pagina.getItens()).containsExactly(completo, semCampos);
+	}
+
+	@Test
+	public void deveRecusarListasQueNaoSaoDeLancamentos() {
+		// cenario
+		LancamentoProtobufHttpMessageConverter converter = new LancamentoProtobufHttpMessageConverter();
+		ResumoMensalDTO resumo = new ResumoMensalDTO();
+
+		// execução e verificação
+		Assertions.assertThatThrownBy(() -> converter.write(Arrays.asList(resumo),
+				LancamentoProtobufHttpMessageConverter.PROTOBUF, new MockHttpOutputMessage()))
+				.isInstanceOf(HttpMessageNotWritableException.class);
+	}
+
+}
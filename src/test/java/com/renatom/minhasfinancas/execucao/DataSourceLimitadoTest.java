@@ -0,0 +1,90 @@
+package com.renatom.minhasfinancas.execucao;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.renatom.minhasfinancas.shard.ShardDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class DataSourceLimitadoTest {
+
+	@Test
+	public void deveLimitarAsConexoesAbertasEDevolverAPermissaoNoClose() throws Exception {
+		// cenario
+		DataSource original = Mockito.mock(DataSource.class);
+		Mockito.when(original.getConnection()).thenAnswer(invocation -> Mockito.mock(Connection.class));
+		DataSourceLimitado dataSource = new DataSourceLimitado(original, 1, 10);
+
+		// execução
+		Connection conexao = dataSource.getConnection();
+		Throwable semPermissao = Assertions.catchThrowable(dataSource::getConnection);
+		conexao.close();
+		conexao.close();
+
+		// verificação
+		Assertions.assertThat(semPermissao).isInstanceOf(SQLTransientConnectionException.class);
+		Assertions.assertThat(dataSource.getPermissoesDisponiveis()).isEqualTo(1);
+		Assertions.assertThat(dataSource.getConnection()).isNotNull();
+	}
+
+	@Test
+	public void deveDevolverAPermissaoQuandoOPoolFalhar() throws Exception {
+		// cenario
+		DataSource original = Mockito.mock(DataSource.class);
+		Mockito.when(original.getConnection()).thenThrow(new SQLTransientConnectionException("pool"));
+		DataSourceLimitado dataSource = new DataSourceLimitado(original, 1, 10);
+
+		// execução
+		Throwable erro = Assertions.catchThrowable(dataSource::getConnection);
+
+		// verificação
+		Assertions.assertThat(erro).hasMessage("pool");
+		Assertions.assertThat(dataSource.getPermissoesDisponiveis()).isEqualTo(1);
+	}
+
+	@Test
+	public void deveLimitarCadaPoolDoDataSourceAgrupadoComOTamanhoDoProprioPool() throws Exception {
+		// cenario
+		HikariDataSource principal = criarPool(1);
+		HikariDataSource shard = criarPool(2);
+		Map<String, DataSource> pools = new LinkedHashMap<>();
+		pools.put(ShardDataSource.PRINCIPAL, principal);
+		pools.put("shard-1", shard);
+		ShardDataSource shards = new ShardDataSource(pools);
+		BeanPostProcessor postProcessor = ConfiguracaoExecucao.limiteConexoesPostProcessor(new MockEnvironment());
+
+		// execução
+		Object processado = postProcessor.postProcessAfterInitialization(shards, "dataSource");
+
+		// verificação
+		Assertions.assertThat(processado).isSameAs(shards);
+		Assertions.assertThat(((DataSourceLimitado) shards.getShard(ShardDataSource.PRINCIPAL)).getPermissoesDisponiveis()).isEqualTo(1);
+		Assertions.assertThat(((DataSourceLimitado) shards.getShard("shard-1")).getPermissoesDisponiveis()).isEqualTo(2);
+
+		Assertions.assertThat(shards.getConnection()).isNotNull();
+		Assertions.assertThat(shards.getShard("shard-1").getConnection()).isNotNull();
+
+		shards.close();
+		Mockito.verify(principal).close();
+		Mockito.verify(shard).close();
+	}
+
+	private HikariDataSource criarPool(int tamanho) throws Exception {
+		HikariDataSource pool = Mockito.mock(HikariDataSource.class);
+		Mockito.when(pool.getMaximumPoolSize()).thenReturn(tamanho);
+		Mockito.when(pool.getConnectionTimeout()).thenReturn(10l);
+		Mockito.when(pool.getConnection()).thenAnswer(invocation -> Mockito.mock(Connection.class));
+		return pool;
+	}
+
+}
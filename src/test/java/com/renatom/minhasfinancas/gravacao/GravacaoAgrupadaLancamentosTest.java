@@ -0,0 +1,170 @@
+package com.renatom.minhasfinancas.gravacao;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.renatom.minhasfinancas.exception.GravacaoNaoConfirmadaException;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.renatom.minhasfinancas.service.PesquisaLancamentoService;
+import com.renatom.minhasfinancas.service.ResumoMensalService;
+import com.renatom.minhasfinancas.service.SaldoUsuarioService;
+
+public class GravacaoAgrupadaLancamentosTest {
+
+	private LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+
+	private SaldoUsuarioService saldoService = Mockito.mock(SaldoUsuarioService.class);
+
+	private TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+
+	private ExecutorService requisicoes = Executors.newCachedThreadPool();
+
+	@Test
+	public void deveGravarOsLancamentosDaFilaEmUmaUnicaTransacao() throws Exception {
+		// cenario
+		executarTransacoes();
+		GravacaoAgrupadaLancamentos gravacao = criarGravacao(10);
+		CompletableFuture<Lancamento> primeiro = gravarEmOutraThread(gravacao, criarLancamento(1l));
+		CompletableFuture<Lancamento> segundo = gravarEmOutraThread(gravacao, criarLancamento(2l));
+		aguardarPendentes(gravacao, 2);
+
+		// execução
+		gravacao.iniciar();
+
+		// verificação
+		Assertions.assertThat(primeiro.get(5, TimeUnit.SECONDS).getUsuario().getId()).isEqualTo(1l);
+		Assertions.assertThat(segundo.get(5, TimeUnit.SECONDS).getUsuario().getId()).isEqualTo(2l);
+		Mockito.verify(transactionTemplate, Mockito.times(1)).execute(Mockito.any());
+		Mockito.verify(saldoService).atualizarSaldo(1l, BigDecimal.valueOf(10));
+		Mockito.verify(saldoService).atualizarSaldo(2l, BigDecimal.valueOf(10));
+		gravacao.encerrar();
+	}
+
+	@Test
+	public void deveRetornarOErroSomenteParaOLancamentoQueFalhou() throws Exception {
+		// cenario
+		executarTransacoes();
+		Mockito.when(repository.saveAll(Mockito.anyIterable())).thenAnswer(invocation -> {
+			List<Lancamento> lancamentos = invocation.getArgument(0);
+			if (lancamentos.stream().anyMatch(lancamento -> lancamento.getUsuario().getId() == 99l)) {
+				throw new DataIntegrityViolationException("fk_lancamento_usuario");
+			}
+			return lancamentos;
+		});
+		GravacaoAgrupadaLancamentos gravacao = criarGravacao(10);
+		CompletableFuture<Lancamento> valido = gravarEmOutraThread(gravacao, criarLancamento(1l));
+		CompletableFuture<Lancamento> invalido = gravarEmOutraThread(gravacao, criarLancamento(99l));
+		aguardarPendentes(gravacao, 2);
+
+		// execução
+		gravacao.iniciar();
+		Throwable erro = Assertions.catchThrowable(() -> invalido.join());
+
+		// verificação
+		Assertions.assertThat(valido.get(5, TimeUnit.SECONDS).getUsuario().getId()).isEqualTo(1l);
+		Assertions.assertThat(erro).isInstanceOf(CompletionException.class)
+				.hasCauseInstanceOf(DataIntegrityViolationException.class);
+		Mockito.verify(transactionTemplate, Mockito.times(3)).execute(Mockito.any());
+		Mockito.verify(saldoService, Mockito.never()).atualizarSaldo(Mockito.eq(99l), Mockito.any());
+		gravacao.encerrar();
+	}
+
+	@Test
+	public void deveRecusarQuandoAFilaEstiverCheia() throws Exception {
+		// cenario
+		GravacaoAgrupadaLancamentos gravacao = criarGravacao(1);
+		gravarEmOutraThread(gravacao, criarLancamento(1l));
+		aguardarPendentes(gravacao, 1);
+
+		// execução e verificação
+		Throwable erro = Assertions.catchThrowable(() -> gravacao.gravar(criarLancamento(2l)));
+		Assertions.assertThat(erro).isInstanceOf(RejectedExecutionException.class);
+		gravacao.iniciar();
+		gravacao.encerrar();
+	}
+
+	@Test
+	public void deveCompletarOsLancamentosDoLoteQuandoOEscritorReceberUmError() throws Exception {
+		// cenario
+		Mockito.when(transactionTemplate.execute(Mockito.any()))
+				.thenThrow(new StackOverflowError("escritor"))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		GravacaoAgrupadaLancamentos gravacao = criarGravacao(10);
+		CompletableFuture<Lancamento> pendente = gravarEmOutraThread(gravacao, criarLancamento(1l));
+		aguardarPendentes(gravacao, 1);
+
+		// execução
+		gravacao.iniciar();
+
+		// verificação
+		Throwable erro = Assertions.catchThrowable(() -> pendente.get(5, TimeUnit.SECONDS));
+		Assertions.assertThat(erro).hasRootCauseInstanceOf(StackOverflowError.class);
+
+		Assertions.assertThat(gravacao.gravar(criarLancamento(2l))).isNotNull();
+		gravacao.encerrar();
+	}
+
+	@Test
+	public void deveDesistirEDescartarOLancamentoQuandoOCommitNaoVierNoTimeout() throws Exception {
+		// cenario
+		executarTransacoes();
+		GravacaoAgrupadaLancamentos gravacao = criarGravacao(10, 50);
+
+		// execução
+		Throwable erro = Assertions.catchThrowable(() -> gravacao.gravar(criarLancamento(1l)));
+		gravacao.iniciar();
+		gravacao.encerrar();
+
+		// verificação
+		Assertions.assertThat(erro).isInstanceOf(GravacaoNaoConfirmadaException.class);
+		Mockito.verify(transactionTemplate, Mockito.never()).execute(Mockito.any());
+	}
+
+	private void executarTransacoes() {
+		Mockito.when(transactionTemplate.execute(Mockito.any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
+	private GravacaoAgrupadaLancamentos criarGravacao(int capacidadeFila) {
+		return criarGravacao(capacidadeFila, 5000);
+	}
+
+	private GravacaoAgrupadaLancamentos criarGravacao(int capacidadeFila, long timeoutMs) {
+		return new GravacaoAgrupadaLancamentos(repository, saldoService, Mockito.mock(PesquisaLancamentoService.class),
+				Mockito.mock(ResumoMensalService.class), transactionTemplate, capacidadeFila, 500, timeoutMs);
+	}
+
+	private CompletableFuture<Lancamento> gravarEmOutraThread(GravacaoAgrupadaLancamentos gravacao, Lancamento lancamento) {
+		return CompletableFuture.supplyAsync(() -> gravacao.gravar(lancamento), requisicoes);
+	}
+
+	private void aguardarPendentes(GravacaoAgrupadaLancamentos gravacao, int pendentes) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 5000;
+		while (gravacao.getPendentes() < pendentes && System.currentTimeMillis() < limite) {
+			Thread.sleep(10);
+		}
+	}
+
+	private Lancamento criarLancamento(Long idUsuario) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(idUsuario).build());
+		return lancamento;
+	}
+
+}
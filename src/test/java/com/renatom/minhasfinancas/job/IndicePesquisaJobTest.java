@@ -0,0 +1,62 @@
+package com.renatom.minhasfinancas.job;
+
+import java.util.Optional;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.renatom.minhasfinancas.service.PesquisaLancamentoService;
+
+public class IndicePesquisaJobTest {
+
+	private PesquisaLancamentoService pesquisaService = Mockito.mock(PesquisaLancamentoService.class);
+
+	private IndicePesquisaJob job = new IndicePesquisaJob(pesquisaService, Optional.empty());
+
+	@Test
+	public void deveVerificarSomenteOsLancamentosNovosNasExecucoesSeguintes() {
+		// cenario
+		Mockito.when(pesquisaService.obterUltimoIdLancamento()).thenReturn(10l, 10l, 15l);
+		Mockito.when(pesquisaService.indexarPendentes(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt())).thenReturn(null);
+
+		// execução
+		job.executar();
+		job.executar();
+		job.executar();
+
+		// verificação
+		Mockito.verify(pesquisaService).indexarPendentes(Mockito.eq(0l), Mockito.eq(10l), Mockito.anyInt());
+		Mockito.verify(pesquisaService).indexarPendentes(Mockito.eq(10l), Mockito.eq(15l), Mockito.anyInt());
+		Mockito.verify(pesquisaService, Mockito.times(2)).indexarPendentes(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt());
+	}
+
+	@Test
+	public void deveContinuarDoUltimoLoteQuandoAExecucaoAtingirOLimiteDeLotes() {
+		// cenario
+		Mockito.when(pesquisaService.obterUltimoIdLancamento()).thenReturn(1_000_000l);
+		Mockito.when(pesquisaService.indexarPendentes(Mockito.anyLong(), Mockito.eq(1_000_000l), Mockito.anyInt()))
+				.thenAnswer(invocation -> invocation.<Long>getArgument(0) + 500);
+
+		// execução
+		job.executar();
+		job.executar();
+
+		// verificação
+		Mockito.verify(pesquisaService).indexarPendentes(Mockito.eq(0l), Mockito.anyLong(), Mockito.anyInt());
+		Mockito.verify(pesquisaService).indexarPendentes(Mockito.eq(50_000l), Mockito.anyLong(), Mockito.anyInt());
+		Mockito.verify(pesquisaService, Mockito.times(200)).indexarPendentes(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt());
+	}
+
+	@Test
+	public void deveIgnorarUmBancoSemLancamentos() {
+		// cenario
+		Mockito.when(pesquisaService.obterUltimoIdLancamento()).thenReturn(null);
+
+		// execução
+		job.executar();
+
+		// verificação
+		Mockito.verify(pesquisaService, Mockito.never()).indexarPendentes(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt());
+	}
+
+}
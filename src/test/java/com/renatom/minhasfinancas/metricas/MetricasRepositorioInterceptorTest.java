@@ -0,0 +1,43 @@
+package com.renatom.minhasfinancas.metricas;
+
+import org.assertj.core.api.Assertions;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.renatom.minhasfinancas.model.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricasRepositorioInterceptorTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deveRegistrarOTempoDaChamadaComRepositoryMetodoEEstado() throws Throwable {
+		// cenario
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ObjectProvider<MeterRegistry> provider = Mockito.mock(ObjectProvider.class);
+		Mockito.when(provider.getIfAvailable()).thenReturn(meterRegistry);
+		MethodInvocation invocation = Mockito.mock(MethodInvocation.class);
+		Mockito.when(invocation.getMethod()).thenReturn(UsuarioRepository.class.getMethod("existsByEmail", String.class));
+		Mockito.when(invocation.proceed()).thenReturn(true).thenThrow(new IllegalStateException());
+		MetricasRepositorioInterceptor interceptor = new MetricasRepositorioInterceptor(provider, UsuarioRepository.class);
+
+		// execução
+		interceptor.invoke(invocation);
+		Throwable erro = Assertions.catchThrowable(() -> interceptor.invoke(invocation));
+
+		// verificação
+		Assertions.assertThat(erro).isInstanceOf(IllegalStateException.class);
+		Timer sucesso = meterRegistry.find(MetricasRepositorioInterceptor.METRICA)
+				.tags("repository", "UsuarioRepository", "method", "existsByEmail", "state", "SUCCESS").timer();
+		Timer falha = meterRegistry.find(MetricasRepositorioInterceptor.METRICA)
+				.tags("state", "ERROR", "exception", "IllegalStateException").timer();
+		Assertions.assertThat(sucesso.count()).isEqualTo(1);
+		Assertions.assertThat(falha.count()).isEqualTo(1);
+	}
+
+}
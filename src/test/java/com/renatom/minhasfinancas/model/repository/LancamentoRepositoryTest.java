@@ -1,6 +1,9 @@
 package com.renatom.minhasfinancas.model.repository;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import org.assertj.core.api.Assertions;
@@ -14,7 +17,12 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.renatom.minhasfinancas.dto.CursorLancamento;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.SaldoMensalDTO;
+import com.renatom.minhasfinancas.dto.SaldoTotalDTO;
 import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
 import com.renatom.minhasfinancas.model.enums.StatusLancamento;
 import com.renatom.minhasfinancas.model.enums.TipoLancamento;
 
@@ -83,6 +91,129 @@ public class LancamentoRepositoryTest {
 	}
 	
 
+	@Test
+	public void deveSomarReceitasEDespesasPorMesEStatus() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		persisteLancamento(usuario, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 100);
+		persisteLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 30);
+		persisteLancamento(usuario, 2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 20);
+		
+		List<SaldoMensalDTO> meses = repository.obterSaldoMensalPorUsuarioEAno(usuario.getId(), 2019, 
+				TipoLancamento.RECEITA, TipoLancamento.DESPESA);
+		SaldoTotalDTO saldo = repository.obterSaldoPorUsuario(usuario.getId(), TipoLancamento.RECEITA, TipoLancamento.DESPESA);
+		
+		Assertions.assertThat(meses).hasSize(2);
+		Assertions.assertThat(meses.get(0).getMes()).isEqualTo(1);
+		Assertions.assertThat(meses.get(0).getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(70));
+		Assertions.assertThat(meses.get(1).getStatus()).isEqualTo(StatusLancamento.PENDENTE.name());
+		Assertions.assertThat(meses.get(1).getDespesas()).isEqualByComparingTo(BigDecimal.valueOf(20));
+		Assertions.assertThat(saldo.getReceitas()).isEqualByComparingTo(BigDecimal.valueOf(100));
+		Assertions.assertThat(saldo.getDespesas()).isEqualByComparingTo(BigDecimal.valueOf(50));
+		Assertions.assertThat(saldo.getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(50));
+	}
+	
+	@Test
+	public void deveRetornarSaldoZeradoParaUsuarioSemLancamentos() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		
+		SaldoTotalDTO saldo = repository.obterSaldoPorUsuario(usuario.getId(), TipoLancamento.RECEITA, TipoLancamento.DESPESA);
+		
+		Assertions.assertThat(saldo.getReceitas()).isEqualByComparingTo(BigDecimal.ZERO);
+		Assertions.assertThat(saldo.getDespesas()).isEqualByComparingTo(BigDecimal.ZERO);
+		Assertions.assertThat(saldo.getSaldo()).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+	
+	@Test
+	public void devePaginarPorCursorNaOrdemDeAnoMesEId() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento marco = persisteLancamento(usuario, 3, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 10);
+		Lancamento janeiro = persisteLancamento(usuario, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 10);
+		Lancamento fevereiro = persisteLancamento(usuario, 2, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 10);
+		Lancamento filtro = Lancamento.builder().usuario(usuario).build();
+		
+		List<LancamentoDTO> primeiraPagina = repository.buscarAposCursor(filtro, null, 2);
+		List<LancamentoDTO> segundaPagina = repository.buscarAposCursor(filtro, CursorLancamento.de(primeiraPagina.get(1)), 2);
+		
+		Assertions.assertThat(primeiraPagina).extracting(LancamentoDTO::getId).containsExactly(janeiro.getId(), fevereiro.getId());
+		Assertions.assertThat(segundaPagina).extracting(LancamentoDTO::getId).containsExactly(marco.getId());
+		Assertions.assertThat(segundaPagina.get(0).getUsuario()).isEqualTo(usuario.getId());
+	}
+	
+	@Test
+	public void deveConsultarAProjecaoDoLancamentoPorId() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = persisteLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 10);
+		
+		Optional<LancamentoDTO> dto = repository.consultarPorId(lancamento.getId());
+		
+		Assertions.assertThat(dto.isPresent()).isTrue();
+		Assertions.assertThat(dto.get().getUsuario()).isEqualTo(usuario.getId());
+		Assertions.assertThat(dto.get().getTipo()).isEqualTo("DESPESA");
+		Assertions.assertThat(dto.get().getStatus()).isEqualTo("PENDENTE");
+	}
+	
+	@Test
+	public void devePercorrerOsLancamentosDoFiltroNaOrdem() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		persisteLancamento(usuario, 2, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 10);
+		persisteLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 10);
+		persisteLancamento(usuario, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 10);
+		Lancamento filtro = Lancamento.builder().usuario(usuario).tipo(TipoLancamento.RECEITA).build();
+		
+		List<Integer> meses = new ArrayList<>();
+		repository.percorrer(filtro, lancamento -> meses.add(lancamento.getMes()));
+		
+		Assertions.assertThat(meses).containsExactly(1, 2);
+	}
+	
+	@Test
+	public void deveAtualizarStatusEExcluirEmLoteSomenteOsLancamentosDoFiltro() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento janeiro = persisteLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 10);
+		Lancamento fevereiro = persisteLancamento(usuario, 2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 10);
+		Lancamento filtro = Lancamento.builder().usuario(usuario).ano(2019).mes(1).build();
+		
+		int atualizados = repository.atualizarStatusEmLote(filtro, null, StatusLancamento.EFETIVADO);
+		BigDecimal impacto = repository.somarImpactoNoSaldo(filtro, null);
+		int excluidos = repository.deletarEmLote(filtro, Arrays.asList(janeiro.getId(), fevereiro.getId()));
+		entityManager.clear();
+		
+		Assertions.assertThat(atualizados).isEqualTo(1);
+		Assertions.assertThat(impacto).isEqualByComparingTo(BigDecimal.valueOf(-10));
+		Assertions.assertThat(excluidos).isEqualTo(1);
+		Assertions.assertThat(entityManager.find(Lancamento.class, janeiro.getId())).isNull();
+		Assertions.assertThat(entityManager.find(Lancamento.class, fevereiro.getId()).getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+	}
+	
+	@Test
+	public void deveAtualizarSomenteQuandoAVersaoForAInformada() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		Lancamento lancamento = persisteLancamento(usuario, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 10);
+		entityManager.flush();
+		
+		int atualizados = repository.atualizarSeVersao(lancamento.getId(), usuario.getId(), 0l, "Aluguel", 2, 2020,
+				BigDecimal.valueOf(50), TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+		int conflitantes = repository.atualizarStatusSeVersao(lancamento.getId(), usuario.getId(), 0l, StatusLancamento.CANCELADO);
+		entityManager.clear();
+		
+		Lancamento lancamentoAtualizado = entityManager.find(Lancamento.class, lancamento.getId());
+		Assertions.assertThat(atualizados).isEqualTo(1);
+		Assertions.assertThat(conflitantes).isEqualTo(0);
+		Assertions.assertThat(lancamentoAtualizado.getVersao()).isEqualTo(1l);
+		Assertions.assertThat(lancamentoAtualizado.getDescricao()).isEqualTo("Aluguel");
+		Assertions.assertThat(lancamentoAtualizado.getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+	}
+	
+	private Lancamento persisteLancamento(Usuario usuario, int mes, TipoLancamento tipo, StatusLancamento status, int valor) {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setMes(mes);
+		lancamento.setTipo(tipo);
+		lancamento.setStatus(status);
+		lancamento.setValor(BigDecimal.valueOf(valor));
+		return entityManager.persist(lancamento);
+	}
+
 	private Lancamento criaEPersisteUmLancamento() {
 		Lancamento lancamento = criarLancamento();
 		entityManager.persist(lancamento);
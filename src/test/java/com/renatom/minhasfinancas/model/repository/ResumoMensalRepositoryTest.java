@@ -0,0 +1,220 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.renatom.minhasfinancas.dto.ResumoMensalDTO;
+import com.renatom.minhasfinancas.dto.SaldoHistoricoDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class ResumoMensalRepositoryTest {
+
+	@Autowired
+	ResumoMensalRepository repository;
+
+	@Autowired
+	ResumoMensalRepositoryImpl repositoryImpl;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Test
+	public void deveRecalcularOResumoDoUsuarioAPartirDosLancamentos() {
+		// cenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		persisteLancamento(usuario, 1, TipoLancamento.RECEITA, 10);
+		persisteLancamento(usuario, 1, TipoLancamento.RECEITA, 20);
+		persisteLancamento(usuario, 2, TipoLancamento.DESPESA, 5);
+		entityManager.flush();
+
+		// execução
+		repository.inserirCalculadoPorUsuario(usuario.getId());
+		List<ResumoMensalDTO> resumo = repository.consultarPorUsuarioEAno(usuario.getId(), 2019);
+
+		// verificação
+		Assertions.assertThat(resumo).hasSize(2);
+		Assertions.assertThat(resumo.get(0).getMes()).isEqualTo(1);
+		Assertions.assertThat(resumo.get(0).getValor()).isEqualByComparingTo(BigDecimal.valueOf(30));
+		Assertions.assertThat(resumo.get(0).getQuantidade()).isEqualTo(2l);
+		Assertions.assertThat(resumo.get(1).getTipo()).isEqualTo("DESPESA");
+	}
+
+	@Test
+	public void deveSomarNaLinhaExistenteEInformarQuandoElaNaoExiste() {
+		// cenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		persisteLancamento(usuario, 3, TipoLancamento.RECEITA, 10);
+		entityManager.flush();
+
+		// execução
+		int semLinha = repository.somar(usuario.getId(), 2019, 3, TipoLancamento.RECEITA, StatusLancamento.PENDENTE,
+				BigDecimal.TEN, 1l);
+		repository.inserirCalculado(usuario.getId(), 2019, 3, "RECEITA", "PENDENTE");
+		int comLinha = repository.somar(usuario.getId(), 2019, 3, TipoLancamento.RECEITA, StatusLancamento.PENDENTE,
+				BigDecimal.ONE, 1l);
+		List<ResumoMensalDTO> resumo = repository.consultarPorUsuarioEAno(usuario.getId(), 2019);
+
+		// verificação
+		Assertions.assertThat(semLinha).isEqualTo(0);
+		Assertions.assertThat(comLinha).isEqualTo(1);
+		Assertions.assertThat(resumo).hasSize(1);
+		Assertions.assertThat(resumo.get(0).getValor()).isEqualByComparingTo(BigDecimal.valueOf(11));
+		Assertions.assertThat(resumo.get(0).getQuantidade()).isEqualTo(2l);
+	}
+
+	@Test
+	public void deveIgnorarOInsertQuandoALinhaJaExistir() {
+		// cenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		persisteLancamento(usuario, 5, TipoLancamento.DESPESA, 10);
+		entityManager.flush();
+		int inseridos = repository.inserirCalculado(usuario.getId(), 2019, 5, "DESPESA", "PENDENTE");
+
+		// execução
+		int repetidos = repository.inserirCalculado(usuario.getId(), 2019, 5, "DESPESA", "PENDENTE");
+		List<ResumoMensalDTO> resumo = repository.consultarPorUsuarioEAno(usuario.getId(), 2019);
+
+		// verificação
+		Assertions.assertThat(inseridos).isEqualTo(1);
+		Assertions.assertThat(repetidos).isEqualTo(0);
+		Assertions.assertThat(resumo).hasSize(1);
+		Assertions.assertThat(resumo.get(0).getValor()).isEqualByComparingTo(BigDecimal.TEN);
+	}
+
+//	Fora da transação do teste: o Hibernate nao guarda no cache de segundo nivel uma entidade inserida na mesma transação,
+//	por isso cada etapa tem a sua transação e os dados sao removidos no final.
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void deveManterOsLancamentosNoCacheDeSegundoNivelAoInserirOResumo() {
+		// cenario
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		Usuario usuario = transacao.execute(status -> usuarioRepository.save(UsuarioRepositoryTest.criarUsuario()));
+		Lancamento lancamento = transacao.execute(status -> {
+			Lancamento novo = LancamentoRepositoryTest.criarLancamento();
+			novo.setUsuario(usuario);
+			return lancamentoRepository.save(novo);
+		});
+		Cache cache = entityManagerFactory.getCache();
+
+		try {
+			transacao.execute(status -> lancamentoRepository.findById(lancamento.getId()));
+			boolean antes = cache.contains(Lancamento.class, lancamento.getId());
+
+			// execução
+			transacao.execute(status -> repository.inserirCalculadoPorUsuario(usuario.getId()));
+
+			// verificação
+			Assertions.assertThat(antes).isTrue();
+			Assertions.assertThat(cache.contains(Lancamento.class, lancamento.getId())).isTrue();
+		} finally {
+			transacao.execute(status -> {
+				repository.removerPorUsuario(usuario.getId());
+				lancamentoRepository.deleteById(lancamento.getId());
+				usuarioRepository.deleteById(usuario.getId());
+				return null;
+			});
+		}
+	}
+
+	@Test
+	public void deveAcumularOSaldoPorMesComESemFuncaoDeJanela() {
+		// cenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		persisteLancamento(usuario, 1, TipoLancamento.RECEITA, 100);
+		persisteLancamento(usuario, 2, TipoLancamento.DESPESA, 30);
+		persisteLancamento(usuario, 4, TipoLancamento.RECEITA, 10);
+		persisteLancamento(usuario, 6, TipoLancamento.DESPESA, 5);
+		entityManager.flush();
+		repository.inserirCalculadoPorUsuario(usuario.getId());
+
+		// execução
+		List<SaldoHistoricoDTO> janela = repository.consultarSaldoAcumulado(usuario.getId(), 201903, 201905);
+		ReflectionTestUtils.setField(repositoryImpl, "funcaoJanela", false);
+		List<SaldoHistoricoDTO> subconsulta;
+		try {
+			subconsulta = repository.consultarSaldoAcumulado(usuario.getId(), 201903, 201905);
+		} finally {
+			ReflectionTestUtils.setField(repositoryImpl, "funcaoJanela", true);
+		}
+
+		// verificação
+		Assertions.assertThat(janela).extracting(SaldoHistoricoDTO::getMes).containsExactly(2, 4);
+		Assertions.assertThat(janela.get(0).getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(70));
+		Assertions.assertThat(janela.get(1).getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(80));
+		Assertions.assertThat(subconsulta).usingElementComparatorIgnoringFields("saldo")
+				.containsExactlyElementsOf(janela);
+		Assertions.assertThat(subconsulta.get(1).getSaldo()).isEqualByComparingTo(BigDecimal.valueOf(80));
+	}
+
+	@Test
+	public void deveRetornarSaldoZeroQuandoOsValoresDoMesForemNulos() {
+		// cenario
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+		persisteLancamento(usuario, 1, TipoLancamento.RECEITA, 100).setValor(null);
+		entityManager.flush();
+		repository.inserirCalculadoPorUsuario(usuario.getId());
+
+		// execução
+		List<SaldoHistoricoDTO> janela = repository.consultarSaldoAcumulado(usuario.getId(), 201901, 201901);
+		ReflectionTestUtils.setField(repositoryImpl, "funcaoJanela", false);
+		List<SaldoHistoricoDTO> subconsulta;
+		try {
+			subconsulta = repository.consultarSaldoAcumulado(usuario.getId(), 201901, 201901);
+		} finally {
+			ReflectionTestUtils.setField(repositoryImpl, "funcaoJanela", true);
+		}
+
+		// verificação
+		Assertions.assertThat(janela).extracting(SaldoHistoricoDTO::getSaldo).containsExactly(BigDecimal.ZERO);
+		Assertions.assertThat(subconsulta).extracting(SaldoHistoricoDTO::getSaldo).containsExactly(BigDecimal.ZERO);
+	}
+
+	private Lancamento persisteLancamento(Usuario usuario, int mes, TipoLancamento tipo, int valor) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setMes(mes);
+		lancamento.setTipo(tipo);
+		lancamento.setStatus(StatusLancamento.PENDENTE);
+		lancamento.setValor(BigDecimal.valueOf(valor));
+		return entityManager.persist(lancamento);
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.renatom.minhasfinancas.model.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.renatom.minhasfinancas.model.entity.SaldoUsuario;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class SaldoUsuarioRepositoryTest {
+
+	@Autowired
+	SaldoUsuarioRepository repository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Test
+	public void deveInserirOSnapshotSomenteQuandoNaoExistir() {
+		// cenario
+		LocalDateTime agora = LocalDateTime.now();
+
+		// execução
+		int primeiro = repository.inserirSeNaoExistir(1l, BigDecimal.TEN, agora, 5l);
+		int segundo = repository.inserirSeNaoExistir(1l, BigDecimal.ONE, agora, 9l);
+
+		// verificação
+		Assertions.assertThat(primeiro).isEqualTo(1);
+		Assertions.assertThat(segundo).isEqualTo(0);
+		entityManager.clear();
+		SaldoUsuario snapshot = repository.findById(1l).get();
+		Assertions.assertThat(snapshot.getValor()).isEqualByComparingTo(BigDecimal.TEN);
+		Assertions.assertThat(snapshot.getVersao()).isEqualTo(5l);
+	}
+
+	@Test
+	public void deveDefinirOSaldoDoSnapshotBloqueadoIncrementandoAVersao() {
+		// cenario
+		Assertions.assertThat(repository.bloquear(2l)).isFalse();
+		repository.inserirSeNaoExistir(2l, BigDecimal.TEN, LocalDateTime.now(), 5l);
+
+		// execução
+		boolean bloqueado = repository.bloquear(2l);
+		repository.definirSaldo(2l, BigDecimal.valueOf(30), LocalDateTime.now());
+
+		// verificação
+		Assertions.assertThat(bloqueado).isTrue();
+		entityManager.clear();
+		SaldoUsuario snapshot = repository.findById(2l).get();
+		Assertions.assertThat(snapshot.getValor()).isEqualByComparingTo(BigDecimal.valueOf(30));
+		Assertions.assertThat(snapshot.getVersao()).isEqualTo(6l);
+	}
+
+}
@@ -11,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -76,6 +77,18 @@ public class UsuarioRepositoryTest {
 	}
 	
 	
+	@Test
+	public void naoDeveSalvarDoisUsuariosComOMesmoEmail() {
+		// cenario
+		entityManager.persist(criarUsuario());
+		
+		// acao
+		Throwable erro = Assertions.catchThrowable(() -> repository.saveAndFlush(criarUsuario()));
+		
+		// verificação
+		Assertions.assertThat(erro).isInstanceOf(DataIntegrityViolationException.class);
+	}
+	
 	@Test
 	public void deveBuscarUmUsuarioPorEmailNaBaseERetornarOMesmo() {
 		// cenario
@@ -0,0 +1,133 @@
+package com.renatom.minhasfinancas.roteamento;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Primario e replica em dois bancos H2 em memoria, cada um com a origem gravada em uma tabela.
+public class RoteamentoDataSourceTest {
+
+	@After
+	public void limpar() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		RoteamentoContexto.limpar();
+	}
+
+	@Test
+	public void deveEnviarSomenteAsTransacoesSomenteLeituraParaAsReplicas() throws Exception {
+		// cenario
+		RoteamentoDataSource roteamento = criarRoteamento("replica_a", "replica_b");
+
+		// execução e verificação
+		Assertions.assertThat(lerOrigem(roteamento)).isEqualTo("primario");
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		Assertions.assertThat(lerOrigem(roteamento)).isEqualTo("replica_a");
+		Assertions.assertThat(lerOrigem(roteamento)).isEqualTo("replica_b");
+		Assertions.assertThat(lerOrigem(roteamento)).isEqualTo("replica_a");
+	}
+
+	@Test
+	public void deveLerDoPrimarioQuandoOUsuarioAcabouDeEscrever() throws Exception {
+		// cenario
+		RoteamentoDataSource roteamento = criarRoteamento("replica_c");
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		// execução
+		RoteamentoContexto.exigirPrimario();
+
+		// verificação
+		Assertions.assertThat(lerOrigem(roteamento)).isEqualTo("primario");
+	}
+
+	@Test
+	public void deveRetirarDoRodizioAReplicaQueNaoResponde() throws Exception {
+		// cenario
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("fora", new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/replica_fora", "sa", "sa"));
+		replicas.put("replica_d", criarBanco("replica_d"));
+		RoteamentoDataSource roteamento = new RoteamentoDataSource(criarBanco("primario"), replicas);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		// execução
+		roteamento.verificarReplicas();
+
+		// verificação
+		Assertions.assertThat(roteamento.getReplicasSaudaveis()).containsExactly("replica_d");
+		Assertions.assertThat(lerOrigem(roteamento)).isEqualTo("replica_d");
+		Assertions.assertThat(lerOrigem(roteamento)).isEqualTo("replica_d");
+	}
+
+	@Test
+	public void deveLerDoPrimarioQuandoAReplicaFalharAoConectar() throws Exception {
+		// cenario
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("fora", new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/replica_fora", "sa", "sa"));
+		RoteamentoDataSource roteamento = new RoteamentoDataSource(criarBanco("primario"), replicas);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		// execução e verificação
+		Assertions.assertThat(lerOrigem(roteamento)).isEqualTo("primario");
+		Assertions.assertThat(roteamento.getReplicasSaudaveis()).isEmpty();
+	}
+
+	@Test
+	public void deveRotearAConexaoComUsuarioESenhaDoMesmoModo() throws Exception {
+		// cenario
+		RoteamentoDataSource roteamento = criarRoteamento("replica_e");
+
+		// execução e verificação
+		try (Connection conexao = roteamento.getConnection("sa", "sa")) {
+			Assertions.assertThat(lerOrigem(conexao)).isEqualTo("primario");
+		}
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try (Connection conexao = roteamento.getConnection("sa", "sa")) {
+			Assertions.assertThat(lerOrigem(conexao)).isEqualTo("replica_e");
+		}
+	}
+
+	private RoteamentoDataSource criarRoteamento(String... nomesReplicas) throws SQLException {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (String nome : nomesReplicas) {
+			replicas.put(nome, criarBanco(nome));
+		}
+		return new RoteamentoDataSource(criarBanco("primario"), replicas);
+	}
+
+	private DataSource criarBanco(String nome) throws SQLException {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+		try (Connection conexao = dataSource.getConnection(); Statement statement = conexao.createStatement()) {
+			statement.execute("create table if not exists origem (nome varchar(20))");
+			statement.execute("delete from origem");
+			statement.execute("insert into origem values ('" + nome + "')");
+		}
+		return dataSource;
+	}
+
+	private String lerOrigem(DataSource dataSource) throws SQLException {
+		try (Connection conexao = dataSource.getConnection()) {
+			return lerOrigem(conexao);
+		}
+	}
+
+	private String lerOrigem(Connection conexao) throws SQLException {
+		try (Statement statement = conexao.createStatement();
+				ResultSet resultado = statement.executeQuery("select nome from origem")) {
+			resultado.next();
+			return resultado.getString(1);
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.renatom.minhasfinancas.roteamento;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.repository.UsuarioRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Roteamento pela JPA com a replica apontando para o mesmo banco H2 do primario, a origem de cada conexao
+// é conferida pelas conexoes ativas de cada pool Hikari.
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import({ ConfiguracaoReplicas.class, SimpleMeterRegistry.class })
+@TestPropertySource(properties = { "financas.replicas.habilitado=true",
+		"financas.replicas.urls=jdbc:h2:mem:db;DB_CLOSE_DELAY=-1" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+public class RoteamentoJpaTest {
+
+	@Autowired
+	RoteamentoDataSource dataSource;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Test
+	public void deveGravarNoPrimarioDepoisDeUmaLeituraNaMesmaRequisicao() {
+		// cenario: um EntityManager aberto por toda a requisição, como faz o open-in-view
+		HikariDataSource primario = (HikariDataSource) ReflectionTestUtils.getField(dataSource, "primario");
+		HikariDataSource replica = obterReplica();
+		TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+		leitura.setReadOnly(true);
+		TransactionTemplate escrita = new TransactionTemplate(transactionManager);
+		TransactionSynchronizationManager.bindResource(entityManagerFactory,
+				new EntityManagerHolder(entityManagerFactory.createEntityManager()));
+
+		Usuario usuario;
+		try {
+			// execução
+			Integer conexoesNaLeitura = leitura.execute(status -> {
+				usuarioRepository.count();
+				return replica.getHikariPoolMXBean().getActiveConnections();
+			});
+
+			usuario = escrita.execute(status -> {
+				Usuario salvo = usuarioRepository.saveAndFlush(
+						Usuario.builder().name("usuario").email("roteamento@email.com").senha("senha").build());
+
+				// verificação
+				Assertions.assertThat(primario.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+				Assertions.assertThat(replica.getHikariPoolMXBean().getActiveConnections()).isEqualTo(0);
+				return salvo;
+			});
+
+			Assertions.assertThat(conexoesNaLeitura).isEqualTo(1);
+		} finally {
+			((EntityManagerHolder) TransactionSynchronizationManager.unbindResource(entityManagerFactory))
+					.getEntityManager().close();
+		}
+
+		usuarioRepository.deleteById(usuario.getId());
+	}
+
+	private HikariDataSource obterReplica() {
+		Iterable<?> replicas = (Iterable<?>) ReflectionTestUtils.getField(dataSource, "replicas");
+		return (HikariDataSource) ReflectionTestUtils.getField(replicas.iterator().next(), "dataSource");
+	}
+
+}
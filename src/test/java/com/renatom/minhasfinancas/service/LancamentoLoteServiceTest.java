@@ -0,0 +1,90 @@
+package com.renatom.minhasfinancas.service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renatom.minhasfinancas.dto.ItemLoteDTO;
+import com.renatom.minhasfinancas.dto.ResultadoLoteDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.service.impl.LancamentoLoteServiceImpl;
+
+public class LancamentoLoteServiceTest {
+
+	private static final String LANCAMENTO = "{\"descricao\":\"Mercado\",\"ano\":2020,\"mes\":1,\"valor\":10,\"tipo\":\"DESPESA\"}";
+
+	private LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+
+	private TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+
+	private LancamentoLoteServiceImpl service;
+
+	@Before
+	public void criarService() {
+		Mockito.when(transactionTemplate.execute(Mockito.any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		service = new LancamentoLoteServiceImpl(repository, Mockito.mock(LancamentoService.class),
+				Mockito.mock(SaldoUsuarioService.class), Mockito.mock(PesquisaLancamentoService.class),
+				Mockito.mock(ResumoMensalService.class), transactionTemplate, new ObjectMapper());
+		ReflectionTestUtils.setField(service, "entityManager", Mockito.mock(EntityManager.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deveGravarOsItensAnterioresEInformarOIndiceDoItemQueNaoEObjeto() {
+		// cenario
+		String json = "[" + LANCAMENTO + "," + LANCAMENTO + ",5," + LANCAMENTO + "]";
+
+		// execução
+		ResultadoLoteDTO resultado = importar(json);
+
+		// verificação
+		Assertions.assertThat(resultado.getIndiceErro()).isEqualTo(2);
+		Assertions.assertThat(resultado.getErro()).contains("item 2");
+		Assertions.assertThat(resultado.getSucessos()).isEqualTo(2);
+		Assertions.assertThat(resultado.getItens()).extracting(ItemLoteDTO::getIndice).containsExactly(0, 1);
+
+		ArgumentCaptor<List<Lancamento>> gravados = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(repository).saveAll(gravados.capture());
+		Assertions.assertThat(gravados.getValue()).hasSize(2);
+	}
+
+	@Test
+	public void deveInformarOIndiceQuandoOJsonTerminarNoMeioDoArray() {
+		// execução
+		ResultadoLoteDTO resultado = importar("[" + LANCAMENTO + ",{\"descricao\":");
+
+		// verificação
+		Assertions.assertThat(resultado.getIndiceErro()).isEqualTo(1);
+		Assertions.assertThat(resultado.getSucessos()).isEqualTo(1);
+	}
+
+	@Test
+	public void deveImportarTodosOsItensSemErroQuandoOArrayEstiverCompleto() {
+		// execução
+		ResultadoLoteDTO resultado = importar("[" + LANCAMENTO + "," + LANCAMENTO + "]");
+
+		// verificação
+		Assertions.assertThat(resultado.getIndiceErro()).isNull();
+		Assertions.assertThat(resultado.getErro()).isNull();
+		Assertions.assertThat(resultado.getSucessos()).isEqualTo(2);
+	}
+
+	private ResultadoLoteDTO importar(String json) {
+		return service.importar(1l, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+	}
+
+}
@@ -1,11 +1,13 @@
 package com.renatom.minhasfinancas.service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import org.assertj.core.api.Assertions;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
@@ -14,11 +16,18 @@ import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.Example;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.renatom.minhasfinancas.dto.CursorLancamento;
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.PaginaCursorDTO;
 import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.exception.VersaoConflitanteException;
 import com.renatom.minhasfinancas.model.entity.Lancamento;
 import com.renatom.minhasfinancas.model.entity.Usuario;
 import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
 import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
 import com.renatom.minhasfinancas.model.repository.LancamentoRepositoryTest;
 import com.renatom.minhasfinancas.model.repository.UsuarioRepositoryTest;
@@ -34,6 +43,24 @@ public class LancamentoServiceTest {
 	@MockBean
 	LancamentoRepository repository;
 
+	@MockBean
+	SaldoUsuarioService saldoService;
+
+	@MockBean
+	PesquisaLancamentoService pesquisaService;
+	
+	@MockBean
+	ResumoMensalService resumoService;
+
+	@MockBean
+	TransactionTemplate transactionTemplate;
+
+	@Before
+	public void executarTransacoes() {
+		Mockito.when(transactionTemplate.execute(Mockito.any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
 	@Test
 	public void deveSalvarUmLancamento() {
 //		cenario
@@ -54,6 +81,42 @@ public class LancamentoServiceTest {
 
 	}
 
+	@Test
+	public void deveAtualizarOSaldoDoUsuarioAoSalvarUmaDespesa() {
+//		cenario
+		Lancamento lancamentoASalvar = LancamentoRepositoryTest.criarLancamento();
+		lancamentoASalvar.setUsuario(Usuario.builder().id(1l).build());
+		lancamentoASalvar.setTipo(TipoLancamento.DESPESA);
+		Mockito.doNothing().when(service).validar(lancamentoASalvar);
+		Mockito.when(repository.save(lancamentoASalvar)).thenReturn(lancamentoASalvar);
+
+//		execucao
+		service.salvar(lancamentoASalvar);
+
+//		verificação
+		Mockito.verify(saldoService).atualizarSaldo(1l, BigDecimal.valueOf(-10));
+	}
+
+	@Test
+	public void deveAtualizarOSaldoComADiferencaAoAtualizarUmLancamento() {
+//		cenario
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Lancamento atualizado = LancamentoRepositoryTest.criarLancamento();
+		atualizado.setId(1l);
+		atualizado.setUsuario(usuario);
+		atualizado.setValor(BigDecimal.valueOf(25));
+		Mockito.doNothing().when(service).validar(atualizado);
+		Mockito.when(repository.consultarPorId(1l)).thenReturn(Optional.of(criarProjecao(1l, 0l)));
+		Mockito.when(repository.atualizarSeVersao(Mockito.eq(1l), Mockito.eq(1l), Mockito.eq(0l), Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
+
+//		execucao
+		service.atualizar(atualizado);
+
+//		verificação
+		Mockito.verify(saldoService).atualizarSaldo(1l, BigDecimal.valueOf(15));
+	}
+
 	@Test
 	public void naoDeveSalvarUmLancamentoQuandoHouverErroDeValidacao() {
 //		cenario
@@ -71,16 +134,52 @@ public class LancamentoServiceTest {
 //		cenario
 		Lancamento lancamentoSalvo = LancamentoRepositoryTest.criarLancamento();
 		lancamentoSalvo.setId(1l);
+		lancamentoSalvo.setUsuario(Usuario.builder().id(1l).build());
 		lancamentoSalvo.setStatus(StatusLancamento.PENDENTE);
+		lancamentoSalvo.setVersao(3l);
 		Mockito.doNothing().when(service).validar(lancamentoSalvo);
-
-		Mockito.when(repository.save(lancamentoSalvo)).thenReturn(lancamentoSalvo);
+		Mockito.when(repository.consultarPorId(1l)).thenReturn(Optional.of(criarProjecao(1l, 3l)));
+		Mockito.when(repository.atualizarSeVersao(1l, 1l, 3l, "lancamento qualquer", 1, 2019, BigDecimal.valueOf(10),
+				TipoLancamento.RECEITA, StatusLancamento.PENDENTE)).thenReturn(1);
 
 //		execucao
-		service.atualizar(lancamentoSalvo);
+		Lancamento atualizado = service.atualizar(lancamentoSalvo);
 
 //		verificação
-		Mockito.verify(repository, Mockito.times(1)).save(lancamentoSalvo);
+		Assertions.assertThat(atualizado.getVersao()).isEqualTo(4l);
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+	}
+
+	@Test
+	public void deveLancarErroDeVersaoAoAtualizarUmLancamentoAlteradoPorOutraRequisicao() {
+//		cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		lancamento.setVersao(2l);
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.consultarPorId(1l)).thenReturn(Optional.of(criarProjecao(1l, 3l)));
+
+//		execução e verificação
+		Assertions.catchThrowableOfType(() -> service.atualizar(lancamento), VersaoConflitanteException.class);
+		Mockito.verify(repository, Mockito.never()).atualizarSeVersao(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+		Mockito.verify(saldoService, Mockito.never()).atualizarSaldo(Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	public void deveLancarErroDeVersaoQuandoOUpdateNaoAlterarNenhumaLinha() {
+//		cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.when(repository.consultarPorId(1l)).thenReturn(Optional.of(criarProjecao(1l, 3l)));
+		Mockito.when(repository.atualizarStatusSeVersao(1l, 1l, 3l, StatusLancamento.CANCELADO)).thenReturn(0);
+
+//		execução e verificação
+		Assertions.catchThrowableOfType(() -> service.atualizarStatus(lancamento, StatusLancamento.CANCELADO),
+				VersaoConflitanteException.class);
+		Mockito.verify(resumoService, Mockito.never()).substituir(Mockito.any(), Mockito.any());
 	}
 
 	@Test
@@ -105,6 +204,7 @@ public class LancamentoServiceTest {
 
 //		verificação
 		Mockito.verify(repository).delete(lancamento);
+		Mockito.verify(saldoService, Mockito.never()).atualizarSaldo(Mockito.any(), Mockito.any());
 
 	}
 
@@ -138,22 +238,65 @@ public class LancamentoServiceTest {
 
 	}
 
+	@Test
+	public void deveRetornarOProximoCursorQuandoHouverMaisLancamentos() {
+//		cenario
+		LancamentoDTO primeiro = LancamentoDTO.builder().id(1l).ano(2019).mes(1).build();
+		LancamentoDTO segundo = LancamentoDTO.builder().id(2l).ano(2019).mes(1).build();
+		Mockito.when(repository.buscarAposCursor(Mockito.any(Lancamento.class), Mockito.isNull(), Mockito.eq(2)))
+				.thenReturn(new ArrayList<>(Arrays.asList(primeiro, segundo)));
+
+//		execução
+		PaginaCursorDTO<LancamentoDTO> pagina = service.buscarPagina(new Lancamento(), null, 1);
+
+//		verificação
+		Assertions.assertThat(pagina.getItens()).containsExactly(primeiro);
+		Assertions.assertThat(CursorLancamento.decodificar(pagina.getProximoCursor()).getId()).isEqualTo(1l);
+	}
+
+	@Test
+	public void deveDescontarDoSaldoOsLancamentosExcluidosEmLote() {
+//		cenario
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(1l).build()).ano(2020).build();
+		Mockito.when(repository.somarImpactoNoSaldo(filtro, null)).thenReturn(BigDecimal.valueOf(30));
+		Mockito.when(repository.deletarEmLote(filtro, null)).thenReturn(3);
+
+//		execução
+		int excluidos = service.deletarEmLote(filtro, null);
+
+//		verificação
+		Assertions.assertThat(excluidos).isEqualTo(3);
+		Mockito.verify(saldoService).atualizarSaldo(1l, BigDecimal.valueOf(-30));
+	}
+
+	@Test
+	public void naoDeveExecutarOperacaoEmLoteSemIdsNemAno() {
+//		cenario
+		Lancamento filtro = Lancamento.builder().usuario(Usuario.builder().id(1l).build()).mes(1).build();
+
+//		execução e verificação
+		Throwable erro = Assertions.catchThrowable(() -> service.atualizarStatusEmLote(filtro, null, StatusLancamento.EFETIVADO));
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe os ids ou o ano dos lançamentos.");
+		Mockito.verify(repository, Mockito.never()).atualizarStatusEmLote(Mockito.any(), Mockito.any(), Mockito.any());
+	}
+
 	@Test
 	public void deveAtualizarOStatusDeUmLancamento() {
 //		cenario
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-		lancamento.setId(1l);
-		lancamento.setStatus(StatusLancamento.PENDENTE);
+		Lancamento lancamento = Lancamento.builder().id(1l).usuario(Usuario.builder().id(1l).build()).build();
+		Mockito.when(repository.consultarPorId(1l)).thenReturn(Optional.of(criarProjecao(1l, 0l)));
 
-		StatusLancamento novoStatus = StatusLancamento.EFETIVADO;
-		Mockito.doReturn(lancamento).when(service).atualizar(lancamento);
+		StatusLancamento novoStatus = StatusLancamento.CANCELADO;
+		Mockito.when(repository.atualizarStatusSeVersao(1l, 1l, 0l, novoStatus)).thenReturn(1);
 
 //		execução
-		service.atualizarStatus(lancamento, novoStatus);
+		Lancamento atualizado = service.atualizarStatus(lancamento, novoStatus);
 
 //		verificação
-		Assertions.assertThat(lancamento.getStatus()).isEqualTo(novoStatus);
-		Mockito.verify(service).atualizar(lancamento);
+		Assertions.assertThat(atualizado.getStatus()).isEqualTo(novoStatus);
+		Assertions.assertThat(atualizado.getVersao()).isEqualTo(1l);
+		Mockito.verify(service, Mockito.never()).atualizar(Mockito.any());
+		Mockito.verify(saldoService).registrarAlteracao(1l);
 
 	}
 
@@ -250,4 +393,10 @@ public class LancamentoServiceTest {
 
 
 	}
+
+	private static LancamentoDTO criarProjecao(Long idUsuario, Long versao) {
+		return new LancamentoDTO(1l, "lancamento qualquer", 1, 2019, idUsuario, BigDecimal.valueOf(10),
+				TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, versao);
+	}
+
 }
@@ -0,0 +1,150 @@
+package com.renatom.minhasfinancas.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.renatom.minhasfinancas.dto.LancamentoDTO;
+import com.renatom.minhasfinancas.dto.ResultadoPesquisaDTO;
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.TrigramaLancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.renatom.minhasfinancas.model.repository.TrigramaLancamentoRepository;
+import com.renatom.minhasfinancas.service.impl.PesquisaLancamentoServiceImpl;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+public class PesquisaLancamentoServiceTest {
+
+	@SpyBean
+	PesquisaLancamentoServiceImpl service;
+
+	@MockBean
+	TrigramaLancamentoRepository repository;
+
+	@MockBean
+	LancamentoRepository lancamentoRepository;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deveIndexarOsTrigramasDaDescricaoSemAcentos() {
+//		cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setDescricao("Pão");
+		lancamento.setUsuario(Usuario.builder().id(2l).build());
+
+//		execução
+		service.indexar(lancamento);
+
+//		verificação
+		ArgumentCaptor<List<TrigramaLancamento>> trigramas = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(repository).removerPorLancamento(1l);
+		Mockito.verify(repository).saveAll(trigramas.capture());
+		Assertions.assertThat(trigramas.getValue()).extracting(TrigramaLancamento::getTrigrama)
+				.containsExactly("  p", " pa", "pao", "ao ");
+		Assertions.assertThat(trigramas.getValue()).extracting(TrigramaLancamento::getIdUsuario).containsOnly(2l);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deveMarcarComoIndexadoOLancamentoSemTrigramas() {
+//		cenario
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setDescricao("!!!");
+		lancamento.setUsuario(Usuario.builder().id(2l).build());
+
+//		execução
+		service.indexar(lancamento);
+
+//		verificação
+		ArgumentCaptor<List<TrigramaLancamento>> trigramas = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(repository).saveAll(trigramas.capture());
+		Assertions.assertThat(trigramas.getValue()).extracting(TrigramaLancamento::getTrigrama).containsExactly("");
+	}
+
+	@Test
+	public void deveContinuarDoUltimoIdQuandoOLoteDePendentesVierCheio() {
+//		cenario
+		Lancamento primeiro = LancamentoRepositoryTest.criarLancamento();
+		primeiro.setId(4l);
+		primeiro.setUsuario(Usuario.builder().id(2l).build());
+		Lancamento segundo = LancamentoRepositoryTest.criarLancamento();
+		segundo.setId(9l);
+		segundo.setUsuario(Usuario.builder().id(2l).build());
+		Mockito.when(repository.buscarLancamentosNaoIndexados(Mockito.eq(0l), Mockito.eq(20l), Mockito.any(Pageable.class)))
+				.thenReturn(Arrays.asList(primeiro, segundo));
+		Mockito.when(repository.buscarLancamentosNaoIndexados(Mockito.eq(9l), Mockito.eq(20l), Mockito.any(Pageable.class)))
+				.thenReturn(Arrays.asList(primeiro));
+
+//		execução
+		Long cheio = service.indexarPendentes(0l, 20l, 2);
+		Long ultimo = service.indexarPendentes(cheio, 20l, 2);
+
+//		verificação
+		Assertions.assertThat(cheio).isEqualTo(9l);
+		Assertions.assertThat(ultimo).isNull();
+	}
+
+	@Test
+	public void deveRetornarOsLancamentosNaOrdemDeRelevancia() {
+//		cenario
+		LancamentoDTO mercado = LancamentoDTO.builder().id(1l).descricao("mercado").build();
+		LancamentoDTO supermercado = LancamentoDTO.builder().id(2l).descricao("supermercado").build();
+
+		Mockito.when(repository.pontuarPorTrigramas(Mockito.eq(3l), Mockito.anyCollection(), Mockito.anyLong(), Mockito.any(Pageable.class)))
+				.thenReturn(Arrays.asList(new Object[] { 2l, 4l }, new Object[] { 1l, 2l }));
+		Mockito.when(lancamentoRepository.consultarPorIds(Mockito.anyCollection())).thenReturn(Arrays.asList(mercado, supermercado));
+
+//		execução
+		List<ResultadoPesquisaDTO> resultado = service.pesquisar(3l, "casa", 10);
+
+//		verificação
+		Assertions.assertThat(resultado).extracting(ResultadoPesquisaDTO::getLancamento).containsExactly(supermercado, mercado);
+		Assertions.assertThat(resultado.get(0).getRelevancia()).isEqualTo(4d / 5);
+	}
+
+	@Test
+	public void devePesquisarPeloPgTrgmSemGravarTrigramasNoPostgres() {
+//		cenario
+		LancamentoDTO mercado = LancamentoDTO.builder().id(1l).descricao("mercado").build();
+		Mockito.when(repository.possuiPgTrgm()).thenReturn(true);
+		Mockito.when(repository.pesquisarPorSimilaridade(3l, "mercado", 10)).thenReturn(Arrays.<Object[]>asList(new Object[] { 1l, 0.5f }));
+		Mockito.when(lancamentoRepository.consultarPorIds(Mockito.anyCollection())).thenReturn(Arrays.asList(mercado));
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(3l).build());
+
+//		execução
+		service.indexar(lancamento);
+		List<ResultadoPesquisaDTO> resultado = service.pesquisar(3l, "mercado", 10);
+
+//		verificação
+		Assertions.assertThat(resultado).extracting(ResultadoPesquisaDTO::getLancamento).containsExactly(mercado);
+		Assertions.assertThat(resultado.get(0).getRelevancia()).isEqualTo(0.5d);
+		Assertions.assertThat(service.obterUltimoIdLancamento()).isNull();
+		Mockito.verify(repository, Mockito.never()).saveAll(Mockito.any());
+		Mockito.verify(repository, Mockito.never()).pontuarPorTrigramas(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	public void deveLancarErroAoPesquisarUmTermoVazio() {
+		Throwable erro = Assertions.catchThrowable(() -> service.pesquisar(1l, " - ", 10));
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um termo de pesquisa válido.");
+	}
+
+}
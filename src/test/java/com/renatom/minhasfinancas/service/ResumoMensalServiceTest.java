@@ -0,0 +1,119 @@
+package com.renatom.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.renatom.minhasfinancas.dto.SaldoHistoricoDTO;
+import com.renatom.minhasfinancas.model.entity.Lancamento;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.enums.StatusLancamento;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.model.repository.ResumoMensalRepository;
+import com.renatom.minhasfinancas.service.impl.ResumoMensalServiceImpl;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+public class ResumoMensalServiceTest {
+
+	@SpyBean
+	ResumoMensalServiceImpl service;
+
+	@MockBean
+	ResumoMensalRepository repository;
+
+	@Test
+	public void deveAgruparOsLancamentosPorLinhaDoResumo() {
+//		cenario
+		Mockito.when(repository.somar(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any())).thenReturn(1);
+
+//		execução
+		service.adicionar(Arrays.asList(criarLancamento(1, 10), criarLancamento(1, 20), criarLancamento(2, 5)));
+
+//		verificação
+		Mockito.verify(repository).somar(1l, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(30), 2l);
+		Mockito.verify(repository).somar(1l, 2020, 2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(5), 1l);
+		Mockito.verify(repository, Mockito.never()).inserirCalculado(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	public void deveCriarALinhaPelosLancamentosQuandoEleNaoExistir() {
+//		cenario
+		Mockito.when(repository.somar(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any())).thenReturn(0);
+		Mockito.when(repository.inserirCalculado(1l, 2020, 3, "DESPESA", "PENDENTE")).thenReturn(1);
+
+//		execução
+		service.adicionar(criarLancamento(3, 10));
+
+//		verificação
+		Mockito.verify(repository).inserirCalculado(1l, 2020, 3, "DESPESA", "PENDENTE");
+		Mockito.verify(repository, Mockito.times(1)).somar(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	public void deveSomarNaLinhaCriadaPorOutraTransacaoQuandoOInsertNaoGravar() {
+//		cenario: a linha nao existia no primeiro update, mas outra transação a criou antes do insert
+		Mockito.when(repository.somar(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any())).thenReturn(0, 1);
+		Mockito.when(repository.inserirCalculado(1l, 2020, 3, "DESPESA", "PENDENTE")).thenReturn(0);
+
+//		execução
+		service.adicionar(criarLancamento(3, 10));
+
+//		verificação
+		Mockito.verify(repository, Mockito.times(2)).somar(1l, 2020, 3, TipoLancamento.DESPESA, StatusLancamento.PENDENTE,
+				BigDecimal.valueOf(10), 1l);
+	}
+
+	@Test
+	public void deveFazerUmUnicoUpdateQuandoOLancamentoContinuaNaMesmaLinha() {
+//		cenario
+		Lancamento anterior = criarLancamento(4, 10);
+		Lancamento atual = criarLancamento(4, 25);
+		Mockito.when(repository.somar(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any())).thenReturn(1);
+
+//		execução
+		service.substituir(anterior, atual);
+
+//		verificação
+		Mockito.verify(repository, Mockito.times(1)).somar(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any(), Mockito.any());
+		Mockito.verify(repository).somar(1l, 2020, 4, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(15), 0l);
+	}
+
+	@Test
+	public void deveRepetirOSaldoAnteriorNosMesesSemLancamentos() {
+//		cenario
+		Mockito.when(repository.consultarSaldoAcumulado(1l, 202002, 202005)).thenReturn(Arrays.asList(
+				SaldoHistoricoDTO.builder().ano(2020).mes(1).saldo(BigDecimal.valueOf(50)).build(),
+				SaldoHistoricoDTO.builder().ano(2020).mes(3).saldo(BigDecimal.valueOf(20)).build()));
+
+//		execução
+		List<SaldoHistoricoDTO> historico = service.obterSaldoHistorico(1l, YearMonth.of(2020, 2), YearMonth.of(2020, 5));
+
+//		verificação
+		Assertions.assertThat(historico).extracting(SaldoHistoricoDTO::getMes).containsExactly(2, 3, 4, 5);
+		Assertions.assertThat(historico).extracting(SaldoHistoricoDTO::getSaldo).containsExactly(BigDecimal.valueOf(50),
+				BigDecimal.valueOf(20), BigDecimal.valueOf(20), BigDecimal.valueOf(20));
+	}
+
+	private Lancamento criarLancamento(int mes, int valor) {
+		return Lancamento.builder().usuario(Usuario.builder().id(1l).build()).ano(2020).mes(mes)
+				.tipo(TipoLancamento.DESPESA).status(StatusLancamento.PENDENTE).valor(BigDecimal.valueOf(valor)).build();
+	}
+
+}
@@ -0,0 +1,176 @@
+package com.renatom.minhasfinancas.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.renatom.minhasfinancas.dto.SaldoTotalDTO;
+import com.renatom.minhasfinancas.model.entity.SaldoUsuario;
+import com.renatom.minhasfinancas.model.enums.TipoLancamento;
+import com.renatom.minhasfinancas.model.repository.LancamentoRepository;
+import com.renatom.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.renatom.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+public class SaldoUsuarioServiceTest {
+
+	@SpyBean
+	SaldoUsuarioServiceImpl service;
+
+	@MockBean
+	SaldoUsuarioRepository repository;
+
+	@MockBean
+	LancamentoRepository lancamentoRepository;
+
+	@MockBean
+	TransactionTemplate transactionTemplate;
+
+	@Before
+	public void executarTransacoes() {
+		Mockito.when(transactionTemplate.execute(Mockito.any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
+	@Test
+	public void deveRetornarOSaldoDoSnapshot() {
+//		cenario
+		SaldoUsuario snapshot = SaldoUsuario.builder().idUsuario(1l).valor(BigDecimal.valueOf(100)).build();
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(snapshot));
+
+//		execução
+		BigDecimal saldo = service.obterSaldo(1l);
+
+//		verificação
+		Assertions.assertThat(saldo).isEqualTo(BigDecimal.valueOf(100));
+		Mockito.verify(lancamentoRepository, Mockito.never()).obterSaldoPorUsuario(Mockito.any(), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	public void deveCalcularOSaldoPelosLancamentosQuandoNaoHouverSnapshot() {
+//		cenario
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.empty());
+		Mockito.when(lancamentoRepository.obterSaldoPorUsuario(1l, TipoLancamento.RECEITA, TipoLancamento.DESPESA)).thenReturn(new SaldoTotalDTO(BigDecimal.valueOf(60), BigDecimal.ZERO));
+
+//		execução
+		BigDecimal saldo = service.obterSaldo(1l);
+
+//		verificação
+		Assertions.assertThat(saldo).isEqualTo(BigDecimal.valueOf(60));
+	}
+
+	@Test
+	public void deveCriarOSnapshotQuandoNaoExistirAoAtualizarOSaldo() {
+//		cenario
+		Mockito.when(repository.somarVariacao(Mockito.eq(1l), Mockito.any(BigDecimal.class), Mockito.any(LocalDateTime.class))).thenReturn(0);
+		Mockito.when(lancamentoRepository.obterSaldoPorUsuario(1l, TipoLancamento.RECEITA, TipoLancamento.DESPESA)).thenReturn(new SaldoTotalDTO(BigDecimal.TEN, BigDecimal.ZERO));
+		Mockito.when(repository.inserirSeNaoExistir(Mockito.eq(1l), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
+
+//		execução
+		service.atualizarSaldo(1l, BigDecimal.TEN);
+
+//		verificação
+		Mockito.verify(repository).inserirSeNaoExistir(Mockito.eq(1l), Mockito.eq(BigDecimal.TEN), Mockito.any(), Mockito.any());
+		Mockito.verify(repository, Mockito.times(1)).somarVariacao(Mockito.eq(1l), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	public void deveSomarAVariacaoQuandoOutraTransacaoCriarOSnapshotPrimeiro() {
+//		cenario
+		Mockito.when(repository.somarVariacao(Mockito.eq(1l), Mockito.any(BigDecimal.class), Mockito.any(LocalDateTime.class))).thenReturn(0, 1);
+		Mockito.when(lancamentoRepository.obterSaldoPorUsuario(1l, TipoLancamento.RECEITA, TipoLancamento.DESPESA)).thenReturn(new SaldoTotalDTO(BigDecimal.ZERO, BigDecimal.ZERO));
+		Mockito.when(repository.inserirSeNaoExistir(Mockito.eq(1l), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(0);
+
+//		execução
+		service.atualizarSaldo(1l, BigDecimal.TEN);
+
+//		verificação
+		Mockito.verify(repository, Mockito.times(2)).somarVariacao(Mockito.eq(1l), Mockito.eq(BigDecimal.TEN), Mockito.any());
+	}
+
+	@Test
+	public void deveRetornarUmaVersaoFixaSemCriarOSnapshotQuandoNaoExistir() {
+//		cenario
+		Mockito.when(repository.obterVersao(1l)).thenReturn(Optional.empty());
+
+//		execução
+		Long versao = service.obterVersao(1l);
+
+//		verificação
+		Assertions.assertThat(versao).isEqualTo(0l);
+		Mockito.verify(repository, Mockito.never()).inserirSeNaoExistir(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+		Mockito.verify(repository, Mockito.never()).bloquear(Mockito.any());
+	}
+
+	@Test
+	public void deveIncrementarAVersaoQuandoOutraTransacaoCriarOSnapshotPrimeiro() {
+//		cenario
+		Mockito.when(repository.incrementarVersao(Mockito.eq(1l), Mockito.any(LocalDateTime.class))).thenReturn(0, 1);
+		Mockito.when(lancamentoRepository.obterSaldoPorUsuario(1l, TipoLancamento.RECEITA, TipoLancamento.DESPESA)).thenReturn(new SaldoTotalDTO(BigDecimal.ZERO, BigDecimal.ZERO));
+		Mockito.when(repository.inserirSeNaoExistir(Mockito.eq(1l), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(0);
+
+//		execução
+		service.registrarAlteracao(1l);
+
+//		verificação
+		Mockito.verify(repository, Mockito.times(2)).incrementarVersao(Mockito.eq(1l), Mockito.any());
+	}
+
+	@Test
+	public void deveBloquearOSnapshotAntesDeRecalcular() {
+//		cenario
+		Mockito.when(repository.bloquear(1l)).thenReturn(true);
+		Mockito.when(lancamentoRepository.obterSaldoPorUsuario(1l, TipoLancamento.RECEITA, TipoLancamento.DESPESA)).thenReturn(new SaldoTotalDTO(BigDecimal.TEN, BigDecimal.ZERO));
+
+//		execução
+		BigDecimal saldo = service.recalcularSaldo(1l);
+
+//		verificação
+		Assertions.assertThat(saldo).isEqualTo(BigDecimal.TEN);
+		InOrder ordem = Mockito.inOrder(repository, lancamentoRepository);
+		ordem.verify(repository).bloquear(1l);
+		ordem.verify(lancamentoRepository).obterSaldoPorUsuario(1l, TipoLancamento.RECEITA, TipoLancamento.DESPESA);
+		ordem.verify(repository).definirSaldo(Mockito.eq(1l), Mockito.eq(BigDecimal.TEN), Mockito.any());
+		Mockito.verify(repository, Mockito.never()).inserirSeNaoExistir(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	public void deveCorrigirOsSnapshotsDivergentesNaReconciliacao() {
+//		cenario
+		SaldoUsuario divergente = SaldoUsuario.builder().idUsuario(1l).valor(BigDecimal.valueOf(999)).build();
+		SaldoUsuario semLancamentos = SaldoUsuario.builder().idUsuario(2l).valor(BigDecimal.valueOf(50)).build();
+		SaldoUsuario correto = SaldoUsuario.builder().idUsuario(4l).valor(BigDecimal.valueOf(5)).build();
+		Mockito.when(repository.findAll()).thenReturn(Arrays.asList(divergente, semLancamentos, correto));
+		Mockito.when(lancamentoRepository.obterTotaisPorUsuario(TipoLancamento.RECEITA, TipoLancamento.DESPESA))
+				.thenReturn(Arrays.asList(new Object[] { 1l, BigDecimal.valueOf(100), BigDecimal.valueOf(30) },
+						new Object[] { 3l, BigDecimal.valueOf(10), null },
+						new Object[] { 4l, BigDecimal.valueOf(5), null }));
+		Mockito.doReturn(BigDecimal.ZERO).when(service).recalcularSaldo(Mockito.anyLong());
+
+//		execução
+		service.reconciliar();
+
+//		verificação
+		Mockito.verify(transactionTemplate, Mockito.times(3)).execute(Mockito.any());
+		Mockito.verify(service).recalcularSaldo(1l);
+		Mockito.verify(service).recalcularSaldo(2l);
+		Mockito.verify(service).recalcularSaldo(3l);
+		Mockito.verify(service, Mockito.never()).recalcularSaldo(4l);
+	}
+
+}
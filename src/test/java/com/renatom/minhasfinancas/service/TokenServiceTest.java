@@ -0,0 +1,61 @@
+package com.renatom.minhasfinancas.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.renatom.minhasfinancas.exception.ErroAutenticacao;
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.service.impl.TokenServiceImpl;
+
+public class TokenServiceTest {
+
+	static final Instant AGORA = Instant.parse("2020-01-01T10:00:00Z");
+
+	TokenService service = new TokenServiceImpl("segredo", 60, Clock.fixed(AGORA, ZoneOffset.UTC));
+
+	@Test
+	public void deveObterOUsuarioDoTokenGerado() {
+		// cenario
+		String token = service.gerarToken(Usuario.builder().id(7l).build());
+
+		// execução
+		Long idUsuario = service.obterIdUsuario(token);
+
+		// verificação
+		Assertions.assertThat(idUsuario).isEqualTo(7l);
+	}
+
+	@Test
+	public void deveRecusarTokenAlteradoOuDeOutroSegredo() {
+		// cenario
+		String token = service.gerarToken(Usuario.builder().id(7l).build());
+		String outroUsuario = new TokenServiceImpl("segredo", 60, Clock.fixed(AGORA, ZoneOffset.UTC))
+				.gerarToken(Usuario.builder().id(8l).build());
+		String adulterado = outroUsuario.substring(0, outroUsuario.indexOf('.')) + token.substring(token.indexOf('.'));
+		String outroSegredo = new TokenServiceImpl("outro", 60, Clock.fixed(AGORA, ZoneOffset.UTC))
+				.gerarToken(Usuario.builder().id(7l).build());
+
+		// execução e verificação
+		Assertions.assertThatThrownBy(() -> service.obterIdUsuario(adulterado)).isInstanceOf(ErroAutenticacao.class);
+		Assertions.assertThatThrownBy(() -> service.obterIdUsuario(outroSegredo)).isInstanceOf(ErroAutenticacao.class);
+		Assertions.assertThatThrownBy(() -> service.obterIdUsuario("invalido")).isInstanceOf(ErroAutenticacao.class);
+	}
+
+	@Test
+	public void deveRecusarTokenExpirado() {
+		// cenario
+		String token = service.gerarToken(Usuario.builder().id(7l).build());
+		TokenService depoisDaValidade = new TokenServiceImpl("segredo", 60,
+				Clock.fixed(AGORA.plus(Duration.ofMinutes(61)), ZoneOffset.UTC));
+
+		// execução e verificação
+		Assertions.assertThatThrownBy(() -> depoisDaValidade.obterIdUsuario(token))
+				.isInstanceOf(ErroAutenticacao.class).hasMessage("Token expirado.");
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.renatom.minhasfinancas.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.renatom.minhasfinancas.model.entity.Usuario;
+import com.renatom.minhasfinancas.model.repository.UsuarioRepository;
+import com.renatom.minhasfinancas.service.impl.UsuarioServiceImpl;
+
+// Caches usuariosPorId e usuariosPorEmail do Caffeine, que o @DataJpaTest troca por um cache vazio se nao for informado.
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import(UsuarioServiceImpl.class)
+@ActiveProfiles("test")
+public class UsuarioServiceCacheTest {
+
+	@Autowired
+	UsuarioService service;
+
+	@Autowired
+	UsuarioRepository repository;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Test
+	public void deveBuscarOUsuarioNoCacheNaSegundaConsulta() {
+		// cenario
+		Usuario usuario = entityManager.persistFlushFind(criarUsuario("cache@email.com"));
+		entityManager.clear();
+
+		// execução
+		repository.findById(usuario.getId());
+		repository.findByEmail("cache@email.com");
+		alterarNomeNoBanco(usuario.getId(), "alterado");
+		String nomePorId = repository.findById(usuario.getId()).get().getName();
+		String nomePorEmail = repository.findByEmail("cache@email.com").get().getName();
+
+		// verificação: o update direto no banco nao aparece porque as duas consultas vieram do cache
+		Assertions.assertThat(nomePorId).isEqualTo("usuario");
+		Assertions.assertThat(nomePorEmail).isEqualTo("usuario");
+		Assertions.assertThat(cacheManager.getCache("usuariosPorId").get(usuario.getId())).isNotNull();
+		Assertions.assertThat(cacheManager.getCache("usuariosPorEmail").get("cache@email.com")).isNotNull();
+	}
+
+	@Test
+	public void deveRemoverOUsuarioDosDoisCachesAoSalvar() {
+		// cenario
+		Usuario usuario = entityManager.persistFlushFind(criarUsuario("evict@email.com"));
+		entityManager.clear();
+		repository.findById(usuario.getId());
+		repository.findByEmail("evict@email.com");
+
+		// execução
+		usuario.setName("alterado");
+		service.salvarUsuario(usuario);
+
+		// verificação
+		Assertions.assertThat(cacheManager.getCache("usuariosPorId").get(usuario.getId())).isNull();
+		Assertions.assertThat(cacheManager.getCache("usuariosPorEmail").get("evict@email.com")).isNull();
+		Assertions.assertThat(repository.findByEmail("evict@email.com").get().getName()).isEqualTo("alterado");
+	}
+
+	private void alterarNomeNoBanco(Long id, String nome) {
+		entityManager.getEntityManager().createNativeQuery("update financas.usuario set nome = :nome where id = :id")
+				.setParameter("nome", nome)
+				.setParameter("id", id)
+				.executeUpdate();
+		entityManager.clear();
+	}
+
+	private Usuario criarUsuario(String email) {
+		return Usuario.builder().name("usuario").email(email).senha("senha").build();
+	}
+
+}
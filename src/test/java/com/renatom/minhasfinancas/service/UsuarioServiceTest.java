@@ -10,6 +10,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
@@ -40,7 +41,6 @@ public class UsuarioServiceTest {
 	@Test
 	public void deveSalvarUsuario() {
 		//cenario
-		Mockito.doNothing().when(service).validarEmail(Mockito.anyString());
 		Usuario usuario = Usuario.builder().id(1l).name("nome").email("email@email.com").senha("senha").build();
 		
 		Mockito.when(repository.save(Mockito.any(Usuario.class))).thenReturn(usuario);
@@ -63,15 +63,15 @@ public class UsuarioServiceTest {
 		// cenario
 		String  email = "email@email.com";
 		Usuario usuario = Usuario.builder().email(email).build();
-		// Retorna uma regra de negocio exception ao tentar validar um email ja cadastrado.
-		Mockito.doThrow(RegraNegocioException.class).when(service).validarEmail(email);
+		// O banco recusa o insert pela constraint de email unico.
+		Mockito.when(repository.save(usuario)).thenThrow(new DataIntegrityViolationException("uk_usuario_email"));
 		
 		//acao
 		service.salvarUsuario(usuario);
 		
 		// verificação
-		// Verifica se o metodo repository.save nunca foi chamado.
-		Mockito.verify(repository, Mockito.never()).save(usuario);
+		// Verifica que o email nao foi consultado antes do insert.
+		Mockito.verify(repository, Mockito.never()).existsByEmail(email);
 	}
 	
 	
@@ -117,28 +117,5 @@ public class UsuarioServiceTest {
 			.isInstanceOf(ErroAutenticacao.class)
 			.hasMessage("Senha inválida!");
 	}
-	
-	
-	@Test(expected = Test.None.class)
-	public void deveValidarEmail() {
-		//cenario
-//		Esta informando se tiver qualquer string no metodo existsByEmail deve retornar false para que consiga salvar o email.
-		Mockito.when(repository.existsByEmail(Mockito.anyString())).thenReturn(false);
-		
-		//ação
-		service.validarEmail("email@email.com");
-	}
-	
-	@Test(expected = RegraNegocioException.class)
-	public void deveLancarErroAoValidarEmailQuandoExistirEmailCadastrado() {
-		//cenario 
-//		Esta informando se tiver qualquer string no metodo existsByEmail deve retornar True para que não consiga salvar o email.
-		Mockito.when(repository.existsByEmail(Mockito.anyString())).thenReturn(true);
-		
-		//acao
-		service.validarEmail("email@email.com");
-		
-		
-	}
 
 }
@@ -0,0 +1,239 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.renatom.minhasfinancas.exception.RegraNegocioException;
+
+// Dois shards em bancos H2 em memoria, o principal com o mapa de usuarios, e cache do mapa desligado (0 ms).
+public class RebalanceamentoShardsTest {
+
+	private JdbcTemplate principal;
+
+	private JdbcTemplate shard1;
+
+	private ShardDataSource shards;
+
+	private MapaShards mapaShards;
+
+	private RebalanceamentoShards rebalanceamento;
+
+	@Before
+	public void criarShards() {
+		DataSource bancoPrincipal = criarBanco("shard_principal");
+		DataSource bancoShard1 = criarBanco("shard_1");
+		principal = new JdbcTemplate(bancoPrincipal);
+		shard1 = new JdbcTemplate(bancoShard1);
+
+		Map<String, DataSource> bancos = new LinkedHashMap<>();
+		bancos.put(ShardDataSource.PRINCIPAL, bancoPrincipal);
+		bancos.put("shard-1", bancoShard1);
+		shards = new ShardDataSource(bancos);
+		mapaShards = new MapaShards(bancoPrincipal, shards.getNomes(), 0);
+		rebalanceamento = new RebalanceamentoShards(shards, mapaShards);
+	}
+
+	@After
+	public void limpar() {
+		ShardContexto.limpar();
+	}
+
+	@Test
+	public void deveEntregarAsConexoesDoShardDoContexto() {
+		// cenario
+		JdbcTemplate roteado = new JdbcTemplate(shards);
+
+		// execução
+		ShardContexto.executar("shard-1", () -> roteado.update("insert into financas.usuario (id, nome, email, senha) values (1, 'a', 'a@email.com', 's')"));
+		roteado.update("insert into financas.usuario (id, nome, email, senha) values (2, 'b', 'b@email.com', 's')");
+
+		// verificação
+		Assertions.assertThat(contar(shard1, "usuario")).isEqualTo(1);
+		Assertions.assertThat(contar(principal, "usuario")).isEqualTo(1);
+		Assertions.assertThat(ShardContexto.atual()).isNull();
+	}
+
+	@Test
+	public void deveRegistrarOsUsuariosNoShardComMenosUsuarios() {
+		// execução
+		UsuarioShard primeiro = mapaShards.registrar("a@email.com");
+		UsuarioShard segundo = mapaShards.registrar("b@email.com");
+
+		// verificação
+		Assertions.assertThat(primeiro.getShard()).isNotEqualTo(segundo.getShard());
+		Assertions.assertThat(primeiro.getIdUsuario()).isNotEqualTo(segundo.getIdUsuario());
+		Assertions.assertThat(mapaShards.obter(segundo.getIdUsuario()).getShard()).isEqualTo(segundo.getShard());
+		Assertions.assertThatThrownBy(() -> mapaShards.registrar("a@email.com")).isInstanceOf(RegraNegocioException.class);
+	}
+
+	@Test
+	public void deveMoverOUsuarioComTodosOsDadosParaOutroShard() {
+		// cenario
+		Long idUsuario = criarUsuarioComDados(ShardDataSource.PRINCIPAL);
+
+		// execução
+		rebalanceamento.mover(idUsuario, "shard-1");
+
+		// verificação
+		UsuarioShard usuarioShard = mapaShards.obter(idUsuario);
+		Assertions.assertThat(usuarioShard.getShard()).isEqualTo("shard-1");
+		Assertions.assertThat(usuarioShard.isBloqueado()).isFalse();
+		for (String tabela : new String[] { "usuario", "lancamento", "lancamento_trigrama", "saldo_usuario", "resumo_mensal" }) {
+			Assertions.assertThat(contar(shard1, tabela)).as(tabela).isGreaterThan(0);
+			Assertions.assertThat(contar(principal, tabela)).as(tabela).isEqualTo(0);
+		}
+		Assertions.assertThat(shard1.queryForObject("select versao from financas.lancamento where id = 10", Long.class)).isEqualTo(3L);
+	}
+
+	@Test
+	public void deveDesbloquearOUsuarioEManterOsDadosNaOrigemQuandoACopiaFalhar() {
+		// cenario
+		Long idUsuario = criarUsuarioComDados(ShardDataSource.PRINCIPAL);
+		shard1.update("insert into financas.lancamento_trigrama (id_lancamento, trigrama, id_usuario) values (10, 'sal', 99)");
+
+		// execução
+		Assertions.assertThatThrownBy(() -> rebalanceamento.mover(idUsuario, "shard-1"))
+				.isInstanceOf(DataIntegrityViolationException.class);
+
+		// verificação
+		UsuarioShard usuarioShard = mapaShards.obter(idUsuario);
+		Assertions.assertThat(usuarioShard.getShard()).isEqualTo(ShardDataSource.PRINCIPAL);
+		Assertions.assertThat(usuarioShard.isBloqueado()).isFalse();
+		Assertions.assertThat(contar(principal, "lancamento")).isEqualTo(2);
+		Assertions.assertThat(contar(shard1, "usuario")).isEqualTo(0);
+	}
+
+//	A escrita passou pelo bloqueio antes dele valer e ainda nao fez commit: a copia espera a trava do snapshot de saldo.
+	@Test
+	public void deveCopiarAEscritaQueEstavaEmAndamentoNaOrigem() throws Exception {
+		// cenario
+		Long idUsuario = criarUsuarioComDados(ShardDataSource.PRINCIPAL);
+		CountDownLatch travado = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> escrita = executor.submit(() -> new TransactionTemplate(new DataSourceTransactionManager(shards.getShard(ShardDataSource.PRINCIPAL)))
+				.execute(status -> {
+					JdbcTemplate banco = new JdbcTemplate(shards.getShard(ShardDataSource.PRINCIPAL));
+					banco.update("update financas.saldo_usuario set valor = valor + 50, versao = versao + 1 where id_usuario = ?", idUsuario);
+					banco.update("insert into financas.lancamento (id, descricao, mes, ano, id_usuario, valor, tipo, status, versao) "
+							+ "values (12, 'bonus', 1, 2024, ?, 50, 'RECEITA', 'PENDENTE', 0)", idUsuario);
+					travado.countDown();
+					aguardar(300);
+					return null;
+				}));
+
+		try {
+			travado.await();
+
+			// execução
+			rebalanceamento.mover(idUsuario, "shard-1");
+			escrita.get();
+		} finally {
+			executor.shutdown();
+		}
+
+		// verificação
+		Assertions.assertThat(contar(shard1, "lancamento")).isEqualTo(3);
+		Assertions.assertThat(shard1.queryForObject("select versao from financas.saldo_usuario where id_usuario = ?", Long.class, idUsuario))
+				.isEqualTo(2L);
+		Assertions.assertThat(contar(principal, "lancamento")).isEqualTo(0);
+		Assertions.assertThat(contar(principal, "saldo_usuario")).isEqualTo(0);
+	}
+
+//	Escrita que gravou na origem depois da copia, como uma que esperou a trava: a origem nao é apagada.
+	@Test
+	public void deveManterOsDadosNaOrigemQuandoHouverEscritaDepoisDaCopia() {
+		// cenario
+		DataSource bancoPrincipal = shards.getShard(ShardDataSource.PRINCIPAL);
+		mapaShards = new MapaShards(bancoPrincipal, shards.getNomes(), 0) {
+			@Override
+			public void mover(Long idUsuario, String shard) {
+				super.mover(idUsuario, shard);
+				principal.update("insert into financas.lancamento (id, descricao, mes, ano, id_usuario, valor, tipo, status, versao) "
+						+ "values (12, 'bonus', 1, 2024, ?, 50, 'RECEITA', 'PENDENTE', 0)", idUsuario);
+			}
+		};
+		rebalanceamento = new RebalanceamentoShards(shards, mapaShards);
+		Long idUsuario = criarUsuarioComDados(ShardDataSource.PRINCIPAL);
+
+		// execução
+		Assertions.assertThatThrownBy(() -> rebalanceamento.mover(idUsuario, "shard-1"))
+				.isInstanceOf(IllegalStateException.class);
+
+		// verificação
+		Assertions.assertThat(mapaShards.obter(idUsuario).getShard()).isEqualTo("shard-1");
+		Assertions.assertThat(contar(shard1, "lancamento")).isEqualTo(2);
+		Assertions.assertThat(contar(principal, "lancamento")).isEqualTo(3);
+		Assertions.assertThat(contar(principal, "usuario")).isEqualTo(1);
+	}
+
+	private Long criarUsuarioComDados(String shard) {
+		Long idUsuario = mapaShards.registrar("usuario@email.com").getIdUsuario();
+		principal.update("update financas.usuario_shard set shard = ? where id_usuario = ?", shard, idUsuario);
+
+		JdbcTemplate banco = new JdbcTemplate(shards.getShard(shard));
+		banco.update("insert into financas.usuario (id, nome, email, senha) values (?, 'usuario', 'usuario@email.com', 'senha')", idUsuario);
+		banco.update("insert into financas.lancamento (id, descricao, mes, ano, id_usuario, valor, tipo, status, versao) "
+				+ "values (10, 'salario', 1, 2024, ?, 1000, 'RECEITA', 'EFETIVADO', 3)", idUsuario);
+		banco.update("insert into financas.lancamento (id, descricao, mes, ano, id_usuario, valor, tipo, status, versao) "
+				+ "values (11, 'aluguel', 1, 2024, ?, 400, 'DESPESA', 'PENDENTE', 0)", idUsuario);
+		banco.update("insert into financas.lancamento_trigrama (id_lancamento, trigrama, id_usuario) values (10, 'sal', ?)", idUsuario);
+		banco.update("insert into financas.saldo_usuario (id_usuario, valor, versao) values (?, 600, 1)", idUsuario);
+		banco.update("insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, valor, quantidade) "
+				+ "values (?, 2024, 1, 'RECEITA', 'EFETIVADO', 1000, 1)", idUsuario);
+		return idUsuario;
+	}
+
+	private void aguardar(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private int contar(JdbcTemplate banco, String tabela) {
+		return banco.queryForObject("select count(*) from financas." + tabela, Integer.class);
+	}
+
+//	Mesmas tabelas das migrações, com a sintaxe do H2.
+	private DataSource criarBanco(String nome) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+		JdbcTemplate banco = new JdbcTemplate(dataSource);
+		banco.execute("drop all objects");
+		banco.execute("create schema financas");
+		banco.execute("create table financas.usuario (id bigint auto_increment primary key, nome varchar(255), "
+				+ "email varchar(255), senha varchar(255))");
+		banco.execute("create table financas.lancamento (id bigint primary key, descricao varchar(255) not null, "
+				+ "mes integer not null, ano integer not null, id_usuario bigint not null references financas.usuario (id), "
+				+ "valor numeric(16, 2) not null, data_cadastro date default current_date, tipo varchar(20), status varchar(20), "
+				+ "versao bigint not null default 0)");
+		banco.execute("create table financas.lancamento_trigrama (id_lancamento bigint not null, trigrama varchar(3) not null, "
+				+ "id_usuario bigint not null, primary key (id_lancamento, trigrama))");
+		banco.execute("create table financas.saldo_usuario (id_usuario bigint primary key references financas.usuario (id), "
+				+ "valor numeric(16, 2) not null, data_atualizacao timestamp, versao bigint not null default 0)");
+		banco.execute("create table financas.resumo_mensal (id_usuario bigint not null, ano integer not null, mes integer not null, "
+				+ "tipo varchar(20) not null, status varchar(20) not null, valor numeric(16, 2) not null, quantidade bigint not null, "
+				+ "primary key (id_usuario, ano, mes, tipo, status))");
+		banco.execute("create table financas.usuario_shard (id_usuario bigint auto_increment primary key, email varchar(255) not null, "
+				+ "shard varchar(50) not null, bloqueado boolean not null default false, "
+				+ "constraint uk_usuario_shard_email unique (email))");
+		return dataSource;
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.renatom.minhasfinancas.shard;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+// Principal e shard em dois bancos H2 em memoria, cada um com a origem gravada em uma tabela.
+public class ShardDataSourceTest {
+
+	@After
+	public void limpar() {
+		ShardContexto.limpar();
+	}
+
+	@Test
+	public void deveEntregarAConexaoComUsuarioESenhaDoShardAtual() throws Exception {
+		// cenario
+		Map<String, DataSource> pools = new LinkedHashMap<>();
+		pools.put(ShardDataSource.PRINCIPAL, criarBanco("shard_principal"));
+		pools.put("shard-1", criarBanco("shard_1"));
+		ShardDataSource shards = new ShardDataSource(pools);
+
+		// execução e verificação
+		try (Connection conexao = shards.getConnection("sa", "sa")) {
+			Assertions.assertThat(lerOrigem(conexao)).isEqualTo("shard_principal");
+		}
+
+		ShardContexto.definir("shard-1");
+		try (Connection conexao = shards.getConnection("sa", "sa")) {
+			Assertions.assertThat(lerOrigem(conexao)).isEqualTo("shard_1");
+		}
+
+		ShardContexto.definir("shard-2");
+		Assertions.assertThatThrownBy(() -> shards.getConnection("sa", "sa"))
+				.isInstanceOf(SQLException.class)
+				.hasMessage("Shard desconhecido: shard-2");
+	}
+
+	private DataSource criarBanco(String nome) throws SQLException {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+		try (Connection conexao = dataSource.getConnection(); Statement statement = conexao.createStatement()) {
+			statement.execute("create table if not exists origem (nome varchar(20))");
+			statement.execute("delete from origem");
+			statement.execute("insert into origem values ('" + nome + "')");
+		}
+		return dataSource;
+	}
+
+	private String lerOrigem(Connection conexao) throws SQLException {
+		try (Statement statement = conexao.createStatement();
+				ResultSet resultado = statement.executeQuery("select nome from origem")) {
+			resultado.next();
+			return resultado.getString(1);
+		}
+	}
+
+}